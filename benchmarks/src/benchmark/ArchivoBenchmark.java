@@ -0,0 +1,93 @@
+package benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+import model.Grafo;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Clase ArchivoBenchmark
+ *
+ * Mide la carga (cargarGrafoDesdeStream) desde un arreglo en memoria,
+ * para no depender del disco, y el guardado (guardarGrafo)
+ * a un archivo temporal.
+ *
+ * También mide guardar y cargar en el formato binario mapeado
+ * (guardarGrafoBinario, cargarGrafoBinario) sobre otro temporal,
+ * y la carga de texto en paralelo (cargarGrafoParalelo) desde el
+ * mismo texto escrito en disco.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx8g"})
+public class ArchivoBenchmark {
+
+    @Param({"grafo.txt", "1000", "10000", "100000", "1000000", "10000000"})
+    public String grafo;
+
+    private byte[] texto;
+    private Grafo g;
+    private File archivo;
+    private File archivoBinario;
+    private File archivoTexto;
+
+    @Setup(Level.Trial)
+    public void preparar() throws IOException {
+        texto = GrafosSinteticos.texto(grafo);
+        g = GrafosSinteticos.grafo(grafo);
+        archivo = File.createTempFile("grafo-benchmark", ".txt");
+        archivo.deleteOnExit();
+        archivoBinario = File.createTempFile("grafo-benchmark", ".bin");
+        archivoBinario.deleteOnExit();
+        g.guardarGrafoBinario(archivoBinario.getPath());
+        archivoTexto = File.createTempFile("grafo-benchmark-carga", ".txt");
+        archivoTexto.deleteOnExit();
+        Files.write(archivoTexto.toPath(), texto);
+    }
+
+    @TearDown(Level.Trial)
+    public void limpiar() {
+        archivo.delete();
+        archivoBinario.delete();
+        archivoTexto.delete();
+    }
+
+    @Benchmark
+    public Grafo cargarGrafoDesdeStream() {
+        Grafo nuevo = new Grafo();
+        nuevo.cargarGrafoDesdeStream(new ByteArrayInputStream(texto));
+        return nuevo;
+    }
+
+    @Benchmark
+    public Grafo cargarGrafoParalelo() {
+        Grafo nuevo = new Grafo();
+        nuevo.cargarGrafoParalelo(archivoTexto.getPath());
+        return nuevo;
+    }
+
+    @Benchmark
+    public long guardarGrafo() {
+        g.guardarGrafo(archivo.getPath());
+        return archivo.length();
+    }
+
+    @Benchmark
+    public Grafo cargarGrafoBinario() {
+        Grafo nuevo = new Grafo();
+        nuevo.cargarGrafoBinario(archivoBinario.getPath());
+        return nuevo;
+    }
+
+    @Benchmark
+    public long guardarGrafoBinario() {
+        g.guardarGrafoBinario(archivoBinario.getPath());
+        return archivoBinario.length();
+    }
+}
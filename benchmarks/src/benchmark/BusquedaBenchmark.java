@@ -0,0 +1,60 @@
+package benchmark;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import model.Grafo;
+import model.ResultadoBusqueda;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Clase BusquedaBenchmark
+ *
+ * Mide bfsCompleto, dfsCompleto, dijkstra y aEstrella entre dos nodos fijos
+ * (ver GrafosSinteticos.parConsulta).
+ *
+ * La compilación CSR se hace en el setup; se mide solo la consulta.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xmx8g", "-Xss8m"})
+public class BusquedaBenchmark {
+
+    @Param({"grafo.txt", "1000", "10000", "100000", "1000000", "10000000"})
+    public String grafo;
+
+    private Grafo g;
+    private String inicio;
+    private String fin;
+
+    @Setup(Level.Trial)
+    public void preparar() throws IOException {
+        g = GrafosSinteticos.grafo(grafo);
+        String[] par = GrafosSinteticos.parConsulta(grafo, g);
+        inicio = par[0];
+        fin = par[1];
+        GrafosSinteticos.compilar(g);
+    }
+
+    @Benchmark
+    public ResultadoBusqueda bfsCompleto() {
+        return g.bfsCompleto(inicio, fin);
+    }
+
+    @Benchmark
+    public ResultadoBusqueda dfsCompleto() {
+        return g.dfsCompleto(inicio, fin);
+    }
+
+    @Benchmark
+    public ResultadoBusqueda dijkstra() {
+        return g.dijkstra(inicio, fin);
+    }
+
+    @Benchmark
+    public ResultadoBusqueda aEstrella() {
+        return g.aEstrella(inicio, fin);
+    }
+}
@@ -0,0 +1,86 @@
+package benchmark;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import model.Grafo;
+import model.ResultadoBusqueda;
+import org.openjdk.jmh.annotations.*;
+import view.MapaPanel;
+
+/**
+ * Clase DibujoBenchmark
+ *
+ * Mide MapaPanel.paintComponent dibujando sobre una imagen
+ * fuera de pantalla (1600x900), con el grafo completo y una ruta.
+ * Se ejecuta en modo headless.
+ *
+ * - paintComponent: repintado normal (capa estática ya dibujada,
+ *   solo la ruta y los nodos especiales encima)
+ * - redibujoCompleto: cambia el ancho en cada llamada para que la
+ *   capa estática se rehaga (fondo, todas las aristas y nodos)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx8g", "-Djava.awt.headless=true"})
+public class DibujoBenchmark {
+
+    @Param({"grafo.txt", "1000", "10000", "100000", "1000000", "10000000"})
+    public String grafo;
+
+    private MapaPanel panel;
+    private BufferedImage imagen;
+    private Graphics2D g2;
+
+    // Alterna el ancho del panel en redibujoCompleto
+    private boolean angosto;
+
+    @Setup(Level.Trial)
+    public void preparar() throws IOException {
+
+        Grafo g = GrafosSinteticos.grafo(grafo);
+        String[] par = GrafosSinteticos.parConsulta(grafo, g);
+        ResultadoBusqueda ruta = g.bfsCompleto(par[0], par[1]);
+
+        // El panel dibuja la última instantánea armada (no la arma él)
+        g.getInstantanea();
+
+        panel = new MapaPanel();
+        panel.setSize(1600, 900);
+        panel.actualizar(
+                g,
+                ruta == null ? null : ruta.ruta,
+                null,
+                null,
+                g.getNodos().get(par[0]),
+                g.getNodos().get(par[1])
+        );
+
+        imagen = new BufferedImage(1600, 900, BufferedImage.TYPE_INT_RGB);
+        g2 = imagen.createGraphics();
+    }
+
+    @TearDown(Level.Trial)
+    public void limpiar() {
+        g2.dispose();
+    }
+
+    @Benchmark
+    public BufferedImage paintComponent() {
+        // paint() delega en paintComponent, que es protegido
+        panel.paint(g2);
+        return imagen;
+    }
+
+    @Benchmark
+    public BufferedImage redibujoCompleto() {
+        angosto = !angosto;
+        panel.setSize(angosto ? 1599 : 1600, 900);
+        panel.paint(g2);
+        return imagen;
+    }
+}
@@ -0,0 +1,45 @@
+package benchmark;
+
+import java.io.File;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Clase EjecutarBenchmarks
+ *
+ * Punto de entrada de benchmarks.jar.
+ *
+ * Acepta las mismas opciones que JMH (por ejemplo
+ * "-p grafo=grafo.txt,100000" o "BusquedaBenchmark").
+ * Si no se indica -rf/-rff, guarda los resultados en JSON en
+ * resultados/jmh-AAAAMMDD-HHMMSS.json para comparar entre versiones.
+ */
+public final class EjecutarBenchmarks {
+
+    private EjecutarBenchmarks() {}
+
+    public static void main(String[] args) throws Exception {
+
+        CommandLineOptions linea = new CommandLineOptions(args);
+        ChainedOptionsBuilder opciones = new OptionsBuilder().parent(linea);
+
+        if (!linea.getResultFormat().hasValue() && !linea.getResult().hasValue()) {
+
+            File carpeta = new File("resultados");
+            carpeta.mkdirs();
+
+            String fecha = LocalDateTime.now()
+                    .format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"));
+
+            opciones.resultFormat(ResultFormatType.JSON)
+                    .result(new File(carpeta, "jmh-" + fecha + ".json").getPath());
+        }
+
+        new Runner(opciones.build()).run();
+    }
+}
@@ -0,0 +1,143 @@
+package benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import model.Grafo;
+import model.GrafoCompilado;
+import model.ResultadoBusqueda;
+
+/**
+ * Clase GrafosSinteticos
+ *
+ * Genera los grafos usados por los benchmarks.
+ *
+ * El parámetro "grafo" de cada benchmark puede ser:
+ * - "grafo.txt": el mapa incluido en resources
+ * - un número de nodos (por ejemplo "1000000"): una cuadrícula
+ *   sintética con calles cada 40 px, donde un 20% de las
+ *   calles son de un solo sentido
+ *
+ * Los grafos sintéticos se generan en el mismo formato de texto
+ * que grafo.txt, con semilla fija para que sean reproducibles.
+ */
+public final class GrafosSinteticos {
+
+    // Valor del parámetro que indica el mapa incluido
+    public static final String INCLUIDO = "grafo.txt";
+
+    // Separación en píxeles entre intersecciones
+    private static final int SEPARACION = 40;
+
+    private GrafosSinteticos() {}
+
+    /**
+     * Devuelve el contenido en formato grafo.txt para el parámetro dado.
+     */
+    public static byte[] texto(String grafo) throws IOException {
+
+        if (INCLUIDO.equals(grafo)) {
+            try (InputStream is = Grafo.class.getResourceAsStream("/resources/grafo.txt")) {
+                if (is == null) throw new IOException("No se encontró /resources/grafo.txt");
+                return is.readAllBytes();
+            }
+        }
+
+        int n = Integer.parseInt(grafo);
+        int lado = (int) Math.ceil(Math.sqrt(n));
+        Random random = new Random(42);
+
+        ByteArrayOutputStream salida = new ByteArrayOutputStream(n * 40);
+        StringBuilder sb = new StringBuilder(64);
+
+        escribir(salida, sb.append("NODOS\n"));
+        for (int i = 0; i < n; i++) {
+            sb.append('S').append(i).append(',')
+              .append((i % lado) * SEPARACION).append(',')
+              .append((i / lado) * SEPARACION).append(",0\n");
+            escribir(salida, sb);
+        }
+
+        escribir(salida, sb.append("ARISTAS\n"));
+        for (int i = 0; i < n; i++) {
+            int derecha = i + 1;
+            int abajo = i + lado;
+            if (derecha < n && derecha % lado != 0) arista(salida, sb, random, i, derecha);
+            if (abajo < n) arista(salida, sb, random, i, abajo);
+        }
+
+        return salida.toByteArray();
+    }
+
+    /**
+     * Construye el grafo correspondiente al parámetro.
+     */
+    public static Grafo grafo(String grafo) throws IOException {
+        Grafo g = new Grafo();
+        g.cargarGrafoDesdeStream(new ByteArrayInputStream(texto(grafo)));
+        return g;
+    }
+
+    /**
+     * Elige un par (inicio, fin) para las búsquedas.
+     *
+     * En la cuadrícula se usan esquinas opuestas. En el mapa incluido
+     * se busca el par conectado con la ruta BFS más larga, para que
+     * la consulta recorra la mayor parte del grafo.
+     */
+    public static String[] parConsulta(String grafo, Grafo g) {
+
+        if (!INCLUIDO.equals(grafo)) {
+            int n = Integer.parseInt(grafo);
+            return new String[]{"S0", "S" + (n - 1)};
+        }
+
+        String[] mejor = null;
+        int largo = -1;
+
+        for (String a : g.getNodos().keySet()) {
+            for (String b : g.getNodos().keySet()) {
+                ResultadoBusqueda r = g.bfsCompleto(a, b);
+                if (r != null && r.ruta.size() > largo) {
+                    largo = r.ruta.size();
+                    mejor = new String[]{a, b};
+                }
+            }
+        }
+
+        return mejor;
+    }
+
+    /**
+     * Fuerza la compilación CSR para que no se mida en la primera iteración.
+     */
+    public static GrafoCompilado compilar(Grafo g) {
+        return g.getCompilado();
+    }
+
+    private static void arista(ByteArrayOutputStream salida, StringBuilder sb,
+                               Random random, int a, int b) {
+
+        boolean bidireccional = random.nextInt(5) != 0;
+
+        // Las calles de un solo sentido se orientan al azar
+        if (!bidireccional && random.nextBoolean()) {
+            int t = a;
+            a = b;
+            b = t;
+        }
+
+        sb.append('S').append(a).append(",S").append(b)
+          .append(bidireccional ? ",1\n" : ",0\n");
+        escribir(salida, sb);
+    }
+
+    private static void escribir(ByteArrayOutputStream salida, StringBuilder sb) {
+        byte[] bytes = sb.toString().getBytes(StandardCharsets.US_ASCII);
+        salida.write(bytes, 0, bytes.length);
+        sb.setLength(0);
+    }
+}
@@ -0,0 +1,52 @@
+package benchmark;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import model.Grafo;
+import model.ResultadoBusqueda;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Clase JerarquiaBenchmark
+ *
+ * Mide la consulta con jerarquías de contracción frente a Dijkstra
+ * sobre el mismo par de nodos que BusquedaBenchmark.
+ *
+ * El preprocesamiento se hace en el setup y no se mide; por su costo
+ * los grafos sintéticos llegan hasta 10^5 nodos.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx8g"})
+public class JerarquiaBenchmark {
+
+    @Param({"grafo.txt", "1000", "10000", "100000"})
+    public String grafo;
+
+    private Grafo g;
+    private String inicio;
+    private String fin;
+
+    @Setup(Level.Trial)
+    public void preparar() throws IOException {
+        g = GrafosSinteticos.grafo(grafo);
+        String[] par = GrafosSinteticos.parConsulta(grafo, g);
+        inicio = par[0];
+        fin = par[1];
+        GrafosSinteticos.compilar(g);
+        g.prepararJerarquia(null);
+    }
+
+    @Benchmark
+    public ResultadoBusqueda jerarquiaContraccion() {
+        return g.jerarquiaContraccion(inicio, fin);
+    }
+
+    @Benchmark
+    public ResultadoBusqueda dijkstra() {
+        return g.dijkstra(inicio, fin);
+    }
+}
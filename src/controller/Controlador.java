@@ -2,6 +2,7 @@ package controller;
 
 import java.awt.event.*;
 import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 import javax.swing.*;
@@ -18,9 +19,17 @@ import view.*;
  * - Creación y eliminación de nodos
  * - Creación y eliminación de aristas
  * - Selección de nodo inicio y fin
- * - Ejecución de algoritmos BFS y DFS
+ * - Ejecución de algoritmos BFS, DFS, BFS bidireccional, Dijkstra, A*
+ *   y consultas con jerarquías de contracción (CH), en segundo plano
+ *   (ServicioBusqueda) con avance y cancelación
+ * - BFS con tabla de distancias por inicio, reutilizada entre destinos
  * - Animación de recorrido
- * - Exportación de tiempos a CSV
+ * - Reutilización de rutas ya calculadas (caché del modelo)
+ * - Lotes de consultas leídos de archivo, ejecutados en paralelo (lote.csv)
+ * - Guardado incremental del grafo (instantánea + diario de ediciones)
+ * - Medición de tiempos con calentamiento y repeticiones, registrada
+ *   en un histograma por algoritmo y agregada a tiempos.csv en
+ *   segundo plano (una fila por ejecución)
  */
 public class Controlador {
 
@@ -33,6 +42,25 @@ public class Controlador {
     // Nombre del archivo donde se guarda el grafo
     private static final String ARCHIVO = "grafo.txt";
 
+    // Archivo donde se guarda la jerarquía de contracción, junto a grafo.txt
+    private static final String ARCHIVO_JERARQUIA = "grafo.ch";
+
+    // Diario de ediciones hechas desde el último grafo.txt completo
+    private static final String ARCHIVO_DIARIO = "grafo.diario";
+
+    // Resultado por consulta del último lote ejecutado
+    private static final String ARCHIVO_LOTE = "lote.csv";
+
+    // Una fila por ejecución medida; se rota al llegar a TAMANO_TIEMPOS bytes
+    private static final String ARCHIVO_TIEMPOS = "tiempos.csv";
+    private static final long TAMANO_TIEMPOS = 10L << 20;
+
+    // Guarda las ediciones sin reescribir todo grafo.txt
+    private DiarioGrafo diario;
+
+    // Ejecuta las búsquedas fuera del hilo de eventos
+    private final ServicioBusqueda servicio = new ServicioBusqueda();
+
     // Nodo seleccionado como inicio
     private Nodo inicio = null;
 
@@ -57,11 +85,12 @@ public class Controlador {
     // Modo actual del sistema (CREAR, BORRAR, UNIR, etc.)
     private String modo = "";
 
-    // Lista que almacena tiempos de ejecución BFS
-    private List<Long> tiemposBFS = new ArrayList<>();
+    // Ejecuciones sin registrar y registradas por cada búsqueda (por defecto)
+    private static final int CALENTAMIENTO = 1;
+    private static final int REPETICIONES = 3;
 
-    // Lista que almacena tiempos de ejecución DFS
-    private List<Long> tiemposDFS = new ArrayList<>();
+    // Histograma de tiempos por algoritmo ("BFS", "DFS", "BFS-BI", "DIJKSTRA", "A*", "CH", "BFS-TABLA")
+    private final MedicionTiempos tiempos = new MedicionTiempos(CALENTAMIENTO, REPETICIONES);
 
     /**
      * Constructor del controlador.
@@ -71,6 +100,9 @@ public class Controlador {
         this.modelo = modelo;
         this.vista = vista;
 
+        diario = new DiarioGrafo(modelo, ARCHIVO, ARCHIVO_DIARIO);
+        tiempos.setRegistro(new RegistroTiempos(ARCHIVO_TIEMPOS, TAMANO_TIEMPOS));
+
         init();
         cargarDatos();
         ajustarContador();
@@ -96,6 +128,11 @@ public class Controlador {
 
         vista.getBtnBFS().addActionListener(e -> ejecutar("BFS"));
         vista.getBtnDFS().addActionListener(e -> ejecutar("DFS"));
+        vista.getBtnBFSBidireccional().addActionListener(e -> ejecutar("BFS-BI"));
+        vista.getBtnDijkstra().addActionListener(e -> ejecutar("DIJKSTRA"));
+        vista.getBtnAEstrella().addActionListener(e -> ejecutar("A*"));
+        vista.getBtnJerarquia().addActionListener(e -> ejecutar("CH"));
+        vista.getBtnTablaBFS().addActionListener(e -> ejecutar("BFS-TABLA"));
 
         vista.getBtnNodo().addActionListener(e -> {
             modo = "CREAR";
@@ -123,33 +160,44 @@ public class Controlador {
          * Restaura el sistema al último estado guardado
          */
         vista.getBtnLimpiar().addActionListener(e -> {
+            servicio.cancelar();
             inicio = null;
             fin = null;
             nodoTemporal = null;
 
             modelo.reiniciar();
-            cargarDatos();   
+            boolean restaurado = cargarDatos();
 
             vista.getPanelMapa().setNodoSeleccionado(null);
             actualizarVista(null);
-            vista.setInfo("Sistema restaurado al último guardado.");
+            if (restaurado) vista.setInfo("Sistema restaurado al último guardado.");
         });
 
         /**
-         * Guarda el grafo actual en archivo
+         * Guarda las ediciones en el diario (o grafo.txt completo al compactar)
          */
         vista.getBtnGuardar().addActionListener(e -> {
-            modelo.guardarGrafo(ARCHIVO);
-            vista.setInfo("Progreso guardado.");
+            try {
+                diario.guardar();
+                vista.setInfo("Progreso guardado.");
+            } catch (IOException ex) {
+                ex.printStackTrace();
+                vista.setInfo("No se pudo guardar el progreso.");
+            }
         });
 
         /**
-         * Abre ventana con estadísticas de tiempos BFS y DFS
+         * Abre ventana con estadísticas de tiempos por algoritmo
          */
         vista.getBtnTiempos().addActionListener(e -> {
-            new VentanaTiempos(tiemposBFS, tiemposDFS).setVisible(true);
+            new VentanaTiempos(tiempos, modelo.getCache()).setVisible(true);
         });
 
+        /**
+         * Ejecuta un archivo de consultas en paralelo y guarda lote.csv
+         */
+        vista.getBtnLote().addActionListener(e -> ejecutarLote());
+
         /**
          * Detecta clicks sobre el mapa
          */
@@ -188,25 +236,62 @@ public class Controlador {
     }
 
     /**
-     * Carga el grafo desde el archivo si existe.
+     * Carga el último grafo guardado (grafo.txt más el diario) si existe;
+     * si no, el mapa incluido en el JAR.
+     *
+     * Si grafo.txt o el diario existen pero no se pueden cargar, avisa
+     * al usuario, muestra el mapa incluido y desactiva Guardar (el
+     * diario se niega a escribir) para no reemplazar sus archivos.
+     *
+     * @return true si se cargó el último guardado o no había ninguno
      */
-    private void cargarDatos() {
+    private boolean cargarDatos() {
+
+        try {
+            boolean cargado = diario.cargar();
+            vista.getBtnGuardar().setEnabled(true);
+
+            if (cargado) {
+                actualizarVista(null);
+                vista.setInfo("Mapa cargado correctamente.");
+                return true;
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+            vista.getBtnGuardar().setEnabled(false);
+            JOptionPane.showMessageDialog(
+                    vista,
+                    "No se pudo cargar " + ARCHIVO + ":\n" + e.getMessage()
+                            + "\n\nSe muestra el mapa incluido. Guardar queda desactivado"
+                            + "\npara no sobrescribir " + ARCHIVO + " ni " + ARCHIVO_DIARIO
+                            + ";\ncorrija el archivo y use Restaurar.",
+                    "Error al cargar",
+                    JOptionPane.ERROR_MESSAGE
+            );
+        }
+
+        boolean cargaFallida = diario.cargaFallida();
 
         try (java.io.InputStream is =
                 getClass().getResourceAsStream("/resources/grafo.txt")) {
 
             if (is == null) {
                 vista.setInfo("No se encontró grafo.txt dentro del JAR.");
-                return;
+                return false;
             }
 
             modelo.cargarGrafoDesdeStream(is);
             actualizarVista(null);
-            vista.setInfo("Mapa cargado correctamente.");
+            vista.setInfo(cargaFallida
+                    ? "No se pudo cargar " + ARCHIVO + "; se muestra el mapa incluido."
+                    : "Mapa cargado correctamente.");
 
         } catch (Exception e) {
             e.printStackTrace();
+            return false;
         }
+
+        return !cargaFallida;
     }
 
 
@@ -227,6 +312,7 @@ public class Controlador {
 
             case "INICIO":
                 if (nodoCercano != null) {
+                    cancelarBusqueda();
                     inicio = nodoCercano;
                     actualizarVista(null);
                 }
@@ -234,6 +320,7 @@ public class Controlador {
 
             case "FIN":
                 if (nodoCercano != null) {
+                    cancelarBusqueda();
                     fin = nodoCercano;
                     actualizarVista(null);
                 }
@@ -293,50 +380,39 @@ public class Controlador {
                 }
 
                 // Verifica que no haya nodos intermedios entre ambos
-                for (Nodo n : modelo.getNodos().values()) {
-
-                    if (n == nodoTemporal || n == nodoCercano) continue;
-
-                    if (esHorizontal) {
-
-                        if (Math.abs(n.getY() - nodoTemporal.getY()) < 20) {
-
-                            if ((n.getX() > nodoTemporal.getX() && n.getX() < nodoCercano.getX()) ||
-                                (n.getX() < nodoTemporal.getX() && n.getX() > nodoCercano.getX())) {
-
-                                JOptionPane.showMessageDialog(
-                                        vista,
-                                        "Existe un nodo intermedio. Solo puedes unir vecinos directos.",
-                                        "Conexión inválida",
-                                        JOptionPane.ERROR_MESSAGE
-                                );
-
-                                nodoTemporal = null;
-                                vista.getPanelMapa().setNodoSeleccionado(null);
-                                return;
-                            }
-                        }
-
-                    } else if (esVertical) {
-
-                        if (Math.abs(n.getX() - nodoTemporal.getX()) < 20) {
+                // (consulta la franja entre los dos nodos en el índice espacial)
+                boolean hayIntermedio;
+
+                if (esHorizontal) {
+                    hayIntermedio = modelo.hayNodoEn(
+                            Math.min(nodoTemporal.getX(), nodoCercano.getX()),
+                            Math.max(nodoTemporal.getX(), nodoCercano.getX()),
+                            nodoTemporal.getY() - 20,
+                            nodoTemporal.getY() + 20,
+                            nodoTemporal,
+                            nodoCercano);
+                } else {
+                    hayIntermedio = modelo.hayNodoEn(
+                            nodoTemporal.getX() - 20,
+                            nodoTemporal.getX() + 20,
+                            Math.min(nodoTemporal.getY(), nodoCercano.getY()),
+                            Math.max(nodoTemporal.getY(), nodoCercano.getY()),
+                            nodoTemporal,
+                            nodoCercano);
+                }
 
-                            if ((n.getY() > nodoTemporal.getY() && n.getY() < nodoCercano.getY()) ||
-                                (n.getY() < nodoTemporal.getY() && n.getY() > nodoCercano.getY())) {
+                if (hayIntermedio) {
 
-                                JOptionPane.showMessageDialog(
-                                        vista,
-                                        "Existe un nodo intermedio. Solo puedes unir vecinos directos.",
-                                        "Conexión inválida",
-                                        JOptionPane.ERROR_MESSAGE
-                                );
+                    JOptionPane.showMessageDialog(
+                            vista,
+                            "Existe un nodo intermedio. Solo puedes unir vecinos directos.",
+                            "Conexión inválida",
+                            JOptionPane.ERROR_MESSAGE
+                    );
 
-                                nodoTemporal = null;
-                                vista.getPanelMapa().setNodoSeleccionado(null);
-                                return;
-                            }
-                        }
-                    }
+                    nodoTemporal = null;
+                    vista.getPanelMapa().setNodoSeleccionado(null);
+                    return;
                 }
 
                 int opcion = JOptionPane.showOptionDialog(
@@ -391,18 +467,21 @@ public class Controlador {
     }
 
     /**
-     * Busca un nodo cercano a las coordenadas dadas.
+     * Busca el nodo más cercano (a menos de 25 px) de las coordenadas dadas.
      */
     private Nodo buscarNodo(int x, int y) {
-        for (Nodo n : modelo.getNodos().values()) {
-            if (n.getPoint().distance(x, y) < 25) return n;
-        }
-        return null;
+        return modelo.buscarNodoCercano(x, y, 25);
     }
 
     /**
-     * Ejecuta el algoritmo BFS o DFS.
-     * Puede mostrar resultado inmediato o animado.
+     * Ejecuta el algoritmo indicado ("BFS", "DFS", "BFS-BI", "DIJKSTRA", "A*", "CH" o "BFS-TABLA")
+     * en segundo plano, sobre una instantánea del grafo actual.
+     * Mientras corre se muestran los nodos expandidos; elegir otro
+     * inicio o fin, o ejecutar otra búsqueda, la cancela.
+     *
+     * Para "CH" la jerarquía se prepara antes de medir la consulta:
+     * se reutiliza grafo.ch si corresponde al grafo actual o se
+     * construye y se guarda en él.
      */
     private void ejecutar(String tipo) {
 
@@ -411,22 +490,67 @@ public class Controlador {
             return;
         }
 
-        ResultadoBusqueda res = tipo.equals("BFS")
-                ? modelo.bfsCompleto(inicio.getId(), fin.getId())
-                : modelo.dfsCompleto(inicio.getId(), fin.getId());
+        vista.setInfo("Buscando con " + tipo + "...");
 
-        if (res == null) {
-            vista.setInfo("No existe ruta.");
+        servicio.buscar(modelo, tipo, inicio.getId(), fin.getId(),
+                ARCHIVO_JERARQUIA, tiempos, new ServicioBusqueda.Oyente() {
+
+            @Override
+            public void avance(long expandidos) {
+                vista.setInfo("Buscando con " + tipo + "... ("
+                        + expandidos + " nodos expandidos)");
+            }
+
+            @Override
+            public void terminada(InstantaneaGrafo instantanea, ResultadoBusqueda res) {
+                mostrarResultado(tipo, instantanea, res);
+            }
+
+            @Override
+            public void fallida(Throwable error) {
+                error.printStackTrace();
+                vista.setInfo("La búsqueda falló: " + error);
+            }
+        });
+    }
+
+    /**
+     * Cancela la búsqueda en curso (si la hay) e informa al usuario.
+     */
+    private void cancelarBusqueda() {
+        if (servicio.estaBuscando()) {
+            servicio.cancelar();
+            vista.setInfo("Búsqueda cancelada.");
+        }
+    }
+
+    /**
+     * Muestra el resultado de una búsqueda terminada.
+     * Puede mostrar resultado inmediato o animado.
+     *
+     * Si el grafo se editó mientras se buscaba, el resultado
+     * se descarta porque puede nombrar nodos que ya no existen.
+     */
+    private void mostrarResultado(String tipo, InstantaneaGrafo instantanea, ResultadoBusqueda res) {
+
+        if (instantanea.getVersion() != modelo.getVersion()) {
+            vista.setInfo("El grafo cambió durante la búsqueda; vuelva a ejecutarla.");
             return;
         }
 
-        if (tipo.equals("BFS")) {
-            tiemposBFS.add(res.tiempo);
-        } else {
-            tiemposDFS.add(res.tiempo);
+        // La jerarquía preparada en segundo plano queda para las próximas consultas
+        modelo.usarJerarquia(instantanea.getJerarquia());
+
+        if (res == null) {
+            vista.setInfo("No existe ruta.");
+            return;
         }
 
-        exportarCSV();
+        String mensaje = res.desdeCache
+                ? "Ruta encontrada (desde caché)."
+                : tipo.equals("BFS-TABLA")
+                ? "Ruta encontrada (tabla de distancias desde el inicio)."
+                : "Ruta encontrada (" + res.nodosExpandidos + " nodos expandidos).";
 
         boolean modoAnimado =
                 vista.getComboModo().getSelectedIndex() == 1;
@@ -434,8 +558,7 @@ public class Controlador {
         if (!modoAnimado) {
 
             vista.getPanelMapa().actualizar(
-                    modelo.getNodos(),
-                    modelo.getAristasVisibles(),
+                    modelo,
                     res.ruta,
                     null,
                     null,
@@ -443,7 +566,7 @@ public class Controlador {
                     fin
             );
 
-            vista.setInfo("Ruta encontrada.");
+            vista.setInfo(mensaje);
             return;
         }
 
@@ -460,8 +583,7 @@ public class Controlador {
                 nodosAnimados.add(res.visitados.get(indiceAnimacion));
 
                 vista.getPanelMapa().actualizar(
-                        modelo.getNodos(),
-                        modelo.getAristasVisibles(),
+                        modelo,
                         null,
                         nodosAnimados,
                         null,
@@ -476,8 +598,7 @@ public class Controlador {
                 ((Timer) e.getSource()).stop();
 
                 vista.getPanelMapa().actualizar(
-                        modelo.getNodos(),
-                        modelo.getAristasVisibles(),
+                        modelo,
                         res.ruta,
                         nodosAnimados,
                         null,
@@ -485,7 +606,7 @@ public class Controlador {
                         fin
                 );
 
-                vista.setInfo("Ruta encontrada.");
+                vista.setInfo(mensaje);
             }
         });
 
@@ -493,33 +614,79 @@ public class Controlador {
     }
 
     /**
-     * Exporta los tiempos de ejecución BFS y DFS
-     * a un archivo llamado tiempos.csv
+     * Pide un archivo de consultas (origen,destino,algoritmo por línea)
+     * y lo ejecuta en segundo plano sobre una instantánea del grafo,
+     * repartiendo las consultas entre los núcleos.
+     * Al terminar muestra rendimiento y percentiles de latencia,
+     * y guarda el detalle por consulta en lote.csv.
      */
-    private void exportarCSV() {
+    private void ejecutarLote() {
+
+        JFileChooser selector = new JFileChooser(new File("."));
+        if (selector.showOpenDialog(vista) != JFileChooser.APPROVE_OPTION) return;
+
+        String ruta = selector.getSelectedFile().getPath();
+        List<ConsultaRuta> consultas;
+
+        try {
+            consultas = ConsultaRuta.leerArchivo(ruta);
+        } catch (FormatoGrafoException ex) {
+            JOptionPane.showMessageDialog(vista, "Formato inválido en " + ex.getMessage(),
+                    "Lote de consultas", JOptionPane.ERROR_MESSAGE);
+            return;
+        } catch (IOException ex) {
+            ex.printStackTrace();
+            vista.setInfo("No se pudo leer " + ruta + ".");
+            return;
+        }
+
+        boolean conJerarquia = consultas.stream().anyMatch(c -> c.getAlgoritmo().equals("CH"));
 
-        try (java.io.PrintWriter pw = new java.io.PrintWriter("tiempos.csv")) {
+        vista.setInfo("Ejecutando " + consultas.size() + " consultas...");
 
-            pw.println("Ejecucion,BFS_ms,DFS_ms");
+        Thread hilo = new Thread(() -> {
 
-            int total = Math.max(tiemposBFS.size(), tiemposDFS.size());
+            InstantaneaGrafo usada;
+            ResultadoLote lote;
 
-            for (int i = 0; i < total; i++) {
+            try {
+                // Se toma aquí y no en el hilo de eventos: arma la
+                // instantánea si el grafo cambió
+                InstantaneaGrafo instantanea = modelo.getInstantanea();
 
-                double bfs = i < tiemposBFS.size()
-                        ? tiemposBFS.get(i) / 1_000_000.0
-                        : 0;
+                usada = conJerarquia
+                        ? instantanea.conJerarquia(ARCHIVO_JERARQUIA)
+                        : instantanea;
 
-                double dfs = i < tiemposDFS.size()
-                        ? tiemposDFS.get(i) / 1_000_000.0
-                        : 0;
+                lote = usada.buscarLote(consultas);
 
-                pw.println((i + 1) + "," + bfs + "," + dfs);
+            } catch (RuntimeException ex) {
+                // Algoritmo desconocido, jerarquía que no se pudo preparar, ...
+                ex.printStackTrace();
+                SwingUtilities.invokeLater(() ->
+                        vista.setInfo("El lote de consultas falló: " + ex));
+                return;
             }
 
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
+            boolean guardado = true;
+            try {
+                lote.guardarCSV(ARCHIVO_LOTE);
+            } catch (IOException ex) {
+                ex.printStackTrace();
+                guardado = false;
+            }
+
+            String mensaje = lote.getResumen()
+                    + (guardado ? " (detalle en " + ARCHIVO_LOTE + ")" : "");
+
+            SwingUtilities.invokeLater(() -> {
+                modelo.usarJerarquia(usada.getJerarquia());
+                vista.setInfo(mensaje);
+            });
+        }, "lote");
+
+        hilo.setDaemon(true);
+        hilo.start();
     }
 
     /**
@@ -527,8 +694,7 @@ public class Controlador {
      */
     private void actualizarVista(List<Nodo> ruta) {
         vista.getPanelMapa().actualizar(
-                modelo.getNodos(),
-                modelo.getAristasVisibles(),
+                modelo,
                 ruta,
                 null,
                 null,
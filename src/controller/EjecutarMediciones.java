@@ -0,0 +1,309 @@
+package controller;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import model.CargadorParalelo;
+import model.ConsultaRuta;
+import model.FormatoBinario;
+import model.Grafo;
+import model.InstantaneaGrafo;
+import model.ResultadoBusqueda;
+import model.ResultadoLote;
+
+/**
+ * Clase EjecutarMediciones
+ *
+ * Punto de entrada por consola para medir los algoritmos sin abrir
+ * la interfaz gráfica (servidores sin pantalla). No usa el paquete
+ * view ni Swing, y activa java.awt.headless.
+ *
+ * Carga un grafo (texto o binario), lee un archivo de consultas
+ * (origen,destino,algoritmo por línea, ver ConsultaRuta), ejecuta
+ * unas rondas de calentamiento que no se registran y luego las
+ * repeticiones medidas. Escribe:
+ * - PREFIJO-ejecuciones.csv: una fila por consulta y repetición
+ * - PREFIJO-resumen.csv: latencias agregadas por algoritmo (ms)
+ * - PREFIJO.json: configuración, resumen y total de cada repetición
+ *
+ * Uso:
+ *   java -cp ProyectoFinal.jar controller.EjecutarMediciones
+ *        --grafo grafo.txt --consultas consultas.txt
+ *        [--algoritmos BFS,DFS,...] [--calentamiento 2] [--repeticiones 5]
+ *        [--paralelo] [--jerarquia grafo.ch] [--salida resultados/mediciones]
+ *
+ * Con --algoritmos cada par origen,destino del archivo se ejecuta con
+ * cada algoritmo indicado (se ignora el del archivo). Sin --paralelo
+ * las consultas se ejecutan una tras otra en un solo hilo.
+ * Por defecto se escribe en resultados/mediciones-AAAAMMDD-HHMMSS.
+ */
+public final class EjecutarMediciones {
+
+    private static final String USO =
+            "Uso: java controller.EjecutarMediciones --grafo <archivo> --consultas <archivo>\n"
+            + "       [--algoritmos BFS,DFS,...] [--calentamiento N] [--repeticiones N]\n"
+            + "       [--paralelo] [--jerarquia <archivo>] [--salida <prefijo>]";
+
+    private EjecutarMediciones() {}
+
+    public static void main(String[] args) throws IOException {
+
+        System.setProperty("java.awt.headless", "true");
+
+        Map<String, String> opciones = leerOpciones(args);
+        String rutaGrafo = opciones.get("grafo");
+        String rutaConsultas = opciones.get("consultas");
+
+        if (rutaGrafo == null || rutaConsultas == null) {
+            System.err.println(USO);
+            System.exit(1);
+        }
+
+        int calentamiento = Integer.parseInt(opciones.getOrDefault("calentamiento", "2"));
+        int repeticiones = Integer.parseInt(opciones.getOrDefault("repeticiones", "5"));
+        boolean paralelo = opciones.containsKey("paralelo");
+        String prefijo = opciones.getOrDefault("salida", prefijoPorDefecto());
+
+        // Carga del grafo
+        long inicio = System.nanoTime();
+        Grafo grafo = new Grafo();
+        if (FormatoBinario.esBinario(rutaGrafo)) {
+            FormatoBinario.cargar(grafo, rutaGrafo);
+        } else {
+            CargadorParalelo.cargar(grafo, rutaGrafo);
+        }
+        InstantaneaGrafo instantanea = grafo.getInstantanea();
+        long tiempoCarga = System.nanoTime() - inicio;
+
+        List<ConsultaRuta> consultas = ConsultaRuta.leerArchivo(rutaConsultas);
+        if (opciones.containsKey("algoritmos")) {
+            consultas = combinar(consultas, opciones.get("algoritmos").split(","));
+        }
+
+        // Preparación de CH (no se mide dentro de las consultas)
+        long tiempoJerarquia = 0;
+        if (consultas.stream().anyMatch(c -> c.getAlgoritmo().equals("CH"))) {
+            inicio = System.nanoTime();
+            instantanea = instantanea.conJerarquia(opciones.get("jerarquia"));
+            tiempoJerarquia = System.nanoTime() - inicio;
+        }
+
+        System.out.printf("Grafo %s: %d nodos, %d aristas (%.1f ms); %d consultas%n",
+                rutaGrafo, instantanea.getNumeroNodos(),
+                instantanea.getCompilado().getNumeroAristas(),
+                tiempoCarga / 1e6, consultas.size());
+
+        for (int i = 0; i < calentamiento; i++) {
+            instantanea.buscarLote(consultas, paralelo);
+        }
+
+        // Latencias por algoritmo, en el orden de ConsultaRuta.ALGORITMOS
+        Map<String, List<Long>> latencias = new LinkedHashMap<>();
+        for (String algoritmo : ConsultaRuta.ALGORITMOS) {
+            for (ConsultaRuta c : consultas) {
+                if (c.getAlgoritmo().equals(algoritmo)) {
+                    latencias.put(algoritmo, new ArrayList<>());
+                    break;
+                }
+            }
+        }
+        Map<String, Integer> rutas = new LinkedHashMap<>();
+
+        long[] totales = new long[repeticiones];
+
+        File carpeta = new File(prefijo).getAbsoluteFile().getParentFile();
+        if (carpeta != null) carpeta.mkdirs();
+
+        try (PrintWriter pw = new PrintWriter(new BufferedWriter(
+                new FileWriter(prefijo + "-ejecuciones.csv")))) {
+
+            pw.println("Repeticion,Origen,Destino,Algoritmo,Ruta,Saltos,Expandidos,Latencia_ms");
+
+            for (int r = 0; r < repeticiones; r++) {
+
+                ResultadoLote lote = instantanea.buscarLote(consultas, paralelo);
+                totales[r] = lote.getTiempoTotal();
+
+                for (int i = 0; i < consultas.size(); i++) {
+
+                    ConsultaRuta c = consultas.get(i);
+                    ResultadoBusqueda res = lote.getResultados().get(i);
+                    long latencia = lote.getLatencia(i);
+
+                    latencias.get(c.getAlgoritmo()).add(latencia);
+                    if (res != null) rutas.merge(c.getAlgoritmo(), 1, Integer::sum);
+
+                    pw.println((r + 1) + "," + c + "," +
+                            (res != null ? 1 : 0) + "," +
+                            (res != null ? res.ruta.size() - 1 : -1) + "," +
+                            (res != null ? res.nodosExpandidos : 0) + "," +
+                            latencia / 1_000_000.0);
+                }
+
+                System.out.printf("Repetición %d: %s%n", r + 1, lote.getResumen());
+            }
+        }
+
+        // Resumen por algoritmo
+        List<String> filas = new ArrayList<>();
+        List<String> objetos = new ArrayList<>();
+
+        for (Map.Entry<String, List<Long>> entry : latencias.entrySet()) {
+
+            long[] ordenadas = new long[entry.getValue().size()];
+            long suma = 0;
+            for (int i = 0; i < ordenadas.length; i++) {
+                ordenadas[i] = entry.getValue().get(i);
+                suma += ordenadas[i];
+            }
+            Arrays.sort(ordenadas);
+
+            String algoritmo = entry.getKey();
+            int conRuta = rutas.getOrDefault(algoritmo, 0);
+            double media = ordenadas.length == 0 ? 0 : suma / 1e6 / ordenadas.length;
+
+            double[] valores = {
+                    media,
+                    ResultadoLote.percentil(ordenadas, 0) / 1e6,
+                    ResultadoLote.percentil(ordenadas, 50) / 1e6,
+                    ResultadoLote.percentil(ordenadas, 90) / 1e6,
+                    ResultadoLote.percentil(ordenadas, 99) / 1e6,
+                    ResultadoLote.percentil(ordenadas, 100) / 1e6
+            };
+
+            StringBuilder fila = new StringBuilder(algoritmo)
+                    .append(',').append(ordenadas.length)
+                    .append(',').append(conRuta);
+            for (double v : valores) fila.append(',').append(v);
+            filas.add(fila.toString());
+
+            objetos.add(String.format(Locale.ROOT,
+                    "    {\"algoritmo\": %s, \"mediciones\": %d, \"con_ruta\": %d, "
+                    + "\"media_ms\": %.6f, \"min_ms\": %.6f, \"p50_ms\": %.6f, "
+                    + "\"p90_ms\": %.6f, \"p99_ms\": %.6f, \"max_ms\": %.6f}",
+                    json(algoritmo), ordenadas.length, conRuta,
+                    valores[0], valores[1], valores[2], valores[3], valores[4], valores[5]));
+
+            System.out.printf("%-10s media %.4f ms, p50 %.4f ms, p90 %.4f ms, p99 %.4f ms, máx %.4f ms%n",
+                    algoritmo, valores[0], valores[2], valores[3], valores[4], valores[5]);
+        }
+
+        try (PrintWriter pw = new PrintWriter(new BufferedWriter(
+                new FileWriter(prefijo + "-resumen.csv")))) {
+            pw.println("Algoritmo,Mediciones,Con_ruta,Media_ms,Min_ms,P50_ms,P90_ms,P99_ms,Max_ms");
+            for (String fila : filas) {
+                pw.println(fila);
+            }
+        }
+
+        try (PrintWriter pw = new PrintWriter(new BufferedWriter(
+                new FileWriter(prefijo + ".json")))) {
+
+            pw.println("{");
+            pw.println("  \"grafo\": " + json(rutaGrafo) + ",");
+            pw.println("  \"consultas\": " + json(rutaConsultas) + ",");
+            pw.println("  \"nodos\": " + instantanea.getNumeroNodos() + ",");
+            pw.println("  \"aristas\": " + instantanea.getCompilado().getNumeroAristas() + ",");
+            pw.println("  \"total_consultas\": " + consultas.size() + ",");
+            pw.println("  \"calentamiento\": " + calentamiento + ",");
+            pw.println("  \"repeticiones\": " + repeticiones + ",");
+            pw.println("  \"paralelo\": " + paralelo + ",");
+            pw.println("  \"nucleos\": " + Runtime.getRuntime().availableProcessors() + ",");
+            pw.printf(Locale.ROOT, "  \"carga_ms\": %.3f,%n", tiempoCarga / 1e6);
+            pw.printf(Locale.ROOT, "  \"jerarquia_ms\": %.3f,%n", tiempoJerarquia / 1e6);
+
+            pw.println("  \"total_por_repeticion_ms\": [");
+            for (int r = 0; r < repeticiones; r++) {
+                pw.printf(Locale.ROOT, "    %.3f%s%n",
+                        totales[r] / 1e6, r + 1 < repeticiones ? "," : "");
+            }
+            pw.println("  ],");
+
+            pw.println("  \"resumen\": [");
+            for (int i = 0; i < objetos.size(); i++) {
+                pw.println(objetos.get(i) + (i + 1 < objetos.size() ? "," : ""));
+            }
+            pw.println("  ]");
+            pw.println("}");
+        }
+
+        System.out.println("Resultados en " + prefijo + "-ejecuciones.csv, "
+                + prefijo + "-resumen.csv y " + prefijo + ".json");
+    }
+
+    /**
+     * Lee opciones "--clave valor"; las que no llevan valor
+     * (como --paralelo) quedan con valor vacío.
+     */
+    private static Map<String, String> leerOpciones(String[] args) {
+
+        Map<String, String> opciones = new LinkedHashMap<>();
+
+        for (int i = 0; i < args.length; i++) {
+
+            if (!args[i].startsWith("--")) {
+                System.err.println("Opción inválida: " + args[i]);
+                System.err.println(USO);
+                System.exit(1);
+            }
+
+            String clave = args[i].substring(2);
+            if (i + 1 < args.length && !args[i + 1].startsWith("--")) {
+                opciones.put(clave, args[++i]);
+            } else {
+                opciones.put(clave, "");
+            }
+        }
+
+        return opciones;
+    }
+
+    /**
+     * Cada par origen,destino con cada algoritmo indicado.
+     */
+    private static List<ConsultaRuta> combinar(List<ConsultaRuta> consultas, String[] algoritmos) {
+
+        List<ConsultaRuta> combinadas = new ArrayList<>();
+
+        for (ConsultaRuta c : consultas) {
+            for (String algoritmo : algoritmos) {
+                combinadas.add(new ConsultaRuta(c.getOrigen(), c.getDestino(),
+                        algoritmo.trim().toUpperCase()));
+            }
+        }
+
+        return combinadas;
+    }
+
+    private static String prefijoPorDefecto() {
+        String fecha = LocalDateTime.now()
+                .format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"));
+        return "resultados/mediciones-" + fecha;
+    }
+
+    /**
+     * Texto entre comillas con los caracteres especiales de JSON escapados.
+     */
+    private static String json(String texto) {
+
+        StringBuilder sb = new StringBuilder("\"");
+
+        for (char c : texto.toCharArray()) {
+            if (c == '"' || c == '\\') sb.append('\\').append(c);
+            else if (c < ' ') sb.append(String.format("\\u%04x", (int) c));
+            else sb.append(c);
+        }
+
+        return sb.append('"').toString();
+    }
+}
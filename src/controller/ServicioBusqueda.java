@@ -0,0 +1,152 @@
+package controller;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
+import model.Grafo;
+import model.InstantaneaGrafo;
+import model.MedicionTiempos;
+import model.Progreso;
+import model.ResultadoBusqueda;
+
+/**
+ * Clase ServicioBusqueda
+ *
+ * Ejecuta las búsquedas fuera del hilo de eventos de Swing, para que
+ * la ventana siga respondiendo mientras se recorre un grafo grande.
+ *
+ * - Cada búsqueda trabaja sobre una InstantaneaGrafo (inmutable),
+ *   así que el grafo puede seguir editándose mientras corre; la
+ *   instantánea se toma en el hilo de búsqueda, porque armarla
+ *   recorre todo el grafo
+ * - Las búsquedas se ejecutan de a una, en un hilo propio
+ * - Mientras corre se informa el avance (nodos expandidos)
+ * - La búsqueda se repite según MedicionTiempos (calentamiento y
+ *   repeticiones) y cada tiempo se registra en su histograma
+ * - Lanzar otra búsqueda o llamar a cancelar() detiene la anterior;
+ *   su resultado ya no se entrega
+ * - El avance y el resultado se entregan en el hilo de eventos
+ *
+ * Todos los métodos públicos deben llamarse desde el hilo de eventos.
+ */
+public class ServicioBusqueda {
+
+    /**
+     * Recibe, en el hilo de eventos, el avance y el final de una búsqueda.
+     */
+    public interface Oyente {
+
+        void avance(long expandidos);
+
+        /**
+         * @param instantanea Instantánea usada (con la jerarquía, si se preparó)
+         * @param resultado Resultado, o null si no existe ruta
+         */
+        void terminada(InstantaneaGrafo instantanea, ResultadoBusqueda resultado);
+
+        void fallida(Throwable error);
+    }
+
+    // Cada cuántos milisegundos se informa el avance
+    private static final int INTERVALO_AVANCE = 100;
+
+    // Hilo de búsquedas; no impide que la aplicación termine
+    private final ExecutorService ejecutor = Executors.newSingleThreadExecutor(r -> {
+        Thread hilo = new Thread(r, "busqueda");
+        hilo.setDaemon(true);
+        return hilo;
+    });
+
+    // Progreso de la búsqueda en curso (null si no hay ninguna)
+    private Progreso actual;
+
+    // Informa el avance de la búsqueda en curso
+    private Timer timerAvance;
+
+    /**
+     * Lanza una búsqueda, cancelando la que estuviera en curso.
+     *
+     * Para "CH" la jerarquía se prepara en el mismo hilo si la
+     * instantánea no la trae (ver InstantaneaGrafo.conJerarquia);
+     * esa preparación no puede interrumpirse.
+     *
+     * @param grafo Grafo cuya instantánea actual se usa (se pide en el
+     *        hilo de búsqueda, ver Grafo.getInstantanea)
+     * @param rutaJerarquia Archivo de la jerarquía de contracción (puede ser null)
+     * @param medicion Calentamiento, repeticiones y dónde registrar los
+     *        tiempos (ver InstantaneaGrafo.medir)
+     */
+    public void buscar(Grafo grafo, String algoritmo,
+                       String inicio, String fin, String rutaJerarquia,
+                       MedicionTiempos medicion, Oyente oyente) {
+
+        cancelar();
+
+        Progreso progreso = new Progreso();
+        actual = progreso;
+
+        timerAvance = new Timer(INTERVALO_AVANCE, e -> oyente.avance(progreso.getExpandidos()));
+        timerAvance.start();
+
+        ejecutor.execute(() -> {
+
+            if (progreso.estaCancelado()) return;
+
+            try {
+                InstantaneaGrafo instantanea = grafo.getInstantanea();
+                if (progreso.estaCancelado()) return;
+
+                InstantaneaGrafo usada = algoritmo.equals("CH")
+                        ? instantanea.conJerarquia(rutaJerarquia)
+                        : instantanea;
+
+                ResultadoBusqueda resultado = usada.medir(algoritmo, inicio, fin, medicion, progreso);
+
+                entregar(progreso, () -> oyente.terminada(usada, resultado));
+
+            } catch (CancellationException e) {
+                // Se pidió otra búsqueda: no hay nada que entregar
+            } catch (RuntimeException | StackOverflowError e) {
+                entregar(progreso, () -> oyente.fallida(e));
+            }
+        });
+    }
+
+    /**
+     * Cancela la búsqueda en curso, si la hay.
+     */
+    public void cancelar() {
+
+        if (actual != null) {
+            actual.cancelar();
+            actual = null;
+        }
+
+        if (timerAvance != null) {
+            timerAvance.stop();
+            timerAvance = null;
+        }
+    }
+
+    /**
+     * Indica si hay una búsqueda en curso.
+     */
+    public boolean estaBuscando() {
+        return actual != null;
+    }
+
+    /**
+     * Ejecuta la acción en el hilo de eventos, solo si la búsqueda
+     * sigue siendo la actual (no se canceló ni fue reemplazada).
+     */
+    private void entregar(Progreso progreso, Runnable accion) {
+
+        SwingUtilities.invokeLater(() -> {
+            if (progreso != actual) return;
+            cancelar();
+            accion.run();
+        });
+    }
+}
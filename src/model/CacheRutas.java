@@ -0,0 +1,178 @@
+package model;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Clase CacheRutas
+ *
+ * Caché LRU de resultados de búsqueda.
+ *
+ * Cada entrada se identifica por (algoritmo, origen, destino, versión
+ * del grafo). Grafo incrementa su versión con cada edición, así que
+ * un resultado solo se reutiliza mientras el grafo no cambie; al
+ * consultar con una versión nueva se descartan todas las entradas.
+ * Las versiones solo avanzan, así que una búsqueda en segundo plano
+ * que termina sobre una versión anterior no descarta las nuevas.
+ *
+ * La caché está acotada por cantidad de entradas y por tamaño
+ * aproximado (nodos guardados en ruta, visitados y padres). Al
+ * superar cualquiera de los dos límites se eliminan las entradas
+ * usadas hace más tiempo.
+ *
+ * Los contadores de aciertos y fallos permiten distinguir en la
+ * vista las ejecuciones reutilizadas de las calculadas.
+ */
+public final class CacheRutas {
+
+    // Máximo de resultados guardados
+    private final int maxEntradas;
+
+    // Máximo de nodos guardados sumando todos los resultados
+    private final long maxNodos;
+
+    // Resultados en orden de acceso (el primero es el menos reciente)
+    private final LinkedHashMap<Clave, ResultadoBusqueda> entradas =
+            new LinkedHashMap<>(16, 0.75f, true);
+
+    // Versión del grafo a la que pertenecen las entradas actuales
+    private long versionActual = -1;
+
+    // Tamaño aproximado de las entradas actuales
+    private long nodosGuardados;
+
+    private long aciertos;
+    private long fallos;
+
+    /**
+     * @param maxEntradas Máximo de resultados guardados
+     * @param maxNodos Máximo de nodos guardados en total
+     */
+    public CacheRutas(int maxEntradas, long maxNodos) {
+        this.maxEntradas = maxEntradas;
+        this.maxNodos = maxNodos;
+    }
+
+    /**
+     * Devuelve el resultado guardado, o null si no existe
+     * (cuenta como acierto o fallo).
+     */
+    public synchronized ResultadoBusqueda obtener(String algoritmo, String origen,
+                                                  String destino, long version) {
+
+        if (version < versionActual) {
+            fallos++;
+            return null;
+        }
+        descartarSiCambio(version);
+
+        ResultadoBusqueda resultado =
+                entradas.get(new Clave(algoritmo, origen, destino, version));
+
+        if (resultado == null) fallos++;
+        else aciertos++;
+
+        return resultado;
+    }
+
+    /**
+     * Guarda un resultado calculado para la versión indicada.
+     * Los resultados más grandes que el límite total no se guardan.
+     */
+    public synchronized void guardar(String algoritmo, String origen, String destino,
+                                     long version, ResultadoBusqueda resultado) {
+
+        if (version < versionActual) return;
+        descartarSiCambio(version);
+
+        long tamano = tamano(resultado);
+        if (tamano > maxNodos) return;
+
+        ResultadoBusqueda anterior =
+                entradas.put(new Clave(algoritmo, origen, destino, version), resultado);
+        if (anterior != null) nodosGuardados -= tamano(anterior);
+        nodosGuardados += tamano;
+
+        // Se eliminan las entradas menos recientes hasta cumplir los límites
+        Iterator<ResultadoBusqueda> it = entradas.values().iterator();
+        while (it.hasNext() && (entradas.size() > maxEntradas || nodosGuardados > maxNodos)) {
+            nodosGuardados -= tamano(it.next());
+            it.remove();
+        }
+    }
+
+    /**
+     * Elimina todas las entradas (los contadores se conservan).
+     */
+    public synchronized void limpiar() {
+        entradas.clear();
+        nodosGuardados = 0;
+    }
+
+    /**
+     * Cantidad de consultas respondidas desde la caché.
+     */
+    public synchronized long getAciertos() {
+        return aciertos;
+    }
+
+    /**
+     * Cantidad de consultas que tuvieron que calcularse.
+     */
+    public synchronized long getFallos() {
+        return fallos;
+    }
+
+    /**
+     * Cantidad de resultados guardados actualmente.
+     */
+    public synchronized int getTamano() {
+        return entradas.size();
+    }
+
+    private void descartarSiCambio(long version) {
+        if (version != versionActual) {
+            limpiar();
+            versionActual = version;
+        }
+    }
+
+    private static long tamano(ResultadoBusqueda r) {
+        return 1L + r.ruta.size() + r.visitados.size() + r.padres.size();
+    }
+
+    /**
+     * Clave de una consulta.
+     */
+    private static final class Clave {
+
+        final String algoritmo;
+        final String origen;
+        final String destino;
+        final long version;
+
+        Clave(String algoritmo, String origen, String destino, long version) {
+            this.algoritmo = algoritmo;
+            this.origen = origen;
+            this.destino = destino;
+            this.version = version;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Clave)) return false;
+            Clave c = (Clave) o;
+            return version == c.version
+                    && algoritmo.equals(c.algoritmo)
+                    && origen.equals(c.origen)
+                    && destino.equals(c.destino);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(algoritmo, origen, destino, version);
+        }
+    }
+}
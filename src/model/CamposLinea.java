@@ -0,0 +1,286 @@
+package model;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Clase CamposLinea
+ *
+ * Campos de una línea de grafo.txt, separados sobre los mismos bytes
+ * leídos (sin copiar ni crear Strings). Contiene la interpretación
+ * de las líneas de nodo y de arista, compartida por LectorGrafoTexto
+ * y CargadorParalelo para que ambos den exactamente el mismo grafo.
+ *
+ * Formato:
+ *   NODOS
+ *   id,x,y[,fijo]
+ *   ARISTAS
+ *   origen,destino[,bidireccional[,peso]]
+ */
+final class CamposLinea {
+
+    // Tipos de línea de sección
+    static final int NINGUNA = 0;
+    static final int NODOS = 1;
+    static final int ARISTAS = 2;
+
+    // Misma codificación con la que guardarGrafo escribe (FileWriter)
+    static final Charset CODIFICACION = Charset.defaultCharset();
+
+    // Campos que se consideran por línea (los demás se ignoran)
+    private static final int MAX_CAMPOS = 4;
+
+    private static final byte[] PALABRA_NODOS = "NODOS".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] PALABRA_ARISTAS = "ARISTAS".getBytes(StandardCharsets.US_ASCII);
+
+    // Potencias de 10 exactas en double (ver decimal)
+    private static final double[] POTENCIAS = new double[23];
+
+    static {
+        POTENCIAS[0] = 1;
+        for (int i = 1; i < POTENCIAS.length; i++) {
+            POTENCIAS[i] = POTENCIAS[i - 1] * 10;
+        }
+    }
+
+    // Origen y línea actual, para los mensajes de error
+    private final String origen;
+    int linea;
+
+    private byte[] datos;
+
+    // Inicio y fin (exclusivo) de cada campo
+    private final int[] inicioCampo = new int[MAX_CAMPOS];
+    private final int[] finCampo = new int[MAX_CAMPOS];
+    private int cantidad;
+
+    CamposLinea(String origen) {
+        this.origen = origen;
+    }
+
+    /**
+     * Espacios y caracteres de control ASCII (los bytes no ASCII son negativos).
+     */
+    static boolean esEspacio(byte c) {
+        return c >= 0 && c <= ' ';
+    }
+
+    /**
+     * Indica si la línea ya recortada datos[inicio, fin) es una
+     * marca de sección: NODOS, ARISTAS o NINGUNA si no lo es.
+     */
+    static int seccion(byte[] datos, int inicio, int fin) {
+        if (Arrays.equals(datos, inicio, fin, PALABRA_NODOS, 0, PALABRA_NODOS.length)) return NODOS;
+        if (Arrays.equals(datos, inicio, fin, PALABRA_ARISTAS, 0, PALABRA_ARISTAS.length)) return ARISTAS;
+        return NINGUNA;
+    }
+
+    /**
+     * Separa por comas la línea ya recortada datos[inicio, fin),
+     * recortando espacios de cada campo.
+     */
+    void separar(byte[] datos, int inicio, int fin) {
+
+        this.datos = datos;
+        cantidad = 0;
+        int desde = inicio;
+
+        while (cantidad < MAX_CAMPOS) {
+
+            int hasta = desde;
+            while (hasta < fin && datos[hasta] != ',') hasta++;
+
+            int a = desde;
+            int b = hasta;
+            while (a < b && esEspacio(datos[a])) a++;
+            while (b > a && esEspacio(datos[b - 1])) b--;
+
+            inicioCampo[cantidad] = a;
+            finCampo[cantidad] = b;
+            cantidad++;
+
+            if (hasta >= fin) break;
+            desde = hasta + 1;
+        }
+
+        // Igual que String.split: se descartan campos vacíos al final
+        while (cantidad > 0 && inicioCampo[cantidad - 1] == finCampo[cantidad - 1]) {
+            cantidad--;
+        }
+    }
+
+    /**
+     * Cantidad de campos de la línea.
+     */
+    int cantidad() {
+        return cantidad;
+    }
+
+    int inicio(int campo) {
+        return inicioCampo[campo];
+    }
+
+    int largo(int campo) {
+        return finCampo[campo] - inicioCampo[campo];
+    }
+
+    /**
+     * Indica si la línea de la sección NODOS describe un nodo
+     * (las líneas con menos de 3 campos se ignoran).
+     */
+    boolean esNodo() {
+        return cantidad >= 3;
+    }
+
+    /**
+     * Indica si la línea de la sección ARISTAS describe una arista
+     * (las líneas con menos de 2 campos se ignoran).
+     */
+    boolean esArista() {
+        return cantidad >= 2;
+    }
+
+    /**
+     * Crea el nodo descrito por la línea (ver esNodo).
+     */
+    Nodo nodo() throws FormatoGrafoException {
+
+        int x = entero(1);
+        int y = entero(2);
+        boolean fijo = cantidad > 3 && esUno(3);
+
+        if (largo(0) == 0) {
+            throw error("nodo sin ID");
+        }
+
+        return new Nodo(texto(0), x, y, fijo);
+    }
+
+    /**
+     * Indica si la arista de la línea es bidireccional.
+     */
+    boolean bidireccional() {
+        return cantidad > 2 && esUno(2);
+    }
+
+    /**
+     * Indica si la arista de la línea tiene peso explícito.
+     */
+    boolean tienePeso() {
+        return cantidad > 3;
+    }
+
+    /**
+     * Peso explícito de la arista (ver tienePeso).
+     * Rechaza pesos negativos, infinitos o NaN (ver Grafo.esPesoValido).
+     */
+    double peso() throws FormatoGrafoException {
+
+        double peso = decimal(3);
+
+        if (!Grafo.esPesoValido(peso)) {
+            throw error("peso inválido '" + texto(3) + "' (debe ser un número finito y no negativo)");
+        }
+        return peso;
+    }
+
+    private int entero(int campo) throws FormatoGrafoException {
+
+        int i = inicioCampo[campo];
+        int fin = finCampo[campo];
+
+        boolean negativo = false;
+        if (i < fin && (datos[i] == '-' || datos[i] == '+')) {
+            negativo = datos[i] == '-';
+            i++;
+        }
+        if (i == fin) {
+            throw error("se esperaba un entero en '" + texto(campo) + "'");
+        }
+
+        // Se acumula en negativo para aceptar Integer.MIN_VALUE
+        int valor = 0;
+        for (; i < fin; i++) {
+            int digito = datos[i] - '0';
+            if (digito < 0 || digito > 9) {
+                throw error("se esperaba un entero en '" + texto(campo) + "'");
+            }
+            if (valor < (Integer.MIN_VALUE + digito) / 10) {
+                throw error("entero fuera de rango '" + texto(campo) + "'");
+            }
+            valor = valor * 10 - digito;
+        }
+
+        if (!negativo) {
+            if (valor == Integer.MIN_VALUE) {
+                throw error("entero fuera de rango '" + texto(campo) + "'");
+            }
+            valor = -valor;
+        }
+        return valor;
+    }
+
+    /*
+     * Decimales simples (como los escribe guardarGrafo) se convierten
+     * sin crear objetos: con hasta 15 dígitos la mantisa y la potencia
+     * de 10 son exactas en double y una sola división da el valor
+     * correctamente redondeado. Los demás casos (exponente, muchos
+     * dígitos) usan Double.parseDouble.
+     */
+    private double decimal(int campo) throws FormatoGrafoException {
+
+        int i = inicioCampo[campo];
+        int fin = finCampo[campo];
+
+        boolean negativo = false;
+        if (i < fin && (datos[i] == '-' || datos[i] == '+')) {
+            negativo = datos[i] == '-';
+            i++;
+        }
+
+        long mantisa = 0;
+        int cifras = 0;
+        int digitos = 0;
+        int decimales = 0;
+        boolean punto = false;
+        boolean simple = true;
+
+        for (; i < fin && simple; i++) {
+            byte c = datos[i];
+            if (c >= '0' && c <= '9') {
+                cifras++;
+                if (mantisa != 0 || c != '0') digitos++;
+                mantisa = mantisa * 10 + (c - '0');
+                if (punto) decimales++;
+            } else if (c == '.' && !punto) {
+                punto = true;
+            } else {
+                simple = false;
+            }
+        }
+
+        if (simple && cifras > 0 && digitos <= 15 && decimales < POTENCIAS.length) {
+            double valor = mantisa / POTENCIAS[decimales];
+            return negativo ? -valor : valor;
+        }
+
+        try {
+            return Double.parseDouble(texto(campo));
+        } catch (NumberFormatException e) {
+            throw error("se esperaba un número en '" + texto(campo) + "'");
+        }
+    }
+
+    private boolean esUno(int campo) {
+        return largo(campo) == 1 && datos[inicioCampo[campo]] == '1';
+    }
+
+    private String texto(int campo) {
+        return new String(datos, inicioCampo[campo], largo(campo), CODIFICACION);
+    }
+
+    private FormatoGrafoException error(String detalle) {
+        return new FormatoGrafoException(origen, linea, detalle);
+    }
+}
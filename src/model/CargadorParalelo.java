@@ -0,0 +1,439 @@
+package model;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Clase CargadorParalelo
+ *
+ * Carga de archivos de texto grandes (formato de grafo.txt) usando
+ * varios núcleos. Da exactamente el mismo grafo que cargarGrafo:
+ * ambos usan CamposLinea para interpretar cada línea.
+ *
+ * 1. El archivo se mapea con FileChannel.map por trozos y se buscan
+ *    en paralelo las marcas NODOS y ARISTAS, que lo dividen en secciones.
+ * 2. Cada sección se corta en trozos alineados a líneas (un trozo se
+ *    queda con las líneas que empiezan dentro de él) que se interpretan
+ *    en el ForkJoinPool común:
+ *    - NODOS: se crean los Nodo y se guardan sus IDs como bytes.
+ *    - ARISTAS: se resuelven los IDs a números de nodo con la TablaIds
+ *      ya completa (solo lectura) y se guardan en arreglos primitivos.
+ * 3. Los trozos se agregan a Grafo en el hilo que llama y en el orden
+ *    del archivo (primero los nodos de una sección, luego las aristas
+ *    de la siguiente), así que el resultado es determinista.
+ *
+ * Solo hay en memoria unos pocos trozos interpretados a la vez.
+ * Si una línea tiene un error de formato se agrega todo lo anterior
+ * a esa línea, como en la carga secuencial, y se lanza
+ * FormatoGrafoException con su número de línea.
+ */
+public final class CargadorParalelo {
+
+    // Tamaño nominal de cada trozo del archivo
+    private static final int TAMANO_TROZO = 8 << 20;
+
+    // Bytes extra leídos para terminar la última línea de un trozo
+    private static final int MARGEN = 1 << 16;
+
+    // Banderas de las aristas interpretadas
+    private static final byte BIDIRECCIONAL = 1;
+    private static final byte CON_PESO = 2;
+
+    private final Grafo grafo;
+    private final FileChannel canal;
+    private final String origen;
+    private final long tamano;
+    private final ForkJoinPool pool = ForkJoinPool.commonPool();
+
+    // IDs de los nodos ya agregados
+    private final TablaIds ids = new TablaIds();
+
+    private CargadorParalelo(Grafo grafo, FileChannel canal, String origen) throws IOException {
+        this.grafo = grafo;
+        this.canal = canal;
+        this.origen = origen;
+        this.tamano = canal.size();
+    }
+
+    /**
+     * Reemplaza el contenido del grafo con el del archivo de texto.
+     * Toma el lock del grafo durante toda la carga; los hilos del pool
+     * solo interpretan trozos y nunca tocan el grafo.
+     */
+    public static void cargar(Grafo grafo, String rutaArchivo) throws IOException {
+        synchronized (grafo) {
+            try (FileChannel canal = FileChannel.open(Paths.get(rutaArchivo), StandardOpenOption.READ)) {
+                new CargadorParalelo(grafo, canal, rutaArchivo).cargar();
+            }
+        }
+    }
+
+    private void cargar() throws IOException {
+
+        grafo.reiniciar();
+
+        for (long[] seccion : buscarSecciones()) {
+
+            long inicio = seccion[1];
+            long fin = seccion[2];
+
+            if (seccion[0] == CamposLinea.NODOS) {
+                procesarTrozos(inicio, fin, this::leerNodos, this::agregarNodos);
+            } else {
+                procesarTrozos(inicio, fin, this::leerAristas, this::agregarAristas);
+            }
+        }
+    }
+
+    // Secciones del archivo como {tipo, inicio, fin}, sin las líneas de marca
+    private List<long[]> buscarSecciones() throws IOException {
+
+        List<long[]> secciones = new ArrayList<>();
+
+        procesarTrozos(0, tamano, this::buscarMarcas, marcas -> {
+            for (long[] marca : marcas) {
+                if (!secciones.isEmpty()) {
+                    secciones.get(secciones.size() - 1)[2] = marca[1];
+                }
+                secciones.add(new long[]{marca[0], marca[2], tamano});
+            }
+        });
+
+        return secciones;
+    }
+
+    // Marcas del trozo como {tipo, inicio de la línea, inicio de la siguiente}
+    private List<long[]> buscarMarcas(long inicioSeccion, long desde, long hasta, long limite)
+            throws IOException {
+
+        List<long[]> marcas = new ArrayList<>(2);
+
+        recorrer(inicioSeccion, desde, hasta, limite, (datos, inicio, fin, posicion, siguiente) -> {
+            int tipo = CamposLinea.seccion(datos, inicio, fin);
+            if (tipo != CamposLinea.NINGUNA) {
+                marcas.add(new long[]{tipo, posicion, siguiente});
+            }
+            return true;
+        });
+
+        return marcas;
+    }
+
+    private TrozoNodos leerNodos(long inicioSeccion, long desde, long hasta, long limite)
+            throws IOException {
+
+        TrozoNodos trozo = new TrozoNodos();
+        CamposLinea campos = new CamposLinea(origen);
+
+        recorrer(inicioSeccion, desde, hasta, limite, (datos, inicio, fin, posicion, siguiente) -> {
+
+            campos.separar(datos, inicio, fin);
+            if (!campos.esNodo()) return true;
+
+            try {
+                trozo.agregar(campos.nodo(), datos, campos.inicio(0), campos.largo(0));
+            } catch (FormatoGrafoException e) {
+                trozo.error(posicion, e.getDetalle());
+                return false;
+            }
+            return true;
+        });
+
+        return trozo;
+    }
+
+    private void agregarNodos(TrozoNodos trozo) throws IOException {
+
+        for (int i = 0; i < trozo.cantidad; i++) {
+            Nodo nodo = trozo.nodos[i];
+            grafo.cargarNodo(nodo);
+            ids.registrar(trozo.bytesIds, trozo.inicioId[i], trozo.largoId[i],
+                    grafo.getNumero(nodo.getId()));
+        }
+
+        trozo.lanzarError();
+    }
+
+    private TrozoAristas leerAristas(long inicioSeccion, long desde, long hasta, long limite)
+            throws IOException {
+
+        TrozoAristas trozo = new TrozoAristas();
+        CamposLinea campos = new CamposLinea(origen);
+
+        recorrer(inicioSeccion, desde, hasta, limite, (datos, inicio, fin, posicion, siguiente) -> {
+
+            campos.separar(datos, inicio, fin);
+            if (!campos.esArista()) return true;
+
+            boolean bidireccional = campos.bidireccional();
+            double peso;
+            try {
+                peso = campos.tienePeso() ? campos.peso() : Double.NaN;
+            } catch (FormatoGrafoException e) {
+                trozo.error(posicion, e.getDetalle());
+                return false;
+            }
+
+            int a = ids.buscar(datos, campos.inicio(0), campos.largo(0));
+            int b = ids.buscar(datos, campos.inicio(1), campos.largo(1));
+
+            // Como en la carga secuencial, las aristas con nodos inexistentes se ignoran
+            if (a >= 0 && b >= 0) {
+                trozo.agregar(a, b, (byte) ((bidireccional ? BIDIRECCIONAL : 0)
+                        | (campos.tienePeso() ? CON_PESO : 0)), peso);
+            }
+            return true;
+        });
+
+        return trozo;
+    }
+
+    private void agregarAristas(TrozoAristas trozo) throws IOException {
+
+        for (int i = 0; i < trozo.cantidad; i++) {
+
+            boolean bidireccional = (trozo.banderas[i] & BIDIRECCIONAL) != 0;
+
+            if ((trozo.banderas[i] & CON_PESO) != 0) {
+                grafo.agregarArista(trozo.origenes[i], trozo.destinos[i], true, bidireccional, trozo.pesos[i]);
+            } else {
+                grafo.agregarArista(trozo.origenes[i], trozo.destinos[i], true, bidireccional);
+            }
+        }
+
+        trozo.lanzarError();
+    }
+
+    /*
+     * Reparte [inicio, fin) en trozos que se leen en el pool y se
+     * mezclan en orden en este hilo. Se mantienen como máximo dos
+     * trozos por hilo del pool en vuelo, para acotar la memoria.
+     */
+    private <T> void procesarTrozos(long inicio, long fin, Lector<T> lector, Mezcla<T> mezcla)
+            throws IOException {
+
+        int ventana = 2 * pool.getParallelism();
+        ArrayDeque<Future<T>> pendientes = new ArrayDeque<>();
+        long siguiente = inicio;
+
+        try {
+            while (siguiente < fin || !pendientes.isEmpty()) {
+
+                while (siguiente < fin && pendientes.size() < ventana) {
+                    long desde = siguiente;
+                    long hasta = Math.min(fin, siguiente + TAMANO_TROZO);
+                    pendientes.add(pool.submit(() -> lector.leer(inicio, desde, hasta, fin)));
+                    siguiente = hasta;
+                }
+
+                mezcla.agregar(esperar(pendientes.poll()));
+            }
+        } finally {
+            for (Future<T> tarea : pendientes) {
+                tarea.cancel(false);
+            }
+        }
+    }
+
+    /*
+     * Recorre las líneas no vacías (recortadas) que empiezan en
+     * [desde, hasta), sin pasar de limite. Si desde no es el inicio
+     * de la sección, la primera línea parcial pertenece al trozo anterior.
+     */
+    private void recorrer(long inicioSeccion, long desde, long hasta, long limite, Linea accion)
+            throws IOException {
+
+        Region region = new Region();
+        long primera = desde > inicioSeccion ? desde - 1 : desde;
+        region.leer(canal, primera, Math.min(limite, hasta + MARGEN));
+
+        long posicion = desde;
+        if (desde > inicioSeccion) {
+            posicion = finDeLinea(region, desde - 1, limite) + 1;
+        }
+
+        while (posicion < hasta && posicion < limite) {
+
+            long salto = finDeLinea(region, posicion, limite);
+
+            int inicio = (int) (posicion - region.base);
+            int fin = (int) (salto - region.base);
+            while (inicio < fin && CamposLinea.esEspacio(region.datos[inicio])) inicio++;
+            while (fin > inicio && CamposLinea.esEspacio(region.datos[fin - 1])) fin--;
+
+            if (inicio < fin && !accion.procesar(region.datos, inicio, fin, posicion, salto + 1)) {
+                return;
+            }
+
+            posicion = salto + 1;
+        }
+    }
+
+    // Posición del '\n' que termina la línea que empieza en posicion
+    // (o limite), recargando la región si la línea no entra en ella
+    private long finDeLinea(Region region, long posicion, long limite) throws IOException {
+
+        long p = posicion;
+
+        while (true) {
+
+            int i = (int) (p - region.base);
+            while (i < region.largo && region.datos[i] != '\n') i++;
+            if (i < region.largo) return region.base + i;
+
+            long finRegion = region.base + region.largo;
+            if (finRegion >= limite) return limite;
+
+            region.leer(canal, posicion,
+                    Math.min(limite, posicion + Math.max(2L * region.largo, MARGEN)));
+            p = finRegion;
+        }
+    }
+
+    // Número de línea (desde 1) de la posición, solo para los errores
+    private int lineaDe(long posicion) throws IOException {
+
+        Region region = new Region();
+        int linea = 1;
+
+        for (long p = 0; p < posicion; p += TAMANO_TROZO) {
+            region.leer(canal, p, Math.min(posicion, p + TAMANO_TROZO));
+            for (int i = 0; i < region.largo; i++) {
+                if (region.datos[i] == '\n') linea++;
+            }
+        }
+
+        return linea;
+    }
+
+    private static <T> T esperar(Future<T> tarea) throws IOException {
+        try {
+            return tarea.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Carga interrumpida");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException io) throw io;
+            throw new IOException(e.getCause());
+        }
+    }
+
+    private interface Lector<T> {
+        T leer(long inicioSeccion, long desde, long hasta, long limite) throws IOException;
+    }
+
+    private interface Mezcla<T> {
+        void agregar(T trozo) throws IOException;
+    }
+
+    private interface Linea {
+        // Devuelve false para dejar de recorrer
+        boolean procesar(byte[] datos, int inicio, int fin, long posicion, long siguiente);
+    }
+
+    /**
+     * Bytes del archivo [base, base + largo), copiados desde el mapeo.
+     */
+    private static final class Region {
+
+        byte[] datos = new byte[0];
+        long base;
+        int largo;
+
+        void leer(FileChannel canal, long desde, long hasta) throws IOException {
+
+            int n = (int) (hasta - desde);
+            if (datos.length < n) datos = new byte[n];
+            if (n > 0) {
+                canal.map(FileChannel.MapMode.READ_ONLY, desde, n).get(datos, 0, n);
+            }
+            base = desde;
+            largo = n;
+        }
+    }
+
+    /**
+     * Parte interpretada de un trozo; si hubo un error de formato
+     * contiene lo anterior a esa línea.
+     */
+    private abstract class Trozo {
+
+        int cantidad;
+
+        private long posicionError = -1;
+        private String detalleError;
+
+        void error(long posicion, String detalle) {
+            posicionError = posicion;
+            detalleError = detalle;
+        }
+
+        void lanzarError() throws IOException {
+            if (posicionError >= 0) {
+                throw new FormatoGrafoException(origen, lineaDe(posicionError), detalleError);
+            }
+        }
+    }
+
+    private final class TrozoNodos extends Trozo {
+
+        Nodo[] nodos = new Nodo[1024];
+        int[] inicioId = new int[1024];
+        int[] largoId = new int[1024];
+        byte[] bytesIds = new byte[1 << 14];
+        int usadoIds;
+
+        void agregar(Nodo nodo, byte[] datos, int inicio, int largo) {
+
+            if (cantidad == nodos.length) {
+                nodos = Arrays.copyOf(nodos, cantidad * 2);
+                inicioId = Arrays.copyOf(inicioId, cantidad * 2);
+                largoId = Arrays.copyOf(largoId, cantidad * 2);
+            }
+            if (usadoIds + largo > bytesIds.length) {
+                bytesIds = Arrays.copyOf(bytesIds, Math.max(bytesIds.length * 2, usadoIds + largo));
+            }
+
+            System.arraycopy(datos, inicio, bytesIds, usadoIds, largo);
+            nodos[cantidad] = nodo;
+            inicioId[cantidad] = usadoIds;
+            largoId[cantidad] = largo;
+            usadoIds += largo;
+            cantidad++;
+        }
+    }
+
+    private final class TrozoAristas extends Trozo {
+
+        int[] origenes = new int[4096];
+        int[] destinos = new int[4096];
+        byte[] banderas = new byte[4096];
+        double[] pesos = new double[4096];
+
+        void agregar(int a, int b, byte bandera, double peso) {
+
+            if (cantidad == origenes.length) {
+                origenes = Arrays.copyOf(origenes, cantidad * 2);
+                destinos = Arrays.copyOf(destinos, cantidad * 2);
+                banderas = Arrays.copyOf(banderas, cantidad * 2);
+                pesos = Arrays.copyOf(pesos, cantidad * 2);
+            }
+
+            origenes[cantidad] = a;
+            destinos[cantidad] = b;
+            banderas[cantidad] = bandera;
+            pesos[cantidad] = peso;
+            cantidad++;
+        }
+    }
+}
@@ -0,0 +1,231 @@
+package model;
+
+import java.util.Arrays;
+
+/**
+ * Clase ConjuntoVecinos
+ *
+ * Vecinos de un nodo como números densos (ver Grafo), en orden
+ * de inserción y con pertenencia en O(1).
+ *
+ * - Los vecinos se guardan en un int[] en el orden en que se
+ *   agregaron; al quitar uno su posición queda como hueco (-1)
+ *   y el arreglo se compacta cuando hay más huecos que vecinos.
+ *   Así el recorrido siempre es determinista (BFS y DFS dan
+ *   los mismos resultados que con listas).
+ * - Con pocos vecinos (LIMITE_LINEAL) la búsqueda es lineal sobre
+ *   el arreglo, que es lo más rápido en nodos de grado bajo.
+ * - Con más vecinos se agrega una tabla hash de direccionamiento
+ *   abierto (vecino -> posición) para agregar y quitar en O(1).
+ *
+ * Para recorrerlo:
+ *   for (int k = 0; k < c.limite(); k++) { int v = c.en(k); if (v < 0) continue; ... }
+ */
+final class ConjuntoVecinos {
+
+    // Grado a partir del cual se usa la tabla hash
+    private static final int LIMITE_LINEAL = 8;
+
+    private static final int[] VACIO = new int[0];
+
+    // Vecinos en orden de inserción (-1 = hueco)
+    private int[] elementos = VACIO;
+
+    // Posiciones usadas de elementos (vecinos + huecos)
+    private int usados;
+
+    // Cantidad de vecinos
+    private int tamano;
+
+    // Tabla hash: claves[i] es un vecino (-1 = vacía) y posiciones[i]
+    // su posición en elementos. null mientras el grado sea bajo
+    private int[] claves;
+    private int[] posiciones;
+
+    /**
+     * Cantidad de vecinos.
+     */
+    int tamano() {
+        return tamano;
+    }
+
+    /**
+     * Límite para recorrer con en(k).
+     */
+    int limite() {
+        return usados;
+    }
+
+    /**
+     * Vecino en la posición k, o -1 si es un hueco.
+     */
+    int en(int k) {
+        return elementos[k];
+    }
+
+    /**
+     * Indica si v es vecino.
+     */
+    boolean contiene(int v) {
+        return posicionDe(v) >= 0;
+    }
+
+    /**
+     * Agrega v al final. Devuelve false si ya estaba.
+     */
+    boolean agregar(int v) {
+
+        if (posicionDe(v) >= 0) return false;
+
+        if (usados == elementos.length) {
+            if (usados - tamano > tamano) {
+                compactar();
+            } else {
+                elementos = Arrays.copyOf(elementos, Math.max(4, usados * 2));
+            }
+        }
+
+        elementos[usados] = v;
+        if (claves != null) {
+            ponerEnTabla(v, usados);
+        }
+        usados++;
+        tamano++;
+
+        if (claves == null && tamano > LIMITE_LINEAL) {
+            reconstruirTabla();
+        }
+
+        return true;
+    }
+
+    /**
+     * Quita v dejando un hueco. Devuelve false si no estaba.
+     */
+    boolean quitar(int v) {
+
+        int k = posicionDe(v);
+        if (k < 0) return false;
+
+        elementos[k] = -1;
+        tamano--;
+
+        if (claves != null) {
+            quitarDeTabla(v);
+        }
+
+        // Sin vecinos después del hueco, se recorta el final
+        while (usados > 0 && elementos[usados - 1] < 0) {
+            usados--;
+        }
+
+        if (usados - tamano > tamano && usados > LIMITE_LINEAL) {
+            compactar();
+        }
+
+        return true;
+    }
+
+    // Posición de v en elementos, o -1
+    private int posicionDe(int v) {
+
+        if (claves == null) {
+            for (int k = 0; k < usados; k++) {
+                if (elementos[k] == v) return k;
+            }
+            return -1;
+        }
+
+        int mascara = claves.length - 1;
+        for (int i = hash(v) & mascara; claves[i] >= 0; i = (i + 1) & mascara) {
+            if (claves[i] == v) return posiciones[i];
+        }
+        return -1;
+    }
+
+    // Elimina los huecos conservando el orden
+    private void compactar() {
+
+        int j = 0;
+        for (int k = 0; k < usados; k++) {
+            if (elementos[k] >= 0) elementos[j++] = elementos[k];
+        }
+        usados = j;
+
+        if (tamano > LIMITE_LINEAL) {
+            reconstruirTabla();
+        } else {
+            claves = null;
+            posiciones = null;
+        }
+    }
+
+    private void reconstruirTabla() {
+
+        // Ocupación máxima del 50%
+        int capacidad = Integer.highestOneBit(Math.max(16, tamano * 4) - 1) << 1;
+        claves = new int[capacidad];
+        posiciones = new int[capacidad];
+        Arrays.fill(claves, -1);
+
+        for (int k = 0; k < usados; k++) {
+            if (elementos[k] >= 0) ponerEnTabla(elementos[k], k);
+        }
+    }
+
+    private void ponerEnTabla(int v, int posicion) {
+
+        if ((tamano + 1) * 2 > claves.length) {
+            int[] viejasClaves = claves;
+            int[] viejasPosiciones = posiciones;
+            claves = new int[claves.length * 2];
+            posiciones = new int[claves.length];
+            Arrays.fill(claves, -1);
+            for (int i = 0; i < viejasClaves.length; i++) {
+                if (viejasClaves[i] >= 0) ponerEnTabla(viejasClaves[i], viejasPosiciones[i]);
+            }
+        }
+
+        int mascara = claves.length - 1;
+        int i = hash(v) & mascara;
+        while (claves[i] >= 0) {
+            i = (i + 1) & mascara;
+        }
+        claves[i] = v;
+        posiciones[i] = posicion;
+    }
+
+    // Borrado con desplazamiento hacia atrás (sondeo lineal)
+    private void quitarDeTabla(int v) {
+
+        int mascara = claves.length - 1;
+        int i = hash(v) & mascara;
+        while (claves[i] != v) {
+            i = (i + 1) & mascara;
+        }
+
+        int hueco = i;
+        int j = i;
+        while (true) {
+            j = (j + 1) & mascara;
+            if (claves[j] < 0) break;
+
+            int ideal = hash(claves[j]) & mascara;
+            boolean mover = hueco <= j
+                    ? ideal <= hueco || ideal > j
+                    : ideal <= hueco && ideal > j;
+
+            if (mover) {
+                claves[hueco] = claves[j];
+                posiciones[hueco] = posiciones[j];
+                hueco = j;
+            }
+        }
+
+        claves[hueco] = -1;
+    }
+
+    private static int hash(int v) {
+        return (v * 0x9E3779B9) ^ (v * 0x9E3779B9 >>> 16);
+    }
+}
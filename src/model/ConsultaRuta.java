@@ -0,0 +1,103 @@
+package model;
+
+import java.io.BufferedReader;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Clase ConsultaRuta
+ *
+ * Una consulta de un lote: origen, destino y algoritmo
+ * ("BFS", "DFS", "BFS-BI", "DIJKSTRA", "A*", "CH" o "BFS-TABLA").
+ *
+ * Los lotes pueden leerse de un archivo de texto con una consulta
+ * por línea, en el mismo estilo que grafo.txt:
+ *
+ *     origen,destino,algoritmo
+ *
+ * Las líneas vacías y las que empiezan con # se ignoran.
+ */
+public final class ConsultaRuta {
+
+    // Algoritmos aceptados por InstantaneaGrafo.buscar
+    public static final List<String> ALGORITMOS =
+            List.of("BFS", "DFS", "BFS-BI", "DIJKSTRA", "A*", "CH", "BFS-TABLA");
+
+    private final String origen;
+    private final String destino;
+    private final String algoritmo;
+
+    /**
+     * @param algoritmo Uno de ALGORITMOS
+     */
+    public ConsultaRuta(String origen, String destino, String algoritmo) {
+        if (!ALGORITMOS.contains(algoritmo)) {
+            throw new IllegalArgumentException("Algoritmo desconocido: " + algoritmo);
+        }
+        this.origen = origen;
+        this.destino = destino;
+        this.algoritmo = algoritmo;
+    }
+
+    public String getOrigen() {
+        return origen;
+    }
+
+    public String getDestino() {
+        return destino;
+    }
+
+    public String getAlgoritmo() {
+        return algoritmo;
+    }
+
+    /**
+     * Lee un archivo de consultas (ver el formato arriba).
+     * El nombre del algoritmo no distingue mayúsculas.
+     *
+     * @throws FormatoGrafoException si una línea no tiene tres campos
+     *         o nombra un algoritmo desconocido
+     */
+    public static List<ConsultaRuta> leerArchivo(String rutaArchivo) throws IOException {
+
+        List<ConsultaRuta> consultas = new ArrayList<>();
+
+        try (BufferedReader br = new BufferedReader(new InputStreamReader(
+                new FileInputStream(rutaArchivo), CamposLinea.CODIFICACION))) {
+
+            String linea;
+            int numero = 0;
+
+            while ((linea = br.readLine()) != null) {
+
+                numero++;
+                linea = linea.trim();
+                if (linea.isEmpty() || linea.startsWith("#")) continue;
+
+                String[] partes = linea.split(",");
+                if (partes.length != 3) {
+                    throw new FormatoGrafoException(rutaArchivo, numero,
+                            "se esperaba origen,destino,algoritmo");
+                }
+
+                String algoritmo = partes[2].trim().toUpperCase();
+                if (!ALGORITMOS.contains(algoritmo)) {
+                    throw new FormatoGrafoException(rutaArchivo, numero,
+                            "algoritmo desconocido \"" + partes[2].trim() + "\"");
+                }
+
+                consultas.add(new ConsultaRuta(partes[0].trim(), partes[1].trim(), algoritmo));
+            }
+        }
+
+        return consultas;
+    }
+
+    @Override
+    public String toString() {
+        return origen + "," + destino + "," + algoritmo;
+    }
+}
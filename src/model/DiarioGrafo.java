@@ -0,0 +1,485 @@
+package model;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Clase DiarioGrafo
+ *
+ * Guardado incremental del grafo: una instantánea completa en texto
+ * (el formato de grafo.txt) y un diario de solo agregado con las
+ * ediciones hechas desde esa instantánea.
+ *
+ * - Grafo anota cada edición (agregar o eliminar nodo o arista) en
+ *   memoria; guardar() las agrega al final del diario con una sola
+ *   escritura y un force, así que el costo depende de la edición y
+ *   no del tamaño del grafo.
+ * - Cuando el diario crece más que una fracción de la instantánea
+ *   (o si el grafo se reemplazó por completo) se compacta: se escribe
+ *   una instantánea nueva y se empieza un diario vacío.
+ * - cargar() lee la instantánea y reproduce el diario. Si falla
+ *   (formato inválido o un registro que no se puede aplicar), el
+ *   diario queda desconectado del grafo y guardar() se niega a
+ *   escribir, para no reemplazar los archivos del usuario con otro
+ *   grafo; hace falta volver a cargar con éxito.
+ *
+ * Seguridad ante cortes:
+ * - Cada registro lleva su largo y un CRC32; al cargar se reproduce
+ *   hasta el primer registro incompleto o dañado y el archivo se
+ *   recorta ahí (una escritura interrumpida no se aplica a medias).
+ * - La cabecera del diario guarda el largo y el CRC32 de la
+ *   instantánea a la que corresponde. La compactación reemplaza
+ *   primero la instantánea y después el diario (ambos con archivo
+ *   temporal, force y renombrado), así que si se corta en medio el
+ *   diario viejo no coincide con la instantánea nueva y se descarta:
+ *   sus ediciones ya están en ella.
+ *
+ * - Cada renombrado se sigue de un force del directorio, para que el
+ *   nuevo nombre también sobreviva a un corte.
+ *
+ * Locks: primero el del grafo y después el del diario. Grafo anota
+ * sus ediciones con su lock tomado, así que cargar(), guardar() y
+ * compactar() toman el del grafo antes que el propio: nadie ve el
+ * grafo a medio cargar, y la instantánea que se escribe y los
+ * registros pendientes que se descartan quedan coherentes.
+ *
+ * Estructura del diario (enteros big-endian):
+ * - Cabecera: MAGICO, VERSION, largo y CRC32 de la instantánea
+ * - Registros: largo, CRC32 y datos (tipo y campos de la edición)
+ */
+public final class DiarioGrafo {
+
+    // "GRFD"
+    private static final int MAGICO = 0x47524644;
+
+    // Versión actual del formato
+    private static final int VERSION = 1;
+
+    // Bytes de la cabecera
+    private static final int CABECERA = 24;
+
+    // Tipos de registro
+    private static final byte NODO = 1;
+    private static final byte SIN_NODO = 2;
+    private static final byte ARISTA = 3;
+    private static final byte SIN_ARISTA = 4;
+
+    // Tamaño mínimo del diario antes de compactar
+    private static final long MINIMO_COMPACTAR = 1 << 20;
+
+    // Se compacta cuando el diario supera esta fracción de la instantánea
+    private static final int FRACCION_COMPACTAR = 4;
+
+    private final Grafo grafo;
+    private final Path instantanea;
+    private final Path diario;
+
+    // Registros aún no guardados, ya con su largo y CRC
+    private final ByteArrayOutputStream pendientes = new ByteArrayOutputStream();
+
+    // Datos del registro que se está armando
+    private final ByteArrayOutputStream registro = new ByteArrayOutputStream();
+    private final DataOutputStream datos = new DataOutputStream(registro);
+
+    private long tamanoInstantanea;
+    private long tamanoDiario;
+
+    // El grafo se reemplazó completo: el próximo guardado compacta
+    private boolean necesitaInstantanea = true;
+
+    // La última carga falló: no se guarda hasta cargar con éxito
+    private boolean cargaFallida;
+
+    /**
+     * @param grafo Grafo cuyas ediciones se anotan
+     * @param rutaInstantanea Archivo de texto con el grafo completo
+     * @param rutaDiario Archivo del diario de ediciones
+     */
+    public DiarioGrafo(Grafo grafo, String rutaInstantanea, String rutaDiario) {
+        this.grafo = grafo;
+        this.instantanea = Paths.get(rutaInstantanea).toAbsolutePath();
+        this.diario = Paths.get(rutaDiario).toAbsolutePath();
+    }
+
+    /**
+     * Reemplaza el grafo con la instantánea más las ediciones del diario.
+     * Devuelve false (sin tocar el grafo) si todavía no hay instantánea.
+     * Desde aquí las ediciones del grafo se anotan en este diario.
+     *
+     * @throws IOException si la instantánea o el diario no se pueden
+     *         cargar; el diario queda desconectado y guardar() falla
+     *         hasta la próxima carga exitosa
+     */
+    public boolean cargar() throws IOException {
+        synchronized (grafo) {
+            synchronized (this) {
+                return cargarBloqueado();
+            }
+        }
+    }
+
+    private boolean cargarBloqueado() throws IOException {
+
+        grafo.setDiario(null);
+        pendientes.reset();
+        necesitaInstantanea = true;
+        cargaFallida = true;
+
+        if (!Files.exists(instantanea)) {
+            cargaFallida = false;
+            grafo.setDiario(this);
+            return false;
+        }
+
+        CRC32 crc = new CRC32();
+        grafo.reiniciar();
+        try (InputStream in = new CheckedInputStream(
+                new FileInputStream(instantanea.toFile()), crc)) {
+            LectorGrafoTexto.leer(in, grafo, instantanea.toString());
+        }
+
+        tamanoInstantanea = Files.size(instantanea);
+        tamanoDiario = reproducir(tamanoInstantanea, crc.getValue());
+        necesitaInstantanea = false;
+        cargaFallida = false;
+
+        grafo.setDiario(this);
+        return true;
+    }
+
+    /**
+     * Indica si la última carga falló (y por lo tanto no se guarda).
+     */
+    public synchronized boolean cargaFallida() {
+        return cargaFallida;
+    }
+
+    /**
+     * Guarda las ediciones pendientes al final del diario, o compacta
+     * si el diario ya es grande o el grafo se reemplazó completo.
+     */
+    public void guardar() throws IOException {
+        synchronized (grafo) {
+            synchronized (this) {
+                guardarBloqueado();
+            }
+        }
+    }
+
+    private void guardarBloqueado() throws IOException {
+
+        verificarCarga();
+
+        long umbral = Math.max(MINIMO_COMPACTAR, tamanoInstantanea / FRACCION_COMPACTAR);
+
+        if (necesitaInstantanea || tamanoDiario + pendientes.size() > umbral) {
+            compactarBloqueado();
+            return;
+        }
+
+        if (pendientes.size() == 0) return;
+
+        try (FileChannel canal = FileChannel.open(diario,
+                StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+
+            ByteBuffer buffer = ByteBuffer.wrap(pendientes.toByteArray());
+            while (buffer.hasRemaining()) {
+                canal.write(buffer);
+            }
+            canal.force(false);
+        }
+
+        tamanoDiario += pendientes.size();
+        pendientes.reset();
+    }
+
+    /**
+     * Escribe una instantánea con el grafo actual y deja el diario vacío.
+     */
+    public void compactar() throws IOException {
+        synchronized (grafo) {
+            synchronized (this) {
+                compactarBloqueado();
+            }
+        }
+    }
+
+    private void compactarBloqueado() throws IOException {
+
+        verificarCarga();
+
+        Path temporal = instantanea.resolveSibling(instantanea.getFileName() + ".tmp");
+        CRC32 crc = new CRC32();
+
+        try (FileOutputStream salida = new FileOutputStream(temporal.toFile())) {
+
+            PrintWriter pw = new PrintWriter(new OutputStreamWriter(
+                    new CheckedOutputStream(new BufferedOutputStream(salida, 1 << 16), crc),
+                    CamposLinea.CODIFICACION));
+
+            grafo.escribirTexto(pw);
+            pw.flush();
+            if (pw.checkError()) {
+                throw new IOException("No se pudo escribir " + temporal);
+            }
+            salida.getFD().sync();
+        }
+
+        long largo = Files.size(temporal);
+        mover(temporal, instantanea);
+
+        escribirDiarioVacio(largo, crc.getValue());
+
+        tamanoInstantanea = largo;
+        tamanoDiario = CABECERA;
+        pendientes.reset();
+        necesitaInstantanea = false;
+    }
+
+    /**
+     * Impide escribir sobre archivos que no se pudieron cargar.
+     */
+    private void verificarCarga() throws IOException {
+        if (cargaFallida) {
+            throw new IOException("No se guarda: " + instantanea.getFileName()
+                    + " no se pudo cargar y se reemplazaría por otro grafo");
+        }
+    }
+
+    /**
+     * Bytes del diario en disco más los pendientes de guardar.
+     */
+    public synchronized long getTamano() {
+        return tamanoDiario + pendientes.size();
+    }
+
+    // --- Ediciones anotadas por Grafo ---
+
+    synchronized void nodoAgregado(Nodo nodo) {
+        try {
+            datos.writeByte(NODO);
+            datos.writeUTF(nodo.getId());
+            datos.writeInt(nodo.getX());
+            datos.writeInt(nodo.getY());
+            datos.writeBoolean(nodo.esFijo());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        cerrarRegistro();
+    }
+
+    synchronized void nodoEliminado(String id) {
+        try {
+            datos.writeByte(SIN_NODO);
+            datos.writeUTF(id);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        cerrarRegistro();
+    }
+
+    /**
+     * @param peso Peso explícito, o NaN si la arista no tiene
+     */
+    synchronized void aristaAgregada(String a, String b, boolean visible,
+                                     boolean bidireccional, double peso) {
+        try {
+            datos.writeByte(ARISTA);
+            datos.writeUTF(a);
+            datos.writeUTF(b);
+            datos.writeByte((visible ? TablaAristas.VISIBLE : 0)
+                    | (bidireccional ? TablaAristas.BIDIRECCIONAL : 0)
+                    | (Double.isNaN(peso) ? 0 : TablaAristas.CON_PESO));
+            datos.writeDouble(peso);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        cerrarRegistro();
+    }
+
+    synchronized void aristaEliminada(String a, String b) {
+        try {
+            datos.writeByte(SIN_ARISTA);
+            datos.writeUTF(a);
+            datos.writeUTF(b);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        cerrarRegistro();
+    }
+
+    /**
+     * El grafo se vació (por ejemplo para cargar otro): las ediciones
+     * anteriores ya no sirven y el próximo guardado compacta.
+     */
+    synchronized void reiniciado() {
+        pendientes.reset();
+        necesitaInstantanea = true;
+    }
+
+    // Pasa el registro armado a pendientes con su largo y CRC
+    private void cerrarRegistro() {
+
+        CRC32 crc = new CRC32();
+        crc.update(registro.toByteArray(), 0, registro.size());
+
+        DataOutputStream salida = new DataOutputStream(pendientes);
+        try {
+            salida.writeInt(registro.size());
+            salida.writeInt((int) crc.getValue());
+            registro.writeTo(salida);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        registro.reset();
+    }
+
+    /*
+     * Aplica los registros válidos del diario y devuelve su tamaño útil.
+     * Si el diario no existe o es de otra instantánea se empieza uno vacío;
+     * si termina en un registro incompleto o dañado se recorta.
+     */
+    private long reproducir(long largoInstantanea, long crcInstantanea) throws IOException {
+
+        if (!Files.exists(diario)) {
+            escribirDiarioVacio(largoInstantanea, crcInstantanea);
+            return CABECERA;
+        }
+
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(diario));
+
+        if (buffer.remaining() < CABECERA
+                || buffer.getInt() != MAGICO
+                || buffer.getInt() != VERSION
+                || buffer.getLong() != largoInstantanea
+                || buffer.getLong() != crcInstantanea) {
+            escribirDiarioVacio(largoInstantanea, crcInstantanea);
+            return CABECERA;
+        }
+
+        CRC32 crc = new CRC32();
+        int posicion = CABECERA;
+
+        while (buffer.limit() - posicion >= 8) {
+
+            int largo = buffer.getInt(posicion);
+            if (largo <= 0 || largo > buffer.limit() - posicion - 8) break;
+
+            crc.reset();
+            crc.update(buffer.array(), posicion + 8, largo);
+            if ((int) crc.getValue() != buffer.getInt(posicion + 4)) break;
+
+            try {
+                aplicar(new DataInputStream(
+                        new ByteArrayInputStream(buffer.array(), posicion + 8, largo)));
+            } catch (RuntimeException e) {
+                // Por ejemplo un peso inválido (ver Grafo.agregarArista)
+                throw new IOException("Registro del diario no aplicable en la posición "
+                        + posicion + " de " + diario.getFileName() + ": " + e.getMessage(), e);
+            }
+            posicion += 8 + largo;
+        }
+
+        if (posicion < buffer.limit()) {
+            try (FileChannel canal = FileChannel.open(diario, StandardOpenOption.WRITE)) {
+                canal.truncate(posicion);
+                canal.force(false);
+            }
+        }
+
+        return posicion;
+    }
+
+    private void aplicar(DataInputStream in) throws IOException {
+
+        byte tipo = in.readByte();
+
+        switch (tipo) {
+
+            case NODO:
+                grafo.agregarNodo(new Nodo(in.readUTF(), in.readInt(), in.readInt(), in.readBoolean()));
+                break;
+
+            case SIN_NODO:
+                grafo.eliminarNodo(in.readUTF());
+                break;
+
+            case ARISTA: {
+                String a = in.readUTF();
+                String b = in.readUTF();
+                byte banderas = in.readByte();
+                double peso = in.readDouble();
+
+                boolean visible = (banderas & TablaAristas.VISIBLE) != 0;
+                boolean bidireccional = (banderas & TablaAristas.BIDIRECCIONAL) != 0;
+
+                if ((banderas & TablaAristas.CON_PESO) != 0) {
+                    grafo.agregarArista(a, b, visible, bidireccional, peso);
+                } else {
+                    grafo.agregarArista(a, b, visible, bidireccional);
+                }
+                break;
+            }
+
+            case SIN_ARISTA:
+                grafo.eliminarArista(in.readUTF(), in.readUTF());
+                break;
+
+            default:
+                throw new IOException("Registro de diario desconocido: " + tipo);
+        }
+    }
+
+    private void escribirDiarioVacio(long largoInstantanea, long crcInstantanea) throws IOException {
+
+        Path temporal = diario.resolveSibling(diario.getFileName() + ".tmp");
+
+        try (FileChannel canal = FileChannel.open(temporal,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE)) {
+
+            ByteBuffer cabecera = ByteBuffer.allocate(CABECERA);
+            cabecera.putInt(MAGICO);
+            cabecera.putInt(VERSION);
+            cabecera.putLong(largoInstantanea);
+            cabecera.putLong(crcInstantanea);
+            cabecera.flip();
+
+            while (cabecera.hasRemaining()) {
+                canal.write(cabecera);
+            }
+            canal.force(false);
+        }
+
+        mover(temporal, diario);
+    }
+
+    private static void mover(Path origen, Path destino) throws IOException {
+        try {
+            Files.move(origen, destino, StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(origen, destino, StandardCopyOption.REPLACE_EXISTING);
+        }
+        sincronizarDirectorio(destino.getParent());
+    }
+
+    // Force del directorio para que el renombrado quede en disco
+    private static void sincronizarDirectorio(Path directorio) {
+        try (FileChannel canal = FileChannel.open(directorio, StandardOpenOption.READ)) {
+            canal.force(true);
+        } catch (IOException e) {
+            // Algunos sistemas (Windows) no permiten abrir un directorio
+        }
+    }
+}
@@ -0,0 +1,313 @@
+package model;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Clase FormatoBinario
+ *
+ * Formato binario versionado del grafo, pensado para mapas grandes.
+ * Se escribe y se lee con FileChannel.map, copiando arreglos completos
+ * en lugar de interpretar texto línea por línea.
+ *
+ * Estructura (enteros big-endian):
+ * - Cabecera: MAGICO, VERSION, n (nodos), m (aristas visibles)
+ * - Tabla de IDs: n + 1 desplazamientos y los bytes UTF-8 de los IDs
+ * - Nodos: x[n], y[n], fijo[n] (un byte por nodo)
+ * - Aristas en CSR por nodo origen: desplazamientos[n + 1],
+ *   destinos[m], banderas[m] (ver TablaAristas), pesos[m]
+ *
+ * Guarda la misma información que grafo.txt (nodos y aristas visibles,
+ * con su peso si lo tienen). Al cargar no se crea ningún objeto por
+ * arista: las aristas se agregan a Grafo por número de nodo.
+ *
+ * También sirve como conversor entre texto y binario:
+ *   java -cp ProyectoFinal.jar model.FormatoBinario grafo.txt grafo.bin
+ */
+public final class FormatoBinario {
+
+    // "GRFB"
+    private static final int MAGICO = 0x47524642;
+
+    // Versión actual del formato
+    private static final int VERSION = 1;
+
+    // Bytes de la cabecera
+    private static final int CABECERA = 16;
+
+    private FormatoBinario() {}
+
+    /**
+     * Guarda una instantánea del grafo en formato binario.
+     * Se escribe primero a un temporal y luego se reemplaza el archivo.
+     * Solo lee la instantánea, así que puede ejecutarse en otro hilo.
+     */
+    public static void guardar(InstantaneaGrafo grafo, String rutaArchivo) throws IOException {
+
+        int n = grafo.getNumeroNodos();
+
+        Nodo[] nodos = new Nodo[n];
+        byte[][] ids = new byte[n][];
+        int bytesIds = 0;
+        for (int i = 0; i < n; i++) {
+            nodos[i] = grafo.getNodo(i);
+            ids[i] = nodos[i].getId().getBytes(StandardCharsets.UTF_8);
+            bytesIds += ids[i].length;
+        }
+
+        // Aristas visibles agrupadas por origen (conteo y relleno)
+        int m = grafo.getNumeroAristasVisibles();
+        int[] desplazamientos = new int[n + 1];
+        for (int k = 0; k < m; k++) {
+            desplazamientos[grafo.origenArista(k) + 1]++;
+        }
+        for (int i = 0; i < n; i++) {
+            desplazamientos[i + 1] += desplazamientos[i];
+        }
+
+        int[] destinos = new int[m];
+        byte[] banderas = new byte[m];
+        double[] pesos = new double[m];
+        int[] siguiente = Arrays.copyOf(desplazamientos, n);
+
+        for (int k = 0; k < m; k++) {
+            int j = siguiente[grafo.origenArista(k)]++;
+            destinos[j] = grafo.destinoArista(k);
+            banderas[j] = grafo.banderasArista(k);
+            pesos[j] = grafo.pesoArista(k);
+        }
+
+        long tamano = CABECERA
+                + 4L * (n + 1) + bytesIds
+                + 9L * n
+                + 4L * (n + 1) + 13L * m;
+
+        if (tamano > Integer.MAX_VALUE) {
+            throw new IOException("El grafo no cabe en un solo archivo mapeado (" + tamano + " bytes)");
+        }
+
+        Path destino = Paths.get(rutaArchivo).toAbsolutePath();
+        Path temporal = destino.resolveSibling(destino.getFileName() + ".tmp");
+
+        try (FileChannel canal = FileChannel.open(temporal,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+
+            MappedByteBuffer buffer = canal.map(FileChannel.MapMode.READ_WRITE, 0, tamano);
+
+            buffer.putInt(MAGICO);
+            buffer.putInt(VERSION);
+            buffer.putInt(n);
+            buffer.putInt(m);
+
+            int desplazamiento = 0;
+            for (int i = 0; i < n; i++) {
+                buffer.putInt(desplazamiento);
+                desplazamiento += ids[i].length;
+            }
+            buffer.putInt(desplazamiento);
+            for (int i = 0; i < n; i++) {
+                buffer.put(ids[i]);
+            }
+
+            int[] xs = new int[n];
+            int[] ys = new int[n];
+            byte[] fijos = new byte[n];
+            for (int i = 0; i < n; i++) {
+                xs[i] = nodos[i].getX();
+                ys[i] = nodos[i].getY();
+                fijos[i] = (byte) (nodos[i].esFijo() ? 1 : 0);
+            }
+            escribir(buffer, xs);
+            escribir(buffer, ys);
+            buffer.put(fijos);
+
+            escribir(buffer, desplazamientos);
+            escribir(buffer, destinos);
+            buffer.put(banderas);
+            buffer.asDoubleBuffer().put(pesos);
+
+            buffer.force();
+        }
+
+        Files.move(temporal, destino, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Reemplaza el contenido del grafo con el del archivo binario.
+     * Toma el lock del grafo durante toda la carga.
+     */
+    public static void cargar(Grafo grafo, String rutaArchivo) throws IOException {
+        synchronized (grafo) {
+            cargarBloqueado(grafo, rutaArchivo);
+        }
+    }
+
+    private static void cargarBloqueado(Grafo grafo, String rutaArchivo) throws IOException {
+
+        try (FileChannel canal = FileChannel.open(Paths.get(rutaArchivo), StandardOpenOption.READ)) {
+
+            long tamano = canal.size();
+            if (tamano < CABECERA || tamano > Integer.MAX_VALUE) {
+                throw new IOException("Archivo binario de grafo inválido: " + rutaArchivo);
+            }
+
+            MappedByteBuffer buffer = canal.map(FileChannel.MapMode.READ_ONLY, 0, tamano);
+
+            if (buffer.getInt() != MAGICO) {
+                throw new IOException("No es un archivo binario de grafo: " + rutaArchivo);
+            }
+            int version = buffer.getInt();
+            if (version != VERSION) {
+                throw new IOException("Versión de formato no soportada: " + version);
+            }
+
+            int n = buffer.getInt();
+            int m = buffer.getInt();
+            if (n < 0 || m < 0) {
+                throw new IOException("Cabecera inválida en " + rutaArchivo + ": n=" + n + ", m=" + m);
+            }
+
+            // Todo lo que no son los identificadores tiene tamaño fijo según n y m
+            long fijo = CABECERA
+                    + 4L * (n + 1)
+                    + 9L * n
+                    + 4L * (n + 1) + 13L * m;
+            if (fijo > tamano) {
+                throw new IOException("Archivo binario truncado: " + rutaArchivo);
+            }
+
+            int[] desplazamientosIds = leerEnteros(buffer, n + 1);
+            verificarDesplazamientos(desplazamientosIds, tamano - fijo, "identificadores", rutaArchivo);
+            byte[] bytesIds = new byte[desplazamientosIds[n]];
+            buffer.get(bytesIds);
+
+            int[] xs = leerEnteros(buffer, n);
+            int[] ys = leerEnteros(buffer, n);
+            byte[] fijos = new byte[n];
+            buffer.get(fijos);
+
+            int[] desplazamientos = leerEnteros(buffer, n + 1);
+            int[] destinos = leerEnteros(buffer, m);
+            byte[] banderas = new byte[m];
+            buffer.get(banderas);
+            double[] pesos = new double[m];
+            buffer.asDoubleBuffer().get(pesos);
+
+            verificarDesplazamientos(desplazamientos, m, "aristas", rutaArchivo);
+            for (int k = 0; k < m; k++) {
+                if (destinos[k] < 0 || destinos[k] >= n) {
+                    throw new IOException("Destino fuera de rango en " + rutaArchivo + ": " + destinos[k]);
+                }
+            }
+
+            for (int k = 0; k < m; k++) {
+                if ((banderas[k] & TablaAristas.CON_PESO) != 0 && !Grafo.esPesoValido(pesos[k])) {
+                    throw new IOException("Peso inválido en " + rutaArchivo + ": " + pesos[k]);
+                }
+            }
+
+            grafo.reiniciar();
+
+            int[] numeroDe = new int[n];
+            for (int i = 0; i < n; i++) {
+                String id = new String(bytesIds, desplazamientosIds[i],
+                        desplazamientosIds[i + 1] - desplazamientosIds[i], StandardCharsets.UTF_8);
+                grafo.cargarNodo(new Nodo(id, xs[i], ys[i], fijos[i] == 1));
+                numeroDe[i] = grafo.getNumero(id);
+            }
+
+            for (int i = 0; i < n; i++) {
+                for (int k = desplazamientos[i]; k < desplazamientos[i + 1]; k++) {
+
+                    boolean bidireccional = (banderas[k] & TablaAristas.BIDIRECCIONAL) != 0;
+
+                    if ((banderas[k] & TablaAristas.CON_PESO) != 0) {
+                        grafo.agregarArista(numeroDe[i], numeroDe[destinos[k]], true, bidireccional, pesos[k]);
+                    } else {
+                        grafo.agregarArista(numeroDe[i], numeroDe[destinos[k]], true, bidireccional);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Indica si el archivo empieza con la marca del formato binario.
+     */
+    public static boolean esBinario(String rutaArchivo) throws IOException {
+        try (DataInputStream in = new DataInputStream(new FileInputStream(rutaArchivo))) {
+            return in.readInt() == MAGICO;
+        } catch (EOFException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Convierte entre formatos: si la entrada es binaria la salida
+     * se escribe en texto, y si es de texto se escribe en binario.
+     */
+    public static void convertir(String entrada, String salida) throws IOException {
+
+        Grafo grafo = new Grafo();
+
+        if (esBinario(entrada)) {
+            cargar(grafo, entrada);
+            grafo.guardarGrafo(salida);
+        } else {
+            CargadorParalelo.cargar(grafo, entrada);
+            guardar(grafo.getInstantanea(), salida);
+        }
+    }
+
+    /**
+     * Conversor por línea de comandos: FormatoBinario entrada salida
+     */
+    public static void main(String[] args) throws IOException {
+
+        if (args.length != 2) {
+            System.err.println("Uso: java model.FormatoBinario <entrada> <salida>");
+            System.exit(1);
+        }
+
+        convertir(args[0], args[1]);
+    }
+
+    private static void escribir(ByteBuffer buffer, int[] datos) {
+        buffer.asIntBuffer().put(datos);
+        buffer.position(buffer.position() + 4 * datos.length);
+    }
+
+    /**
+     * Comprueba que una tabla de desplazamientos empiece en 0, no decrezca
+     * y termine exactamente en el total indicado.
+     */
+    private static void verificarDesplazamientos(int[] desplazamientos, long total,
+                                                 String seccion, String rutaArchivo) throws IOException {
+
+        if (desplazamientos[0] != 0 || desplazamientos[desplazamientos.length - 1] != total) {
+            throw new IOException("Desplazamientos de " + seccion + " inválidos en " + rutaArchivo);
+        }
+        for (int i = 1; i < desplazamientos.length; i++) {
+            if (desplazamientos[i] < desplazamientos[i - 1]) {
+                throw new IOException("Desplazamientos de " + seccion + " no crecientes en " + rutaArchivo);
+            }
+        }
+    }
+
+    private static int[] leerEnteros(ByteBuffer buffer, int cantidad) {
+        int[] datos = new int[cantidad];
+        buffer.asIntBuffer().get(datos);
+        buffer.position(buffer.position() + 4 * cantidad);
+        return datos;
+    }
+}
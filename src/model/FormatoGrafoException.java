@@ -0,0 +1,43 @@
+package model;
+
+import java.io.IOException;
+
+/**
+ * Clase FormatoGrafoException
+ *
+ * Error de formato al leer un grafo en texto.
+ * Indica el archivo (u origen) y la línea donde ocurrió.
+ */
+public class FormatoGrafoException extends IOException {
+
+    // Número de línea (desde 1) donde se encontró el error
+    private final int linea;
+
+    // Descripción del problema, sin origen ni línea
+    private final String detalle;
+
+    /**
+     * @param origen Nombre del archivo o flujo leído
+     * @param linea Número de línea (desde 1)
+     * @param detalle Descripción del problema
+     */
+    public FormatoGrafoException(String origen, int linea, String detalle) {
+        super(origen + ", línea " + linea + ": " + detalle);
+        this.linea = linea;
+        this.detalle = detalle;
+    }
+
+    /**
+     * Devuelve el número de línea del error.
+     */
+    public int getLinea() {
+        return linea;
+    }
+
+    /**
+     * Devuelve la descripción del problema (sin origen ni línea).
+     */
+    public String getDetalle() {
+        return detalle;
+    }
+}
@@ -2,6 +2,7 @@ package model;
 
 import java.io.*;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * Clase Grafo
@@ -10,28 +11,93 @@ import java.util.*;
  *
  * Contiene:
  * - Un conjunto de nodos
- * - Una estructura de adyacencias (lista de vecinos)
- * - Un registro de aristas visibles (para mostrar en la vista)
+ * - Una estructura de adyacencias (vecinos de cada nodo, ConjuntoVecinos)
+ * - Un índice inverso de aristas entrantes (para borrar en O(grado))
+ * - Un registro de aristas visibles y pesos (TablaAristas, con claves
+ *   long formadas por el número denso de cada nodo)
+ * - Un índice espacial de los nodos (selección y validación de conexiones)
  *
  * También implementa:
- * - Algoritmo BFS (Búsqueda en Anchura)
+ * - Algoritmo BFS (Búsqueda en Anchura), también con una tabla de
+ *   distancias por origen reutilizada entre destinos ("BFS-TABLA")
  * - Algoritmo DFS (Búsqueda en Profundidad)
- * - Guardado y carga desde archivo
+ * - BFS bidireccional para consultas punto a punto
+ * - Dijkstra y A* sobre aristas ponderadas
+ * - Consultas con jerarquías de contracción (preprocesamiento opcional)
+ *   (todos ejecutados sobre la vista compilada GrafoCompilado)
+ * - Caché de resultados por versión del grafo (ver buscar)
+ * - Lotes de consultas ejecutados en paralelo (ver buscarLote)
+ * - Instantáneas inmutables para buscar desde otros hilos (getInstantanea)
+ * - Guardado y carga desde archivo (texto o binario)
+ *
+ * Hilos: el grafo se edita desde un solo hilo (el de eventos de Swing).
+ * Las ediciones, las cargas y la toma de instantáneas se sincronizan
+ * sobre el grafo, así que getInstantanea() puede llamarse desde otro
+ * hilo para armar la próxima instantánea sin bloquear a quien edita
+ * (salvo si edita justo mientras se arma). getUltimaInstantanea()
+ * devuelve la última ya armada sin esperar.
  */
 public class Grafo {
 
     // Mapa que almacena los nodos usando su ID como clave
     private Map<String, Nodo> nodos;
 
-    // Lista de adyacencias (representa conexiones entre nodos)
-    // Clave: ID del nodo
-    // Valor: Lista de IDs vecinos
-    private Map<String, List<String>> adyacencias;
+    // Adyacencias (representa conexiones entre nodos)
+    // Posición: número del nodo
+    // Valor: números de sus vecinos, en orden de inserción
+    private List<ConjuntoVecinos> adyacencias;
+
+    // Índice inverso de adyacencias
+    // Posición: número del nodo
+    // Valor: números de los nodos que tienen una arista hacia él
+    private List<ConjuntoVecinos> entrantes;
+
+    // Número denso de cada nodo (0..), usado en las claves de aristas
+    private Map<String, Integer> numeros;
+
+    // Nodo con cada número (null si el número quedó libre)
+    private List<Nodo> porNumero;
+
+    // Números de nodos eliminados, para reutilizarlos
+    private int[] libres = new int[16];
+    private int cantidadLibres;
+
+    // Aristas visibles (bidireccionales o no) y pesos explícitos
+    // Clave: (número de A << 32) | número de B
+    // Si una arista no tiene peso se usa la distancia euclidiana
+    private TablaAristas aristas;
+
+    // Rejilla con la posición de los nodos (celdas de 64 px)
+    private final IndiceEspacial indiceEspacial = new IndiceEspacial(64);
+
+    // Vista CSR usada por las búsquedas (null si debe recompilarse)
+    private GrafoCompilado compilado;
+
+    // Jerarquía de contracción (null si no se preparó o el grafo cambió)
+    private JerarquiaContraccion jerarquia;
+
+    // Instantánea de la versión actual (null si debe volver a tomarse)
+    private InstantaneaGrafo instantanea;
+
+    // Última instantánea armada, aunque sea de una versión anterior
+    private volatile InstantaneaGrafo publicada;
+
+    // Distancias BFS desde el último origen consultado con "BFS-TABLA"
+    // (vacía si no hay o el grafo cambió)
+    private final AtomicReference<TablaDistancias> tablaDistancias = new AtomicReference<>();
+
+    // Si es true, DFS usa la versión recursiva en lugar de la iterativa
+    private boolean dfsRecursivo = false;
 
-    // Almacena las aristas visibles en el mapa
-    // Clave: "A-B"
-    // Valor: true si es bidireccional, false si es unidireccional
-    private Map<String, Boolean> aristasVisibles;
+    // Versión del grafo: aumenta con cada modificación
+    // (volatile: se lee sin sincronizar, ver getVersion)
+    private volatile long version;
+
+    // Resultados de buscar() reutilizables mientras la versión no cambie
+    private final CacheRutas cache = new CacheRutas(256, 4_000_000);
+
+    // Diario donde se anotan las ediciones (null si no se usa)
+    private DiarioGrafo diario;
 
     /**
      * Constructor del grafo.
@@ -39,45 +105,115 @@ public class Grafo {
      */
     public Grafo() {
         nodos = new HashMap<>();
-        adyacencias = new HashMap<>();
-        aristasVisibles = new HashMap<>();
+        adyacencias = new ArrayList<>();
+        entrantes = new ArrayList<>();
+        numeros = new HashMap<>();
+        porNumero = new ArrayList<>();
+        aristas = new TablaAristas();
     }
 
     /**
      * Reinicia completamente el grafo.
      * Elimina nodos, adyacencias y aristas.
      */
-    public void reiniciar() {
+    public synchronized void reiniciar() {
         nodos.clear();
         adyacencias.clear();
-        aristasVisibles.clear();
+        entrantes.clear();
+        numeros.clear();
+        porNumero.clear();
+        cantidadLibres = 0;
+        aristas.limpiar();
+        indiceEspacial.limpiar();
+        invalidar();
+
+        if (diario != null) diario.reiniciado();
     }
 
     /**
      * Agrega un nuevo nodo al grafo.
      */
-    public void agregarNodo(Nodo nodo) {
-        nodos.put(nodo.getId(), nodo);
-        adyacencias.put(nodo.getId(), new ArrayList<>());
+    public synchronized void agregarNodo(Nodo nodo) {
+        cargarNodo(nodo);
+        if (diario != null) diario.nodoAgregado(nodo);
+    }
+
+    /**
+     * Versión de agregarNodo usada por los cargadores:
+     * no se anota en el diario.
+     */
+    void cargarNodo(Nodo nodo) {
+        Nodo anterior = nodos.put(nodo.getId(), nodo);
+        if (anterior != null) {
+            // Mismo ID: se actualiza el nodo y se conservan sus conexiones
+            indiceEspacial.quitar(anterior);
+            porNumero.set(numeros.get(nodo.getId()), nodo);
+        } else if (cantidadLibres > 0) {
+            int numero = libres[--cantidadLibres];
+            numeros.put(nodo.getId(), numero);
+            porNumero.set(numero, nodo);
+            adyacencias.set(numero, new ConjuntoVecinos());
+            entrantes.set(numero, new ConjuntoVecinos());
+        } else {
+            numeros.put(nodo.getId(), porNumero.size());
+            porNumero.add(nodo);
+            adyacencias.add(new ConjuntoVecinos());
+            entrantes.add(new ConjuntoVecinos());
+        }
+        indiceEspacial.agregar(nodo);
+        invalidar();
     }
 
     /**
      * Elimina un nodo del grafo y todas sus conexiones.
+     * Solo recorre las aristas que salen o llegan al nodo.
      */
-    public void eliminarNodo(String id) {
+    public synchronized void eliminarNodo(String id) {
 
-        nodos.remove(id);
-        adyacencias.remove(id);
+        invalidar();
+
+        Nodo nodo = nodos.remove(id);
+        if (nodo == null) return;
+        indiceEspacial.quitar(nodo);
+
+        int numero = numeros.remove(id);
+        ConjuntoVecinos salientes = adyacencias.get(numero);
+        ConjuntoVecinos llegan = entrantes.get(numero);
+
+        // Aristas id -> x: se quita id del índice inverso de x
+        for (int k = 0; k < salientes.limite(); k++) {
+            int x = salientes.en(k);
+            if (x < 0) continue;
+            entrantes.get(x).quitar(numero);
+            quitarClaves(numero, x);
+        }
+
+        // Aristas x -> id: se quita id de los vecinos de x
+        for (int k = 0; k < llegan.limite(); k++) {
+            int x = llegan.en(k);
+            if (x < 0) continue;
+            adyacencias.get(x).quitar(numero);
+            quitarClaves(x, numero);
+        }
 
-        // Elimina referencias en otras listas de vecinos
-        for (List<String> vecinos : adyacencias.values()) {
-            vecinos.remove(id);
+        // El número queda libre para el próximo nodo
+        porNumero.set(numero, null);
+        adyacencias.set(numero, null);
+        entrantes.set(numero, null);
+        if (cantidadLibres == libres.length) {
+            libres = Arrays.copyOf(libres, cantidadLibres * 2);
         }
+        libres[cantidadLibres++] = numero;
 
-        // Elimina aristas visibles relacionadas con el nodo
-        aristasVisibles.entrySet().removeIf(e ->
-                e.getKey().startsWith(id + "-") ||
-                e.getKey().endsWith("-" + id));
+        if (diario != null) diario.nodoEliminado(id);
+    }
+
+    /**
+     * Elimina la arista visible y los pesos entre a y b (ambos sentidos).
+     */
+    private void quitarClaves(int a, int b) {
+        aristas.quitar(TablaAristas.clave(a, b));
+        aristas.quitar(TablaAristas.clave(b, a));
     }
 
     /**
@@ -88,376 +224,542 @@ public class Grafo {
      * @param visible Indica si debe mostrarse en pantalla
      * @param bidireccional Indica si la conexión es en ambos sentidos
      */
-    public void agregarArista(String a, String b, boolean visible, boolean bidireccional) {
+    public synchronized void agregarArista(String a, String b, boolean visible, boolean bidireccional) {
 
-        if (!adyacencias.containsKey(a) || !adyacencias.containsKey(b)) return;
+        Integer na = numeros.get(a);
+        Integer nb = numeros.get(b);
+        if (na == null || nb == null) return;
+
+        agregarArista(na.intValue(), nb.intValue(), visible, bidireccional);
+
+        if (diario != null) diario.aristaAgregada(a, b, visible, bidireccional, Double.NaN);
+    }
 
-        if (!adyacencias.get(a).contains(b)) {
-            adyacencias.get(a).add(b);
+    /**
+     * Agrega una arista entre dos números de nodo ya existentes.
+     * Usado también por los cargadores para no buscar IDs por arista.
+     */
+    void agregarArista(int na, int nb, boolean visible, boolean bidireccional) {
+
+        invalidar();
+
+        // agregar() devuelve false si la arista ya existía (O(1))
+        if (adyacencias.get(na).agregar(nb)) {
+            entrantes.get(nb).agregar(na);
         }
 
         if (bidireccional) {
-            if (!adyacencias.get(b).contains(a)) {
-                adyacencias.get(b).add(a);
+            if (adyacencias.get(nb).agregar(na)) {
+                entrantes.get(na).agregar(nb);
             }
         }
 
         if (visible) {
-            aristasVisibles.put(a + "-" + b, bidireccional);
+            aristas.ponerVisible(TablaAristas.clave(na, nb), bidireccional);
         }
     }
 
     /**
-     * Elimina la conexión entre dos nodos.
+     * Agrega una arista con una longitud explícita.
+     * Si es bidireccional, el peso se aplica en ambos sentidos.
+     *
+     * @param peso Longitud de la arista (en píxeles del mapa)
+     * @throws IllegalArgumentException si el peso es negativo, infinito o NaN
      */
-    public void eliminarArista(String a, String b) {
+    public synchronized void agregarArista(String a, String b, boolean visible,
+                              boolean bidireccional, double peso) {
 
-        if (adyacencias.containsKey(a))
-            adyacencias.get(a).remove(b);
+        if (!esPesoValido(peso)) {
+            throw new IllegalArgumentException("Peso inválido para la arista " + a + " -> " + b + ": " + peso);
+        }
 
-        if (adyacencias.containsKey(b))
-            adyacencias.get(b).remove(a);
+        Integer na = numeros.get(a);
+        Integer nb = numeros.get(b);
+        if (na == null || nb == null) return;
 
-        String clave1 = a + "-" + b;
-        String clave2 = b + "-" + a;
+        agregarArista(na.intValue(), nb.intValue(), visible, bidireccional, peso);
 
-        if (aristasVisibles.containsKey(clave1)) {
-            aristasVisibles.remove(clave1);
-        }
+        if (diario != null) diario.aristaAgregada(a, b, visible, bidireccional, peso);
+    }
+
+    /**
+     * Indica si un peso explícito es aceptable: finito y no negativo.
+     * Dijkstra y la cota de A* (GrafoCompilado) suponen longitudes
+     * mayores o iguales a cero.
+     */
+    static boolean esPesoValido(double peso) {
+        return peso >= 0 && peso < Double.POSITIVE_INFINITY;
+    }
 
-        if (aristasVisibles.containsKey(clave2)) {
-            aristasVisibles.remove(clave2);
+    /**
+     * Versión por números de agregarArista con peso explícito
+     * (quien llama ya validó el peso).
+     */
+    void agregarArista(int na, int nb, boolean visible, boolean bidireccional, double peso) {
+
+        agregarArista(na, nb, visible, bidireccional);
+
+        aristas.ponerPeso(TablaAristas.clave(na, nb), peso);
+        if (bidireccional) {
+            aristas.ponerPeso(TablaAristas.clave(nb, na), peso);
         }
     }
 
     /**
-     * Ejecuta el algoritmo BFS (Breadth First Search).
-     * Busca el camino más corto en número de aristas.
+     * Devuelve la longitud de la arista a -> b:
+     * el peso explícito si existe, o la distancia euclidiana.
+     *
+     * @throws IllegalArgumentException si alguno de los nodos no existe
      */
-    public ResultadoBusqueda bfsCompleto(String inicio, String fin) {
+    public synchronized double getPeso(String a, String b) {
 
-        if (!nodos.containsKey(inicio) || !nodos.containsKey(fin))
-            return null;
+        Integer na = numeros.get(a);
+        Integer nb = numeros.get(b);
+        if (na == null || nb == null) {
+            throw new IllegalArgumentException("Nodo inexistente en la arista " + a + " -> " + b);
+        }
 
-        long startTime = System.nanoTime();
+        double peso = aristas.peso(TablaAristas.clave(na, nb));
+        if (!Double.isNaN(peso)) return peso;
+        return nodos.get(a).getPoint().distance(nodos.get(b).getPoint());
+    }
 
-        List<Nodo> visitadosOrden = new ArrayList<>();
-        Queue<String> cola = new LinkedList<>();
-        Set<String> visitados = new HashSet<>();
-        Map<String, String> padres = new HashMap<>();
+    /**
+     * Elimina la conexión entre dos nodos.
+     */
+    public synchronized void eliminarArista(String a, String b) {
 
-        cola.add(inicio);
-        visitados.add(inicio);
-        padres.put(inicio, null);
+        invalidar();
 
-        while (!cola.isEmpty()) {
+        Integer na = numeros.get(a);
+        Integer nb = numeros.get(b);
+        if (na == null || nb == null) return;
 
-            String actual = cola.poll();
-            visitadosOrden.add(nodos.get(actual));
+        if (adyacencias.get(na).quitar(nb))
+            entrantes.get(nb).quitar(na);
 
-            if (actual.equals(fin)) {
-                long tiempo = System.nanoTime() - startTime;
-                return new ResultadoBusqueda(
-                        reconstruirCamino(padres, fin),
-                        visitadosOrden,
-                        padres,
-                        tiempo
-                );
-            }
+        if (adyacencias.get(nb).quitar(na))
+            entrantes.get(na).quitar(nb);
 
-            for (String vecino : adyacencias.get(actual)) {
-                if (!visitados.contains(vecino)) {
-                    visitados.add(vecino);
-                    padres.put(vecino, actual);
-                    cola.add(vecino);
-                }
-            }
-        }
+        quitarClaves(na, nb);
 
-        return null;
+        if (diario != null) diario.aristaEliminada(a, b);
     }
 
     /**
-     * Ejecuta el algoritmo DFS (Depth First Search).
-     * Explora lo más profundo posible antes de retroceder.
+     * Devuelve el nodo más cercano a (x, y) a menos de radio píxeles,
+     * o null si no hay ninguno. Solo revisa las celdas cercanas.
      */
-    public ResultadoBusqueda dfsCompleto(String inicio, String fin) {
-
-        if (!nodos.containsKey(inicio) || !nodos.containsKey(fin))
-            return null;
-
-        long startTime = System.nanoTime();
+    public Nodo buscarNodoCercano(int x, int y, double radio) {
+        return indiceEspacial.masCercano(x, y, radio);
+    }
 
-        List<Nodo> visitadosOrden = new ArrayList<>();
-        Set<String> visitados = new HashSet<>();
-        Map<String, String> padres = new HashMap<>();
+    /**
+     * Indica si hay algún nodo, distinto de a y b, estrictamente
+     * dentro del rectángulo (minX, maxX) x (minY, maxY).
+     */
+    public boolean hayNodoEn(int minX, int maxX, int minY, int maxY, Nodo a, Nodo b) {
+        return indiceEspacial.hayNodoEn(minX, maxX, minY, maxY, a, b);
+    }
 
-        boolean encontrado = dfsRecursivo(
-                inicio,
-                fin,
-                visitados,
-                padres,
-                visitadosOrden
-        );
+    /**
+     * Devuelve la vista compilada (CSR) del grafo.
+     * Solo se reconstruye si el grafo cambió desde la última llamada.
+     */
+    public synchronized GrafoCompilado getCompilado() {
+        if (compilado == null) {
+            compilado = new GrafoCompilado(nodos, numeros, adyacencias, aristas);
+        }
+        return compilado;
+    }
 
-        if (!encontrado) return null;
+    /**
+     * Descarta la vista compilada tras cualquier modificación
+     * y avanza la versión del grafo.
+     */
+    private void invalidar() {
+        compilado = null;
+        jerarquia = null;
+        instantanea = null;
+        tablaDistancias.set(null);
+        version++;
+    }
 
-        long tiempo = System.nanoTime() - startTime;
+    /**
+     * Devuelve la versión actual del grafo.
+     * Cambia con cada agregarNodo, eliminarNodo, agregarArista,
+     * eliminarArista, reiniciar y carga desde archivo.
+     */
+    public long getVersion() {
+        return version;
+    }
 
-        return new ResultadoBusqueda(
-                reconstruirCamino(padres, fin),
-                visitadosOrden,
-                padres,
-                tiempo
-        );
+    /**
+     * Devuelve la caché de resultados usada por buscar().
+     */
+    public CacheRutas getCache() {
+        return cache;
     }
 
     /**
-     * Método recursivo utilizado por DFS.
+     * Ejecuta el algoritmo BFS (Breadth First Search).
+     * Busca el camino más corto en número de aristas.
      */
-    private boolean dfsRecursivo(
-        String actual,
-        String destino,
-        Set<String> visitados,
-        Map<String, String> padres,
-        List<Nodo> visitadosOrden) {
+    public ResultadoBusqueda bfsCompleto(String inicio, String fin) {
 
-        visitados.add(actual);
-        visitadosOrden.add(nodos.get(actual));
+        GrafoCompilado g = getCompilado();
 
-        if (actual.equals(destino)) {
-            return true;
-        }
+        int a = g.indiceDe(inicio);
+        int b = g.indiceDe(fin);
+        if (a < 0 || b < 0) return null;
 
-        for (String vecino : adyacencias.get(actual)) {
+        return g.bfs(a, b);
+    }
 
-            if (!visitados.contains(vecino)) {
+    /**
+     * Ejecuta el algoritmo DFS (Depth First Search).
+     * Explora lo más profundo posible antes de retroceder.
+     * Por defecto usa la versión iterativa (ver setDfsRecursivo).
+     */
+    public ResultadoBusqueda dfsCompleto(String inicio, String fin) {
 
-                padres.put(vecino, actual);
+        GrafoCompilado g = getCompilado();
 
-                if (dfsRecursivo(vecino, destino, visitados, padres, visitadosOrden)) {
-                    return true;
-                }
-            }
-        }
+        int a = g.indiceDe(inicio);
+        int b = g.indiceDe(fin);
+        if (a < 0 || b < 0) return null;
 
-        return false;
+        return dfsRecursivo ? g.dfsRecursivo(a, b) : g.dfs(a, b);
     }
 
     /**
-     * Reconstruye el camino desde el nodo final
-     * utilizando el mapa de padres.
+     * Ejecuta BFS bidireccional: avanza desde inicio y desde fin
+     * (respetando el sentido de las aristas) hasta encontrarse.
+     * Devuelve la misma cantidad de saltos que BFS.
      */
-    private List<Nodo> reconstruirCamino(Map<String, String> padres, String fin) {
+    public ResultadoBusqueda bfsBidireccional(String inicio, String fin) {
 
-        List<Nodo> camino = new ArrayList<>();
-        String actual = fin;
+        GrafoCompilado g = getCompilado();
 
-        while (actual != null) {
-            camino.add(0, nodos.get(actual));
-            actual = padres.get(actual);
-        }
+        int a = g.indiceDe(inicio);
+        int b = g.indiceDe(fin);
+        if (a < 0 || b < 0) return null;
 
-        return camino;
+        return g.bfsBidireccional(a, b);
     }
 
     /**
-     * Guarda el grafo en un archivo de texto.
-     * Se almacenan nodos y aristas.
+     * Ejecuta Dijkstra: camino de menor longitud según los pesos
+     * de las aristas (distancia euclidiana por defecto).
      */
-    public void guardarGrafo(String rutaArchivo) {
+    public ResultadoBusqueda dijkstra(String inicio, String fin) {
 
-        try (PrintWriter pw = new PrintWriter(new FileWriter(rutaArchivo))) {
+        GrafoCompilado g = getCompilado();
 
-            pw.println("NODOS");
-            for (Nodo n : nodos.values()) {
-                pw.println(n.toString());
-            }
+        int a = g.indiceDe(inicio);
+        int b = g.indiceDe(fin);
+        if (a < 0 || b < 0) return null;
 
-            pw.println("ARISTAS");
+        return g.dijkstra(a, b);
+    }
 
-            for (Map.Entry<String, Boolean> entry : aristasVisibles.entrySet()) {
+    /**
+     * Ejecuta A*: como Dijkstra, guiado por la distancia
+     * en línea recta hasta el destino.
+     */
+    public ResultadoBusqueda aEstrella(String inicio, String fin) {
 
-                String clave = entry.getKey();
-                boolean bidireccional = entry.getValue();
+        GrafoCompilado g = getCompilado();
 
-                String[] partes = clave.split("-");
-                pw.println(partes[0] + "," + partes[1] + "," +
-                        (bidireccional ? "1" : "0"));
-            }
+        int a = g.indiceDe(inicio);
+        int b = g.indiceDe(fin);
+        if (a < 0 || b < 0) return null;
 
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
+        return g.aEstrella(a, b);
     }
 
     /**
-     * Carga un grafo desde archivo.
-     * Reconstruye nodos y aristas.
+     * Devuelve la jerarquía de contracción vigente,
+     * o null si no se ha preparado desde el último cambio.
      */
-    public void cargarGrafo(String rutaArchivo) {
+    public JerarquiaContraccion getJerarquia() {
+        return jerarquia;
+    }
 
-        reiniciar();
+    /**
+     * Prepara la jerarquía de contracción (preprocesamiento opcional).
+     *
+     * Si el archivo indicado contiene una jerarquía del mismo grafo
+     * se reutiliza; si no, se construye en paralelo y se guarda en él.
+     * Cualquier edición del grafo la descarta.
+     *
+     * @param rutaArchivo Archivo de la jerarquía (puede ser null)
+     */
+    public synchronized JerarquiaContraccion prepararJerarquia(String rutaArchivo) {
 
-        File archivo = new File(rutaArchivo);
-        if (!archivo.exists()) return;
+        if (jerarquia == null) {
+            jerarquia = JerarquiaContraccion.preparar(rutaArchivo, getCompilado());
+            instantanea = null;
+        }
+        return jerarquia;
+    }
 
-        try (BufferedReader br = new BufferedReader(new FileReader(archivo))) {
+    /**
+     * Adopta una jerarquía preparada fuera del grafo (por ejemplo en
+     * segundo plano sobre una instantánea). Se ignora si el grafo
+     * cambió desde que se tomó la instantánea.
+     */
+    public synchronized void usarJerarquia(JerarquiaContraccion preparada) {
+        if (jerarquia == null && compilado != null
+                && preparada != null && preparada.esValidaPara(compilado)) {
+            jerarquia = preparada;
+            instantanea = null;
+        }
+    }
 
-            String linea;
-            boolean leyendoNodos = false;
-            boolean leyendoAristas = false;
+    /**
+     * Consulta la ruta más corta usando la jerarquía de contracción.
+     * Si no está preparada, la construye (sin guardarla).
+     */
+    public ResultadoBusqueda jerarquiaContraccion(String inicio, String fin) {
 
-            while ((linea = br.readLine()) != null) {
+        GrafoCompilado g = getCompilado();
 
-                linea = linea.trim();
-                if (linea.isEmpty()) continue;
+        int a = g.indiceDe(inicio);
+        int b = g.indiceDe(fin);
+        if (a < 0 || b < 0) return null;
 
-                if (linea.equals("NODOS")) {
-                    leyendoNodos = true;
-                    leyendoAristas = false;
-                    continue;
-                }
+        return prepararJerarquia(null).consultar(a, b);
+    }
 
-                if (linea.equals("ARISTAS")) {
-                    leyendoNodos = false;
-                    leyendoAristas = true;
-                    continue;
-                }
+    /**
+     * Ejecuta el algoritmo indicado por nombre
+     * ("BFS", "DFS", "BFS-BI", "DIJKSTRA", "A*", "CH", "BFS-TABLA").
+     *
+     * Si la misma consulta ya se resolvió sobre la versión actual
+     * del grafo, devuelve ese resultado marcado con desdeCache.
+     * Para "CH" prepara antes la jerarquía (sin guardarla).
+     */
+    public ResultadoBusqueda buscar(String algoritmo, String inicio, String fin) {
 
-                if (leyendoNodos) {
+        if (algoritmo.equals("CH")) prepararJerarquia(null);
 
-                    String[] partes = linea.split(",");
+        return getInstantanea().buscar(algoritmo, inicio, fin);
+    }
 
-                    if (partes.length >= 3) {
+    /**
+     * Ejecuta un lote de consultas en paralelo sobre una instantánea
+     * de la versión actual (ver InstantaneaGrafo.buscarLote).
+     * Si alguna consulta es "CH", prepara antes la jerarquía (sin guardarla).
+     */
+    public ResultadoLote buscarLote(List<ConsultaRuta> consultas) {
 
-                        boolean esFijo = partes.length > 3 &&
-                                        partes[3].equals("1");
+        for (ConsultaRuta c : consultas) {
+            if (c.getAlgoritmo().equals("CH")) {
+                prepararJerarquia(null);
+                break;
+            }
+        }
 
-                        agregarNodo(new Nodo(
-                                partes[0],
-                                Integer.parseInt(partes[1]),
-                                Integer.parseInt(partes[2]),
-                                esFijo
-                        ));
-                    }
-                }
+        return getInstantanea().buscarLote(consultas);
+    }
 
-                else if (leyendoAristas) {
+    /**
+     * Lee las consultas de un archivo (ver ConsultaRuta.leerArchivo)
+     * y las ejecuta con buscarLote.
+     */
+    public ResultadoLote buscarLote(String rutaConsultas) throws IOException {
+        return buscarLote(ConsultaRuta.leerArchivo(rutaConsultas));
+    }
 
-                    String[] partes = linea.split(",");
+    /**
+     * Devuelve la instantánea inmutable de la versión actual, que puede
+     * leerse desde otros hilos mientras el grafo se sigue editando
+     * (ver InstantaneaGrafo). Se toma como máximo una vez por versión.
+     *
+     * Armarla recorre todo el grafo (en un mapa de un millón de nodos
+     * tarda cerca de un segundo), así que conviene pedirla fuera del
+     * hilo de eventos; mientras se arma, las ediciones esperan.
+     */
+    public synchronized InstantaneaGrafo getInstantanea() {
+        if (instantanea == null || instantanea.getVersion() != version) {
+            instantanea = new InstantaneaGrafo(version, getCompilado(), aristas,
+                    jerarquia, dfsRecursivo, cache, tablaDistancias);
+            publicada = instantanea;
+        }
+        return instantanea;
+    }
 
-                    if (partes.length >= 2) {
+    /**
+     * Devuelve la última instantánea armada, sin armar una nueva ni
+     * esperar: puede ser de una versión anterior (comparar su
+     * getVersion() con la del grafo) o null si nunca se armó ninguna.
+     */
+    public InstantaneaGrafo getUltimaInstantanea() {
+        return publicada;
+    }
 
-                        boolean bidireccional =
-                                partes.length > 2 &&
-                                partes[2].equals("1");
+    /**
+     * Permite volver a la implementación recursiva de DFS.
+     */
+    public synchronized void setDfsRecursivo(boolean dfsRecursivo) {
+        this.dfsRecursivo = dfsRecursivo;
+        this.instantanea = null;
+    }
 
-                        agregarArista(
-                                partes[0],
-                                partes[1],
-                                true,
-                                bidireccional
-                        );
-                    }
-                }
-            }
+    /**
+     * Guarda el grafo en un archivo de texto.
+     * Se almacenan nodos y aristas.
+     */
+    public void guardarGrafo(String rutaArchivo) {
 
+        try (PrintWriter pw = new PrintWriter(new BufferedWriter(new FileWriter(rutaArchivo)))) {
+            escribirTexto(pw);
         } catch (IOException e) {
             e.printStackTrace();
         }
     }
 
-    public void cargarGrafoDesdeStream(java.io.InputStream inputStream) {
+    /**
+     * Escribe el grafo en el formato de texto (usado también por DiarioGrafo).
+     */
+    void escribirTexto(PrintWriter pw) {
+        getInstantanea().escribirTexto(pw);
+    }
 
-        reiniciar();
+    /**
+     * Guarda el grafo en el formato binario (ver FormatoBinario).
+     */
+    public void guardarGrafoBinario(String rutaArchivo) {
+        try {
+            FormatoBinario.guardar(getInstantanea(), rutaArchivo);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
 
-        try (BufferedReader br =
-                new BufferedReader(new InputStreamReader(inputStream))) {
+    /**
+     * Carga un grafo guardado en formato binario.
+     * Reemplaza nodos y aristas actuales.
+     */
+    public synchronized void cargarGrafoBinario(String rutaArchivo) {
+        try {
+            FormatoBinario.cargar(this, rutaArchivo);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
 
-            String linea;
-            boolean leyendoNodos = false;
-            boolean leyendoAristas = false;
+    /**
+     * Carga un grafo desde archivo de texto (ver LectorGrafoTexto).
+     * Reconstruye nodos y aristas.
+     */
+    public synchronized void cargarGrafo(String rutaArchivo) {
 
-            while ((linea = br.readLine()) != null) {
+        reiniciar();
 
-                linea = linea.trim();
-                if (linea.isEmpty()) continue;
+        File archivo = new File(rutaArchivo);
+        if (!archivo.exists()) return;
 
-                if (linea.equals("NODOS")) {
-                    leyendoNodos = true;
-                    leyendoAristas = false;
-                    continue;
-                }
+        try (InputStream in = new FileInputStream(archivo)) {
+            LectorGrafoTexto.leer(in, this, rutaArchivo);
+        } catch (FormatoGrafoException e) {
+            System.err.println("Formato de grafo inválido en " + e.getMessage());
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
 
-                if (linea.equals("ARISTAS")) {
-                    leyendoNodos = false;
-                    leyendoAristas = true;
-                    continue;
-                }
+    /**
+     * Carga un grafo de texto usando varios núcleos (ver CargadorParalelo).
+     * El resultado es el mismo que con cargarGrafo; conviene para archivos grandes.
+     */
+    public synchronized void cargarGrafoParalelo(String rutaArchivo) {
 
-                if (leyendoNodos) {
+        reiniciar();
 
-                    String[] partes = linea.split(",");
+        if (!new File(rutaArchivo).exists()) return;
 
-                    if (partes.length >= 3) {
+        try {
+            CargadorParalelo.cargar(this, rutaArchivo);
+        } catch (FormatoGrafoException e) {
+            System.err.println("Formato de grafo inválido en " + e.getMessage());
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
 
-                        boolean esFijo =
-                                partes.length > 3 &&
-                                partes[3].equals("1");
+    /**
+     * Carga un grafo de texto desde un flujo (por ejemplo un recurso
+     * del classpath). Usa el mismo lector que cargarGrafo y cierra el flujo.
+     */
+    public synchronized void cargarGrafoDesdeStream(InputStream inputStream) {
 
-                        agregarNodo(new Nodo(
-                                partes[0],
-                                Integer.parseInt(partes[1]),
-                                Integer.parseInt(partes[2]),
-                                esFijo
-                        ));
-                    }
-                }
+        reiniciar();
 
-                else if (leyendoAristas) {
+        try (InputStream in = inputStream) {
+            LectorGrafoTexto.leer(in, this, "recurso");
+        } catch (FormatoGrafoException e) {
+            System.err.println("Formato de grafo inválido en " + e.getMessage());
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
 
-                    String[] partes = linea.split(",");
+    /**
+     * Asocia el diario donde se anotan las ediciones (null para ninguno).
+     */
+    void setDiario(DiarioGrafo diario) {
+        this.diario = diario;
+    }
 
-                    if (partes.length >= 2) {
+    /**
+     * Devuelve todos los nodos del grafo, en una vista de solo lectura
+     * que refleja las ediciones. Para leerlos desde otro hilo
+     * se usa getInstantanea().
+     */
+    public Map<String, Nodo> getNodos() {
+        return Collections.unmodifiableMap(nodos);
+    }
 
-                        boolean bidireccional =
-                                partes.length > 2 &&
-                                partes[2].equals("1");
+    /**
+     * Devuelve los IDs de los vecinos de un nodo, en orden
+     * (lista nueva; vacía si el nodo no existe).
+     */
+    public List<String> getVecinos(String id) {
 
-                        agregarArista(
-                                partes[0],
-                                partes[1],
-                                true,
-                                bidireccional
-                        );
-                    }
-                }
-            }
+        List<String> lista = new ArrayList<>();
+        Integer numero = numeros.get(id);
+        if (numero == null) return lista;
 
-        } catch (Exception e) {
-            e.printStackTrace();
+        ConjuntoVecinos vecinos = adyacencias.get(numero);
+        for (int k = 0; k < vecinos.limite(); k++) {
+            int v = vecinos.en(k);
+            if (v >= 0) lista.add(porNumero.get(v).getId());
         }
+        return lista;
     }
 
     /**
-     * Devuelve todos los nodos del grafo.
+     * Devuelve el nodo con el número denso dado (null si está libre).
      */
-    public Map<String, Nodo> getNodos() {
-        return nodos;
+    public Nodo getNodoPorNumero(int numero) {
+        return porNumero.get(numero);
     }
 
     /**
-     * Devuelve la estructura de adyacencias.
+     * Devuelve el número denso de un nodo, o -1 si no existe.
      */
-    public Map<String, List<String>> getAdyacencias() {
-        return adyacencias;
+    public int getNumero(String id) {
+        Integer numero = numeros.get(id);
+        return numero == null ? -1 : numero;
     }
 
     /**
-     * Devuelve las aristas visibles.
+     * Límite (exclusivo) de los números de nodo asignados,
+     * incluidos los que quedaron libres.
      */
-    public Map<String, Boolean> getAristasVisibles() {
-        return aristasVisibles;
+    public int getLimiteNumeros() {
+        return porNumero.size();
     }
 }
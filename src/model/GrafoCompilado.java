@@ -0,0 +1,894 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Clase GrafoCompilado
+ *
+ * Vista compilada e inmutable del grafo en formato CSR
+ * (Compressed Sparse Row).
+ *
+ * Cada nodo recibe un índice entero denso (0..n-1) y sus vecinos
+ * se guardan de forma contigua en un único arreglo:
+ * - desplazamientos[i] .. desplazamientos[i + 1] delimita los vecinos del nodo i
+ * - destinos[k] contiene el índice del vecino k
+ * - pesos[k] contiene la longitud de esa arista
+ *
+ * Los algoritmos de búsqueda trabajan sobre arreglos primitivos
+ * (padres como int[], visitados como long[]) en lugar de mapas
+ * de Strings, evitando calcular hashes en cada paso.
+ *
+ * La instancia la construye Grafo y solo se vuelve a generar
+ * cuando el grafo cambia. Como no se modifica, varios hilos pueden
+ * buscar a la vez sobre ella; cada búsqueda puede recibir un
+ * Progreso para informar su avance y poder cancelarse.
+ */
+public final class GrafoCompilado {
+
+    // Identificador de cada nodo según su índice denso
+    private final String[] ids;
+
+    // Nodo correspondiente a cada índice
+    private final Nodo[] nodos;
+
+    // Traducción de ID a índice denso
+    private final Map<String, Integer> indices;
+
+    // Índice denso de cada número de nodo de Grafo (-1 si el número está libre)
+    private final int[] indicePorNumero;
+
+    // Inicio de la lista de vecinos de cada nodo (tamaño n + 1)
+    private final int[] desplazamientos;
+
+    // Vecinos de todos los nodos, concatenados
+    private final int[] destinos;
+
+    // Longitud de cada arista (paralelo a destinos)
+    private final double[] pesos;
+
+    // Coordenadas de cada nodo, usadas por la heurística de A*
+    private final int[] coordX;
+    private final int[] coordY;
+
+    // Factor (<= 1) aplicado a la distancia euclidiana en A*.
+    // Si algún peso explícito es menor que la distancia en línea recta,
+    // se reduce para que la heurística siga siendo admisible
+    private final double escalaHeuristica;
+
+    // Adyacencia inversa en el mismo formato CSR:
+    // origenes[desplazamientosInversos[i] .. desplazamientosInversos[i + 1]]
+    // son los nodos con una arista hacia i (respeta calles de un sentido)
+    private final int[] desplazamientosInversos;
+    private final int[] origenes;
+
+    // Cada cuántos nodos expandidos se avisa el avance (potencia de 2 menos 1)
+    private static final int AVISO = (1 << 12) - 1;
+
+    /**
+     * Compila las estructuras del grafo en formato CSR.
+     * Se conserva el orden de vecinos de cada lista de adyacencia,
+     * por lo que BFS y DFS recorren el grafo igual que antes.
+     *
+     * @param nodos Nodos del grafo por ID
+     * @param numeros Número denso de cada nodo en Grafo
+     * @param adyacencias Vecinos de cada número (null si está libre)
+     * @param aristas Tabla de aristas de Grafo; las aristas sin
+     *                peso explícito usan la distancia euclidiana
+     */
+    GrafoCompilado(Map<String, Nodo> nodos,
+                   Map<String, Integer> numeros,
+                   List<ConjuntoVecinos> adyacencias,
+                   TablaAristas aristas) {
+
+        int n = nodos.size();
+
+        this.ids = new String[n];
+        this.nodos = new Nodo[n];
+        this.indices = new HashMap<>(Math.max(16, (int) (n / 0.75f) + 1));
+
+        this.coordX = new int[n];
+        this.coordY = new int[n];
+
+        // Número de cada índice en Grafo y el índice de cada número
+        int[] numeroDe = new int[n];
+        this.indicePorNumero = new int[adyacencias.size()];
+        Arrays.fill(indicePorNumero, -1);
+
+        int i = 0;
+        for (Nodo nodo : nodos.values()) {
+            ids[i] = nodo.getId();
+            this.nodos[i] = nodo;
+            coordX[i] = nodo.getX();
+            coordY[i] = nodo.getY();
+            numeroDe[i] = numeros.get(nodo.getId());
+            indicePorNumero[numeroDe[i]] = i;
+            indices.put(nodo.getId(), i);
+            i++;
+        }
+
+        this.desplazamientos = new int[n + 1];
+        for (i = 0; i < n; i++) {
+            desplazamientos[i + 1] = desplazamientos[i] + adyacencias.get(numeroDe[i]).tamano();
+        }
+
+        this.destinos = new int[desplazamientos[n]];
+        this.pesos = new double[desplazamientos[n]];
+        double escala = 1.0;
+        for (i = 0; i < n; i++) {
+            int k = desplazamientos[i];
+            ConjuntoVecinos vecinos = adyacencias.get(numeroDe[i]);
+            for (int p = 0; p < vecinos.limite(); p++) {
+                int numeroVecino = vecinos.en(p);
+                if (numeroVecino < 0) continue;
+                int j = indicePorNumero[numeroVecino];
+                double peso = aristas.tamano() == 0
+                        ? Double.NaN
+                        : aristas.peso(TablaAristas.clave(numeroDe[i], numeroVecino));
+                destinos[k] = j;
+                double recta = Math.hypot(coordX[i] - coordX[j], coordY[i] - coordY[j]);
+                pesos[k] = Double.isNaN(peso) ? recta : peso;
+                if (pesos[k] < escala * recta) {
+                    escala = Math.max(0, pesos[k]) / recta;
+                }
+                k++;
+            }
+        }
+        this.escalaHeuristica = escala;
+
+        // Adyacencia inversa por conteo: primero grados de entrada, luego relleno
+        this.desplazamientosInversos = new int[n + 1];
+        for (int destino : destinos) {
+            desplazamientosInversos[destino + 1]++;
+        }
+        for (i = 0; i < n; i++) {
+            desplazamientosInversos[i + 1] += desplazamientosInversos[i];
+        }
+
+        this.origenes = new int[destinos.length];
+        int[] siguiente = Arrays.copyOf(desplazamientosInversos, n);
+        for (i = 0; i < n; i++) {
+            for (int k = desplazamientos[i]; k < desplazamientos[i + 1]; k++) {
+                origenes[siguiente[destinos[k]]++] = i;
+            }
+        }
+    }
+
+    /**
+     * Devuelve el índice denso de un nodo, o -1 si no existe.
+     */
+    public int indiceDe(String id) {
+        Integer indice = indices.get(id);
+        return indice == null ? -1 : indice;
+    }
+
+    /**
+     * Devuelve la cantidad de nodos compilados.
+     */
+    public int getNumeroNodos() {
+        return ids.length;
+    }
+
+    /**
+     * Devuelve la cantidad de aristas dirigidas compiladas.
+     */
+    public int getNumeroAristas() {
+        return destinos.length;
+    }
+
+    /**
+     * Devuelve el ID del nodo con el índice dado.
+     */
+    public String idDe(int indice) {
+        return ids[indice];
+    }
+
+    /**
+     * Devuelve el nodo con el índice dado.
+     */
+    public Nodo nodoDe(int indice) {
+        return nodos[indice];
+    }
+
+    /**
+     * Huella de 64 bits del grafo compilado (IDs en orden, aristas y pesos).
+     * Permite saber si datos precalculados y guardados en disco
+     * (por ejemplo una jerarquía de contracción) siguen siendo válidos.
+     */
+    public long huella() {
+
+        long h = 1125899906842597L;
+
+        for (String id : ids) {
+            h = 31 * h + id.hashCode();
+        }
+        for (int d : desplazamientos) {
+            h = 31 * h + d;
+        }
+        for (int d : destinos) {
+            h = 31 * h + d;
+        }
+        for (double p : pesos) {
+            h = 31 * h + Double.doubleToLongBits(p);
+        }
+
+        return h;
+    }
+
+    /**
+     * Índice denso del nodo con ese número en Grafo (-1 si está libre).
+     */
+    int indiceDeNumero(int numero) {
+        return indicePorNumero[numero];
+    }
+
+    // Acceso a los arreglos CSR para otros motores del paquete (sin copiar)
+
+    int[] desplazamientos() { return desplazamientos; }
+
+    int[] destinos() { return destinos; }
+
+    double[] pesos() { return pesos; }
+
+    /**
+     * Ejecuta BFS entre dos índices.
+     * Devuelve null si no existe ruta.
+     */
+    public ResultadoBusqueda bfs(int inicio, int fin) {
+        return bfs(inicio, fin, null);
+    }
+
+    /**
+     * BFS avisando el avance a progreso (puede ser null).
+     * Lanza CancellationException si se cancela.
+     */
+    public ResultadoBusqueda bfs(int inicio, int fin, Progreso progreso) {
+
+        long startTime = System.nanoTime();
+
+        int n = ids.length;
+        int[] cola = new int[n];
+        int[] padres = new int[n];
+        long[] visitados = new long[(n + 63) >>> 6];
+
+        int cabeza = 0;
+        int ultimo = 0;
+
+        // Tamaño máximo de la cola
+        int frontera = 1;
+
+        cola[ultimo++] = inicio;
+        marcar(visitados, inicio);
+        padres[inicio] = -1;
+
+        while (cabeza < ultimo) {
+
+            int actual = cola[cabeza++];
+            if ((cabeza & AVISO) == 0 && progreso != null) progreso.avanzar(cabeza);
+
+            if (actual == fin) {
+                long tiempo = System.nanoTime() - startTime;
+                return conContadores(
+                        construirResultado(padres, cola, ultimo, cola, cabeza, true, fin, tiempo),
+                        sumarGrados(desplazamientos, cola, cabeza - 1), frontera);
+            }
+
+            for (int k = desplazamientos[actual]; k < desplazamientos[actual + 1]; k++) {
+                int vecino = destinos[k];
+                if (!marcado(visitados, vecino)) {
+                    marcar(visitados, vecino);
+                    padres[vecino] = actual;
+                    cola[ultimo++] = vecino;
+                }
+            }
+
+            if (ultimo - cabeza > frontera) frontera = ultimo - cabeza;
+        }
+
+        return null;
+    }
+
+    /**
+     * Ejecuta BFS bidireccional entre dos índices.
+     * Devuelve null si no existe ruta.
+     *
+     * Avanza por niveles desde el inicio (aristas normales) y desde
+     * el fin (aristas inversas), expandiendo siempre la frontera más
+     * pequeña. Cuando un nivel completo toca la otra búsqueda se
+     * elige el punto de encuentro con menor número de saltos,
+     * por lo que la ruta sigue siendo la más corta.
+     */
+    public ResultadoBusqueda bfsBidireccional(int inicio, int fin) {
+        return bfsBidireccional(inicio, fin, null);
+    }
+
+    /**
+     * BFS bidireccional avisando el avance a progreso (puede ser null).
+     * Lanza CancellationException si se cancela.
+     */
+    public ResultadoBusqueda bfsBidireccional(int inicio, int fin, Progreso progreso) {
+
+        long startTime = System.nanoTime();
+
+        int n = ids.length;
+
+        // Búsqueda hacia adelante (desde inicio)
+        int[] colaAdelante = new int[n];
+        int[] padresAdelante = new int[n];
+        int[] distAdelante = new int[n];
+        long[] visitadosAdelante = new long[(n + 63) >>> 6];
+
+        // Búsqueda hacia atrás (desde fin); "padre" es el siguiente nodo hacia fin
+        int[] colaAtras = new int[n];
+        int[] padresAtras = new int[n];
+        int[] distAtras = new int[n];
+        long[] visitadosAtras = new long[(n + 63) >>> 6];
+
+        // Nodos expandidos por ambas búsquedas, en orden
+        int[] orden = new int[2 * n];
+        int cantidad = 0;
+
+        int cabezaAdelante = 0, ultimoAdelante = 0;
+        int cabezaAtras = 0, ultimoAtras = 0;
+
+        colaAdelante[ultimoAdelante++] = inicio;
+        marcar(visitadosAdelante, inicio);
+        padresAdelante[inicio] = -1;
+
+        colaAtras[ultimoAtras++] = fin;
+        marcar(visitadosAtras, fin);
+        padresAtras[fin] = -1;
+
+        int encuentro = -1;
+        int mejor = Integer.MAX_VALUE;
+
+        // Suma de ambas colas, medida al terminar cada nivel
+        int frontera = 2;
+
+        if (inicio == fin) {
+            encuentro = inicio;
+            orden[cantidad++] = inicio;
+        }
+
+        while (encuentro < 0
+                && cabezaAdelante < ultimoAdelante
+                && cabezaAtras < ultimoAtras) {
+
+            boolean haciaAdelante =
+                    ultimoAdelante - cabezaAdelante <= ultimoAtras - cabezaAtras;
+
+            if (haciaAdelante) {
+
+                // Expande un nivel completo hacia adelante
+                int limiteNivel = ultimoAdelante;
+                while (cabezaAdelante < limiteNivel) {
+
+                    int actual = colaAdelante[cabezaAdelante++];
+                    orden[cantidad++] = actual;
+                    if ((cantidad & AVISO) == 0 && progreso != null) progreso.avanzar(cantidad);
+
+                    for (int k = desplazamientos[actual]; k < desplazamientos[actual + 1]; k++) {
+                        int vecino = destinos[k];
+                        if (marcado(visitadosAdelante, vecino)) continue;
+
+                        marcar(visitadosAdelante, vecino);
+                        padresAdelante[vecino] = actual;
+                        distAdelante[vecino] = distAdelante[actual] + 1;
+                        colaAdelante[ultimoAdelante++] = vecino;
+
+                        if (marcado(visitadosAtras, vecino)
+                                && distAdelante[vecino] + distAtras[vecino] < mejor) {
+                            mejor = distAdelante[vecino] + distAtras[vecino];
+                            encuentro = vecino;
+                        }
+                    }
+                }
+
+            } else {
+
+                // Expande un nivel completo hacia atrás
+                int limiteNivel = ultimoAtras;
+                while (cabezaAtras < limiteNivel) {
+
+                    int actual = colaAtras[cabezaAtras++];
+                    orden[cantidad++] = actual;
+                    if ((cantidad & AVISO) == 0 && progreso != null) progreso.avanzar(cantidad);
+
+                    for (int k = desplazamientosInversos[actual]; k < desplazamientosInversos[actual + 1]; k++) {
+                        int vecino = origenes[k];
+                        if (marcado(visitadosAtras, vecino)) continue;
+
+                        marcar(visitadosAtras, vecino);
+                        padresAtras[vecino] = actual;
+                        distAtras[vecino] = distAtras[actual] + 1;
+                        colaAtras[ultimoAtras++] = vecino;
+
+                        if (marcado(visitadosAdelante, vecino)
+                                && distAdelante[vecino] + distAtras[vecino] < mejor) {
+                            mejor = distAdelante[vecino] + distAtras[vecino];
+                            encuentro = vecino;
+                        }
+                    }
+                }
+            }
+
+            frontera = Math.max(frontera,
+                    ultimoAdelante - cabezaAdelante + ultimoAtras - cabezaAtras);
+        }
+
+        if (encuentro < 0) return null;
+
+        long tiempo = System.nanoTime() - startTime;
+
+        // Une la mitad hacia adelante con la mitad hacia atrás
+        List<Nodo> ruta = reconstruirCamino(padresAdelante, encuentro);
+        Map<String, String> mapaPadres = new HashMap<>();
+        for (int i = 0; i < ultimoAdelante; i++) {
+            int nodo = colaAdelante[i];
+            int padre = padresAdelante[nodo];
+            mapaPadres.put(ids[nodo], padre < 0 ? null : ids[padre]);
+        }
+        for (int actual = encuentro; padresAtras[actual] >= 0; actual = padresAtras[actual]) {
+            int siguienteNodo = padresAtras[actual];
+            ruta.add(nodos[siguienteNodo]);
+            mapaPadres.put(ids[siguienteNodo], ids[actual]);
+        }
+
+        List<Nodo> visitadosOrden = new ArrayList<>(cantidad);
+        for (int i = 0; i < cantidad; i++) {
+            visitadosOrden.add(nodos[orden[i]]);
+        }
+
+        // Cada nodo expandido revisó todas sus aristas (hacia adelante o inversas)
+        long aristas = sumarGrados(desplazamientos, colaAdelante, cabezaAdelante)
+                + sumarGrados(desplazamientosInversos, colaAtras, cabezaAtras);
+
+        return conContadores(new ResultadoBusqueda(ruta, visitadosOrden, mapaPadres, tiempo),
+                aristas, frontera);
+    }
+
+    /**
+     * Ejecuta Dijkstra entre dos índices usando los pesos de las aristas.
+     * Devuelve null si no existe ruta.
+     *
+     * La cola de prioridad es un MonticuloIndexado sobre índices,
+     * con distancias en un double[]; los nodos se registran como
+     * visitados en el orden en que se fijan (extraen del montículo).
+     */
+    public ResultadoBusqueda dijkstra(int inicio, int fin) {
+        return dijkstra(inicio, fin, null);
+    }
+
+    /**
+     * Dijkstra avisando el avance a progreso (puede ser null).
+     * Lanza CancellationException si se cancela.
+     */
+    public ResultadoBusqueda dijkstra(int inicio, int fin, Progreso progreso) {
+
+        long startTime = System.nanoTime();
+
+        int n = ids.length;
+        double[] distancias = new double[n];
+        int[] padres = new int[n];
+        long[] alcanzados = new long[(n + 63) >>> 6];
+        long[] fijados = new long[(n + 63) >>> 6];
+        MonticuloIndexado monticulo = new MonticuloIndexado(n);
+
+        // Nodos alcanzados (con padre) y nodos fijados, en orden
+        int[] descubiertos = new int[n];
+        int totalDescubiertos = 0;
+        int[] orden = new int[n];
+        int cantidad = 0;
+
+        // Tamaño máximo del montículo
+        int frontera = 1;
+
+        distancias[inicio] = 0;
+        padres[inicio] = -1;
+        marcar(alcanzados, inicio);
+        descubiertos[totalDescubiertos++] = inicio;
+        monticulo.insertarODisminuir(inicio, 0);
+
+        while (!monticulo.estaVacio()) {
+
+            int actual = monticulo.extraerMinimo();
+            marcar(fijados, actual);
+            orden[cantidad++] = actual;
+            if ((cantidad & AVISO) == 0 && progreso != null) progreso.avanzar(cantidad);
+
+            if (actual == fin) {
+                long tiempo = System.nanoTime() - startTime;
+                return conContadores(
+                        construirResultado(padres, descubiertos, totalDescubiertos,
+                                orden, cantidad, true, fin, tiempo),
+                        sumarGrados(desplazamientos, orden, cantidad - 1), frontera);
+            }
+
+            double base = distancias[actual];
+
+            for (int k = desplazamientos[actual]; k < desplazamientos[actual + 1]; k++) {
+
+                int vecino = destinos[k];
+                if (marcado(fijados, vecino)) continue;
+
+                double nueva = base + pesos[k];
+
+                if (!marcado(alcanzados, vecino)) {
+                    marcar(alcanzados, vecino);
+                    descubiertos[totalDescubiertos++] = vecino;
+                } else if (nueva >= distancias[vecino]) {
+                    continue;
+                }
+
+                distancias[vecino] = nueva;
+                padres[vecino] = actual;
+                monticulo.insertarODisminuir(vecino, nueva);
+            }
+
+            if (monticulo.tamano() > frontera) frontera = monticulo.tamano();
+        }
+
+        return null;
+    }
+
+    /**
+     * Ejecuta A* entre dos índices.
+     * Devuelve null si no existe ruta.
+     *
+     * Igual que Dijkstra, pero la prioridad de cada nodo es
+     * distancia acumulada + distancia en línea recta hasta fin.
+     * La heurística es admisible y consistente, así que la ruta
+     * tiene la misma longitud que la de Dijkstra expandiendo
+     * solo los nodos que van en dirección al destino.
+     */
+    public ResultadoBusqueda aEstrella(int inicio, int fin) {
+        return aEstrella(inicio, fin, null);
+    }
+
+    /**
+     * A* avisando el avance a progreso (puede ser null).
+     * Lanza CancellationException si se cancela.
+     */
+    public ResultadoBusqueda aEstrella(int inicio, int fin, Progreso progreso) {
+
+        long startTime = System.nanoTime();
+
+        int n = ids.length;
+        double[] distancias = new double[n];
+        int[] padres = new int[n];
+        long[] alcanzados = new long[(n + 63) >>> 6];
+        long[] fijados = new long[(n + 63) >>> 6];
+        MonticuloIndexado monticulo = new MonticuloIndexado(n);
+
+        // Nodos alcanzados (con padre) y nodos expandidos, en orden
+        int[] descubiertos = new int[n];
+        int totalDescubiertos = 0;
+        int[] orden = new int[n];
+        int cantidad = 0;
+
+        // Tamaño máximo del montículo
+        int frontera = 1;
+
+        int finX = coordX[fin];
+        int finY = coordY[fin];
+
+        distancias[inicio] = 0;
+        padres[inicio] = -1;
+        marcar(alcanzados, inicio);
+        descubiertos[totalDescubiertos++] = inicio;
+        monticulo.insertarODisminuir(inicio,
+                escalaHeuristica * Math.hypot(coordX[inicio] - finX, coordY[inicio] - finY));
+
+        while (!monticulo.estaVacio()) {
+
+            int actual = monticulo.extraerMinimo();
+            marcar(fijados, actual);
+            orden[cantidad++] = actual;
+            if ((cantidad & AVISO) == 0 && progreso != null) progreso.avanzar(cantidad);
+
+            if (actual == fin) {
+                long tiempo = System.nanoTime() - startTime;
+                return conContadores(
+                        construirResultado(padres, descubiertos, totalDescubiertos,
+                                orden, cantidad, true, fin, tiempo),
+                        sumarGrados(desplazamientos, orden, cantidad - 1), frontera);
+            }
+
+            double base = distancias[actual];
+
+            for (int k = desplazamientos[actual]; k < desplazamientos[actual + 1]; k++) {
+
+                int vecino = destinos[k];
+                if (marcado(fijados, vecino)) continue;
+
+                double nueva = base + pesos[k];
+
+                if (!marcado(alcanzados, vecino)) {
+                    marcar(alcanzados, vecino);
+                    descubiertos[totalDescubiertos++] = vecino;
+                } else if (nueva >= distancias[vecino]) {
+                    continue;
+                }
+
+                distancias[vecino] = nueva;
+                padres[vecino] = actual;
+                monticulo.insertarODisminuir(vecino, nueva
+                        + escalaHeuristica * Math.hypot(coordX[vecino] - finX, coordY[vecino] - finY));
+            }
+
+            if (monticulo.tamano() > frontera) frontera = monticulo.tamano();
+        }
+
+        return null;
+    }
+
+    /**
+     * Ejecuta DFS entre dos índices de forma iterativa.
+     * Devuelve null si no existe ruta.
+     *
+     * Usa una pila explícita de marcos (nodo, siguiente vecino)
+     * guardada en un int[], por lo que no depende de la pila del
+     * hilo y soporta corredores de millones de nodos.
+     * El orden de visita y los padres coinciden con la versión recursiva.
+     */
+    public ResultadoBusqueda dfs(int inicio, int fin) {
+        return dfs(inicio, fin, null);
+    }
+
+    /**
+     * DFS iterativo avisando el avance a progreso (puede ser null).
+     * Lanza CancellationException si se cancela.
+     */
+    public ResultadoBusqueda dfs(int inicio, int fin, Progreso progreso) {
+
+        long startTime = System.nanoTime();
+
+        int n = ids.length;
+        int[] padres = new int[n];
+        long[] visitados = new long[(n + 63) >>> 6];
+
+        // Nodos en el orden en que fueron visitados
+        int[] orden = new int[n];
+        int cantidad = 0;
+
+        // Marcos de la pila: [nodo, índice del siguiente vecino a revisar]
+        // Cada nodo se apila una sola vez, así que 2n posiciones bastan
+        int[] pila = new int[2 * n];
+        int tope = 0;
+
+        // Contadores de trabajo (la frontera es la cantidad de marcos)
+        long aristas = 0;
+        int frontera = 1;
+
+        padres[inicio] = -1;
+        marcar(visitados, inicio);
+        orden[cantidad++] = inicio;
+
+        boolean encontrado = inicio == fin;
+
+        if (!encontrado) {
+            pila[tope++] = inicio;
+            pila[tope++] = desplazamientos[inicio];
+        }
+
+        while (tope > 0 && !encontrado) {
+
+            int actual = pila[tope - 2];
+            int k = pila[tope - 1];
+            int limite = desplazamientos[actual + 1];
+
+            while (k < limite && marcado(visitados, destinos[k])) {
+                k++;
+            }
+            aristas += k - pila[tope - 1];
+
+            // Sin vecinos pendientes: se retrocede
+            if (k == limite) {
+                tope -= 2;
+                continue;
+            }
+
+            aristas++;
+
+            int vecino = destinos[k];
+            pila[tope - 1] = k + 1;
+
+            padres[vecino] = actual;
+            marcar(visitados, vecino);
+            orden[cantidad++] = vecino;
+            if ((cantidad & AVISO) == 0 && progreso != null) progreso.avanzar(cantidad);
+
+            if (vecino == fin) {
+                encontrado = true;
+                if (tope / 2 + 1 > frontera) frontera = tope / 2 + 1;
+            } else {
+                pila[tope++] = vecino;
+                pila[tope++] = desplazamientos[vecino];
+                if (tope > 2 * frontera) frontera = tope / 2;
+            }
+        }
+
+        if (!encontrado) return null;
+
+        long tiempo = System.nanoTime() - startTime;
+        return conContadores(
+                construirResultado(padres, orden, cantidad, orden, cantidad, false, fin, tiempo),
+                aristas, frontera);
+    }
+
+    /**
+     * Ejecuta DFS entre dos índices usando recursión.
+     * Se conserva como alternativa a la versión iterativa;
+     * en grafos con ramas muy largas puede provocar StackOverflowError.
+     * Devuelve null si no existe ruta.
+     */
+    public ResultadoBusqueda dfsRecursivo(int inicio, int fin) {
+        return dfsRecursivo(inicio, fin, null);
+    }
+
+    /**
+     * DFS recursivo avisando el avance a progreso (puede ser null).
+     * Lanza CancellationException si se cancela.
+     */
+    public ResultadoBusqueda dfsRecursivo(int inicio, int fin, Progreso progreso) {
+
+        long startTime = System.nanoTime();
+
+        int n = ids.length;
+        int[] padres = new int[n];
+        long[] visitados = new long[(n + 63) >>> 6];
+
+        // Nodos en el orden en que fueron visitados
+        int[] orden = new int[n];
+
+        // [0] nodos visitados, [1] aristas examinadas, [2] profundidad máxima
+        int[] contadores = new int[3];
+
+        padres[inicio] = -1;
+
+        if (!visitarRecursivo(inicio, fin, visitados, padres, orden, contadores, 1, progreso))
+            return null;
+
+        long tiempo = System.nanoTime() - startTime;
+        return conContadores(
+                construirResultado(padres, orden, contadores[0], orden, contadores[0], false, fin, tiempo),
+                contadores[1], contadores[2]);
+    }
+
+    /**
+     * Método recursivo utilizado por DFS.
+     */
+    private boolean visitarRecursivo(
+        int actual,
+        int destino,
+        long[] visitados,
+        int[] padres,
+        int[] orden,
+        int[] contadores,
+        int profundidad,
+        Progreso progreso) {
+
+        marcar(visitados, actual);
+        orden[contadores[0]++] = actual;
+        if ((contadores[0] & AVISO) == 0 && progreso != null) progreso.avanzar(contadores[0]);
+        if (profundidad > contadores[2]) contadores[2] = profundidad;
+
+        if (actual == destino) {
+            return true;
+        }
+
+        for (int k = desplazamientos[actual]; k < desplazamientos[actual + 1]; k++) {
+
+            int vecino = destinos[k];
+            contadores[1]++;
+
+            if (!marcado(visitados, vecino)) {
+
+                padres[vecino] = actual;
+
+                if (visitarRecursivo(vecino, destino, visitados, padres, orden, contadores,
+                        profundidad + 1, progreso)) {
+                    return true;
+                }
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Traduce los arreglos primitivos al ResultadoBusqueda
+     * que esperan el controlador y la vista.
+     *
+     * @param padres Padre de cada nodo descubierto (-1 para el inicio)
+     * @param descubiertos Nodos que tienen padre asignado
+     * @param totalDescubiertos Cantidad válida en descubiertos
+     * @param orden Nodos en orden de visita
+     * @param totalOrden Cantidad válida en orden
+     * @param padreInicio Si el inicio se registra con padre null (BFS)
+     * @param fin Nodo destino
+     * @param tiempo Tiempo de ejecución en nanosegundos
+     */
+    private ResultadoBusqueda construirResultado(
+            int[] padres,
+            int[] descubiertos, int totalDescubiertos,
+            int[] orden, int totalOrden,
+            boolean padreInicio,
+            int fin,
+            long tiempo) {
+
+        List<Nodo> visitadosOrden = new ArrayList<>(totalOrden);
+        for (int i = 0; i < totalOrden; i++) {
+            visitadosOrden.add(nodos[orden[i]]);
+        }
+
+        Map<String, String> mapaPadres =
+                new HashMap<>(Math.max(16, (int) (totalDescubiertos / 0.75f) + 1));
+        for (int i = 0; i < totalDescubiertos; i++) {
+            int nodo = descubiertos[i];
+            int padre = padres[nodo];
+            if (padre < 0 && !padreInicio) continue;
+            mapaPadres.put(ids[nodo], padre < 0 ? null : ids[padre]);
+        }
+
+        return new ResultadoBusqueda(
+                reconstruirCamino(padres, fin),
+                visitadosOrden,
+                mapaPadres,
+                tiempo
+        );
+    }
+
+    /**
+     * Suma las aristas salientes de los primeros total nodos de la lista.
+     * Se calcula después de medir el tiempo, con los nodos que la
+     * búsqueda expandió completos, para no agregar trabajo al recorrido.
+     */
+    private static long sumarGrados(int[] desplazamientos, int[] nodos, int total) {
+        long suma = 0;
+        for (int i = 0; i < total; i++) {
+            suma += desplazamientos[nodos[i] + 1] - desplazamientos[nodos[i]];
+        }
+        return suma;
+    }
+
+    /**
+     * Completa los contadores de trabajo del resultado.
+     */
+    private static ResultadoBusqueda conContadores(ResultadoBusqueda resultado,
+                                                   long aristas, int frontera) {
+        resultado.aristasExaminadas = aristas;
+        resultado.fronteraMaxima = frontera;
+        return resultado;
+    }
+
+    /**
+     * Reconstruye el camino desde el nodo final
+     * utilizando el arreglo de padres.
+     */
+    private List<Nodo> reconstruirCamino(int[] padres, int fin) {
+
+        int largo = 0;
+        for (int actual = fin; actual >= 0; actual = padres[actual]) {
+            largo++;
+        }
+
+        Nodo[] camino = new Nodo[largo];
+        for (int actual = fin; actual >= 0; actual = padres[actual]) {
+            camino[--largo] = nodos[actual];
+        }
+
+        return new ArrayList<>(Arrays.asList(camino));
+    }
+
+    private static boolean marcado(long[] bits, int i) {
+        return (bits[i >>> 6] & (1L << i)) != 0;
+    }
+
+    private static void marcar(long[] bits, int i) {
+        bits[i >>> 6] |= 1L << i;
+    }
+}
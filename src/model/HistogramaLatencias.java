@@ -0,0 +1,185 @@
+package model;
+
+import java.util.Arrays;
+
+/**
+ * Clase HistogramaLatencias
+ *
+ * Histograma de tiempos en nanosegundos con rango dinámico amplio
+ * (al estilo de HdrHistogram): memoria fija sin importar cuántas
+ * mediciones se registren, y error relativo menor a 1/128 (< 0,8 %).
+ *
+ * Los valores menores a 256 ns tienen una cubeta cada uno. Desde ahí
+ * cada potencia de dos [2^k, 2^(k+1)) se divide en 128 cubetas del
+ * mismo ancho, hasta 2^43 ns (unas 2,4 horas); los valores mayores
+ * se cuentan en la última cubeta.
+ *
+ * El mínimo, el máximo, la media y la desviación son exactos (se
+ * acumulan aparte); los percentiles se responden con el punto medio
+ * de la cubeta correspondiente.
+ *
+ * Los métodos están sincronizados: el hilo de búsquedas registra y
+ * el hilo de eventos lee para dibujar.
+ */
+public final class HistogramaLatencias {
+
+    // Cubetas de ancho 1 al comienzo (valores 0..255)
+    private static final int LINEALES = 256;
+
+    // Cubetas por cada potencia de dos a partir de LINEALES
+    private static final int POR_BANDA = LINEALES / 2;
+
+    // Cantidad de bandas de POR_BANDA cubetas (hasta 2^43 ns)
+    private static final int BANDAS = 35;
+
+    private static final int CUBETAS = LINEALES + BANDAS * POR_BANDA;
+
+    // Valores críticos de la t de Student (95 %, dos colas) para
+    // 1..30 grados de libertad; con más se usa la normal (1,96)
+    private static final double[] T_95 = {
+            12.706, 4.303, 3.182, 2.776, 2.571, 2.447, 2.365, 2.306, 2.262, 2.228,
+            2.201, 2.179, 2.160, 2.145, 2.131, 2.120, 2.110, 2.101, 2.093, 2.086,
+            2.080, 2.074, 2.069, 2.064, 2.060, 2.056, 2.052, 2.048, 2.045, 2.042
+    };
+
+    private final long[] cuentas = new long[CUBETAS];
+
+    private long cantidad;
+    private long minimo = Long.MAX_VALUE;
+    private long maximo;
+    private double suma;
+    private double sumaCuadrados;
+
+    /**
+     * Registra una medición (los negativos cuentan como 0).
+     */
+    public synchronized void registrar(long nanos) {
+
+        long valor = Math.max(0, nanos);
+
+        cuentas[cubeta(valor)]++;
+        cantidad++;
+        minimo = Math.min(minimo, valor);
+        maximo = Math.max(maximo, valor);
+        suma += valor;
+        sumaCuadrados += (double) valor * valor;
+    }
+
+    /**
+     * Descarta todas las mediciones.
+     */
+    public synchronized void reiniciar() {
+        Arrays.fill(cuentas, 0);
+        cantidad = 0;
+        minimo = Long.MAX_VALUE;
+        maximo = 0;
+        suma = 0;
+        sumaCuadrados = 0;
+    }
+
+    /**
+     * Cantidad de mediciones registradas.
+     */
+    public synchronized long getCantidad() {
+        return cantidad;
+    }
+
+    /**
+     * Menor medición en nanosegundos (0 si no hay ninguna).
+     */
+    public synchronized long getMinimo() {
+        return cantidad == 0 ? 0 : minimo;
+    }
+
+    /**
+     * Mayor medición en nanosegundos.
+     */
+    public synchronized long getMaximo() {
+        return maximo;
+    }
+
+    /**
+     * Media en nanosegundos.
+     */
+    public synchronized double getMedia() {
+        return cantidad == 0 ? 0 : suma / cantidad;
+    }
+
+    /**
+     * Desviación estándar muestral en nanosegundos (0 con menos de dos mediciones).
+     */
+    public synchronized double getDesviacion() {
+
+        if (cantidad < 2) return 0;
+
+        double media = suma / cantidad;
+        double varianza = (sumaCuadrados - cantidad * media * media) / (cantidad - 1);
+        return Math.sqrt(Math.max(0, varianza));
+    }
+
+    /**
+     * Semiancho del intervalo de confianza del 95 % para la media, en
+     * nanosegundos: la media está en [media - x, media + x]. Usa la t
+     * de Student para pocas mediciones (0 con menos de dos).
+     */
+    public synchronized double getIntervaloConfianza() {
+
+        if (cantidad < 2) return 0;
+
+        long libertad = cantidad - 1;
+        double t = libertad <= T_95.length ? T_95[(int) libertad - 1] : 1.96;
+
+        return t * getDesviacion() / Math.sqrt(cantidad);
+    }
+
+    /**
+     * Percentil p (0..100) en nanosegundos, con el método del rango
+     * más cercano (0 si no hay mediciones). El percentil 0 y el 100
+     * son el mínimo y el máximo exactos.
+     */
+    public synchronized long percentil(double p) {
+
+        if (cantidad == 0) return 0;
+        if (p <= 0) return minimo;
+        if (p >= 100) return maximo;
+
+        long rango = Math.max(1, (long) Math.ceil(p / 100.0 * cantidad));
+        long acumulado = 0;
+
+        for (int i = 0; i < CUBETAS; i++) {
+            acumulado += cuentas[i];
+            if (acumulado >= rango) {
+                return Math.min(maximo, Math.max(minimo, puntoMedio(i)));
+            }
+        }
+
+        return maximo;
+    }
+
+    /**
+     * Cubeta del valor (no negativo).
+     */
+    private static int cubeta(long valor) {
+
+        if (valor < LINEALES) return (int) valor;
+
+        // Banda b >= 1 cubre [2^(b+7), 2^(b+8)) con cubetas de ancho 2^b
+        int banda = 63 - Long.numberOfLeadingZeros(valor) - 7;
+        if (banda > BANDAS) return CUBETAS - 1;
+
+        return LINEALES + (banda - 1) * POR_BANDA + (int) ((valor >> banda) - POR_BANDA);
+    }
+
+    /**
+     * Valor representativo de la cubeta (su punto medio).
+     */
+    private static long puntoMedio(int indice) {
+
+        if (indice < LINEALES) return indice;
+
+        int banda = (indice - LINEALES) / POR_BANDA + 1;
+        long inferior = (long) ((indice - LINEALES) % POR_BANDA + POR_BANDA) << banda;
+
+        return inferior + (1L << banda) / 2;
+    }
+}
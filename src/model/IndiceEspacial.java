@@ -0,0 +1,128 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Clase IndiceEspacial
+ *
+ * Rejilla uniforme sobre las coordenadas de los nodos.
+ *
+ * El plano se divide en celdas cuadradas de lado fijo y cada celda
+ * guarda los nodos que caen en ella. Así las consultas solo revisan
+ * las celdas que tocan la zona buscada en lugar de todo el grafo:
+ * - nodo más cercano dentro de un radio (selección con el mouse)
+ * - nodos dentro de un rectángulo (validar que una conexión
+ *   horizontal o vertical no salte sobre otro nodo)
+ *
+ * Grafo lo mantiene al agregar y eliminar nodos.
+ */
+public final class IndiceEspacial {
+
+    // Lado de cada celda en píxeles del mapa
+    private final int lado;
+
+    // Nodos por celda; clave: (columna << 32) | fila
+    private final Map<Long, List<Nodo>> celdas = new HashMap<>();
+
+    /**
+     * @param lado Lado de cada celda en píxeles
+     */
+    public IndiceEspacial(int lado) {
+        this.lado = lado;
+    }
+
+    /**
+     * Registra un nodo en su celda.
+     */
+    public void agregar(Nodo nodo) {
+        celdas.computeIfAbsent(clave(celda(nodo.getX()), celda(nodo.getY())),
+                k -> new ArrayList<>(4)).add(nodo);
+    }
+
+    /**
+     * Quita un nodo de su celda.
+     */
+    public void quitar(Nodo nodo) {
+
+        Long clave = clave(celda(nodo.getX()), celda(nodo.getY()));
+        List<Nodo> lista = celdas.get(clave);
+        if (lista == null) return;
+
+        lista.remove(nodo);
+        if (lista.isEmpty()) celdas.remove(clave);
+    }
+
+    /**
+     * Elimina todos los nodos del índice.
+     */
+    public void limpiar() {
+        celdas.clear();
+    }
+
+    /**
+     * Devuelve el nodo más cercano a (x, y) a una distancia
+     * menor que radio, o null si no hay ninguno.
+     */
+    public Nodo masCercano(int x, int y, double radio) {
+
+        int r = (int) Math.ceil(radio);
+
+        Nodo mejor = null;
+        double mejorDistancia = radio;
+
+        for (int cx = celda(x - r); cx <= celda(x + r); cx++) {
+            for (int cy = celda(y - r); cy <= celda(y + r); cy++) {
+
+                List<Nodo> lista = celdas.get(clave(cx, cy));
+                if (lista == null) continue;
+
+                for (Nodo n : lista) {
+                    double d = n.getPoint().distance(x, y);
+                    if (d < mejorDistancia) {
+                        mejorDistancia = d;
+                        mejor = n;
+                    }
+                }
+            }
+        }
+
+        return mejor;
+    }
+
+    /**
+     * Indica si existe algún nodo estrictamente dentro del rectángulo
+     * (minX, maxX) x (minY, maxY), sin contar los dos nodos excluidos.
+     */
+    public boolean hayNodoEn(int minX, int maxX, int minY, int maxY,
+                             Nodo excluirA, Nodo excluirB) {
+
+        for (int cx = celda(minX); cx <= celda(maxX); cx++) {
+            for (int cy = celda(minY); cy <= celda(maxY); cy++) {
+
+                List<Nodo> lista = celdas.get(clave(cx, cy));
+                if (lista == null) continue;
+
+                for (Nodo n : lista) {
+                    if (n == excluirA || n == excluirB) continue;
+                    if (n.getX() > minX && n.getX() < maxX
+                            && n.getY() > minY && n.getY() < maxY) {
+                        return true;
+                    }
+                }
+            }
+        }
+
+        return false;
+    }
+
+    private int celda(int coordenada) {
+        return Math.floorDiv(coordenada, lado);
+    }
+
+    private static Long clave(int columna, int fila) {
+        return ((long) columna << 32) | (fila & 0xFFFFFFFFL);
+    }
+}
@@ -0,0 +1,430 @@
+package model;
+
+import java.io.PrintWriter;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.IntStream;
+
+/**
+ * Clase InstantaneaGrafo
+ *
+ * Foto inmutable de una versión del grafo. Todo lo que solo lee el
+ * grafo (búsquedas, lotes, dibujo del mapa, guardado) trabaja sobre
+ * una instantánea, así que puede hacerlo desde cualquier hilo y sin
+ * bloqueos mientras el grafo se sigue editando.
+ *
+ * Contiene:
+ * - La versión del grafo que representa
+ * - Su vista compilada (GrafoCompilado: nodos y adyacencias CSR)
+ * - Las aristas visibles con su tipo y peso explícito, en arreglos
+ *   paralelos sobre los índices de la vista compilada
+ * - La jerarquía de contracción, si estaba preparada
+ * - La caché de resultados del grafo (guarda por versión)
+ * - La tabla de distancias BFS del último origen consultado
+ *
+ * Grafo genera como máximo una instantánea por versión y la comparte
+ * entre todos los lectores; las ediciones posteriores no la afectan
+ * porque Grafo arma una nueva en lugar de modificar la existente.
+ */
+public final class InstantaneaGrafo {
+
+    private final long version;
+    private final GrafoCompilado compilado;
+    private final JerarquiaContraccion jerarquia;
+    private final boolean dfsRecursivo;
+    private final CacheRutas cache;
+
+    // Aristas visibles: extremos (índices de compilado), banderas de
+    // TablaAristas y peso explícito (NaN si no tiene), en el orden
+    // de la tabla de aristas
+    private final int[] origenes;
+    private final int[] destinos;
+    private final byte[] banderas;
+    private final double[] pesos;
+
+    // Tabla de distancias compartida con Grafo (la vacía al editar)
+    private final AtomicReference<TablaDistancias> tabla;
+
+    /**
+     * Copia las aristas visibles de la tabla de Grafo.
+     * Debe llamarse con el lock del grafo tomado (desde Grafo.getInstantanea).
+     */
+    InstantaneaGrafo(long version, GrafoCompilado compilado, TablaAristas aristas,
+                     JerarquiaContraccion jerarquia, boolean dfsRecursivo,
+                     CacheRutas cache, AtomicReference<TablaDistancias> tabla) {
+
+        this.version = version;
+        this.compilado = compilado;
+        this.jerarquia = jerarquia;
+        this.dfsRecursivo = dfsRecursivo;
+        this.cache = cache;
+        this.tabla = tabla;
+
+        int m = 0;
+        for (int i = 0; i < aristas.capacidad(); i++) {
+            if ((aristas.banderasEn(i) & TablaAristas.VISIBLE) != 0) m++;
+        }
+
+        this.origenes = new int[m];
+        this.destinos = new int[m];
+        this.banderas = new byte[m];
+        this.pesos = new double[m];
+
+        int k = 0;
+        for (int i = 0; i < aristas.capacidad(); i++) {
+
+            byte b = aristas.banderasEn(i);
+            if ((b & TablaAristas.VISIBLE) == 0) continue;
+
+            long clave = aristas.claveEn(i);
+            origenes[k] = compilado.indiceDeNumero(TablaAristas.origen(clave));
+            destinos[k] = compilado.indiceDeNumero(TablaAristas.destino(clave));
+            banderas[k] = b;
+            pesos[k] = (b & TablaAristas.CON_PESO) != 0 ? aristas.pesoEn(i) : Double.NaN;
+            k++;
+        }
+    }
+
+    /**
+     * Misma instantánea con otra jerarquía (comparte todo lo demás).
+     */
+    private InstantaneaGrafo(InstantaneaGrafo base, JerarquiaContraccion jerarquia) {
+        this.version = base.version;
+        this.compilado = base.compilado;
+        this.jerarquia = jerarquia;
+        this.dfsRecursivo = base.dfsRecursivo;
+        this.cache = base.cache;
+        this.tabla = base.tabla;
+        this.origenes = base.origenes;
+        this.destinos = base.destinos;
+        this.banderas = base.banderas;
+        this.pesos = base.pesos;
+    }
+
+    /**
+     * Versión del grafo al tomar la instantánea.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Vista compilada de esta versión.
+     */
+    public GrafoCompilado getCompilado() {
+        return compilado;
+    }
+
+    /**
+     * Jerarquía de contracción de esta versión, o null si no está preparada.
+     */
+    public JerarquiaContraccion getJerarquia() {
+        return jerarquia;
+    }
+
+    /**
+     * Devuelve una instantánea con la jerarquía de contracción preparada
+     * (ver JerarquiaContraccion.preparar). Puede tardar: conviene llamarlo
+     * fuera del hilo de eventos y luego pasarla a Grafo.usarJerarquia.
+     *
+     * @param rutaArchivo Archivo de la jerarquía (puede ser null)
+     */
+    public InstantaneaGrafo conJerarquia(String rutaArchivo) {
+
+        if (jerarquia != null) return this;
+
+        return new InstantaneaGrafo(this, JerarquiaContraccion.preparar(rutaArchivo, compilado));
+    }
+
+    /**
+     * Cantidad de nodos.
+     */
+    public int getNumeroNodos() {
+        return compilado.getNumeroNodos();
+    }
+
+    /**
+     * Nodo con el índice dado (0..getNumeroNodos() - 1).
+     */
+    public Nodo getNodo(int indice) {
+        return compilado.nodoDe(indice);
+    }
+
+    /**
+     * Nodo con ese ID, o null si no existe en esta versión.
+     */
+    public Nodo getNodo(String id) {
+        int indice = compilado.indiceDe(id);
+        return indice < 0 ? null : compilado.nodoDe(indice);
+    }
+
+    /**
+     * Cantidad de aristas visibles (las bidireccionales cuentan una vez).
+     */
+    public int getNumeroAristasVisibles() {
+        return origenes.length;
+    }
+
+    /**
+     * Índice del nodo origen de la arista visible k.
+     */
+    public int origenArista(int k) {
+        return origenes[k];
+    }
+
+    /**
+     * Índice del nodo destino de la arista visible k.
+     */
+    public int destinoArista(int k) {
+        return destinos[k];
+    }
+
+    /**
+     * Indica si la arista visible k es bidireccional.
+     */
+    public boolean esBidireccional(int k) {
+        return (banderas[k] & TablaAristas.BIDIRECCIONAL) != 0;
+    }
+
+    /**
+     * Banderas de TablaAristas de la arista visible k.
+     */
+    byte banderasArista(int k) {
+        return banderas[k];
+    }
+
+    /**
+     * Peso explícito de la arista visible k, o NaN si usa la distancia euclidiana.
+     */
+    public double pesoArista(int k) {
+        return pesos[k];
+    }
+
+    /**
+     * Escribe esta versión en el formato de texto de grafo.txt
+     * (usado por Grafo.guardarGrafo y DiarioGrafo).
+     */
+    void escribirTexto(PrintWriter pw) {
+
+        pw.println("NODOS");
+        for (int i = 0; i < compilado.getNumeroNodos(); i++) {
+            pw.println(compilado.nodoDe(i).toString());
+        }
+
+        pw.println("ARISTAS");
+
+        for (int k = 0; k < origenes.length; k++) {
+            pw.println(compilado.idDe(origenes[k]) + "," +
+                    compilado.idDe(destinos[k]) + "," +
+                    (esBidireccional(k) ? "1" : "0") +
+                    ((banderas[k] & TablaAristas.CON_PESO) != 0 ? "," + pesos[k] : ""));
+        }
+    }
+
+    /**
+     * Ejecuta el algoritmo indicado por nombre
+     * ("BFS", "DFS", "BFS-BI", "DIJKSTRA", "A*", "CH", "BFS-TABLA").
+     *
+     * "BFS-TABLA" devuelve la misma ruta que "BFS" usando la tabla de
+     * distancias del origen (ver rutaDesdeTabla).
+     * Devuelve null si algún nodo no existe o no hay ruta.
+     */
+    public ResultadoBusqueda buscar(String algoritmo, String inicio, String fin) {
+        return buscar(algoritmo, inicio, fin, null);
+    }
+
+    /**
+     * Igual que buscar(algoritmo, inicio, fin), avisando el avance a
+     * progreso (puede ser null). Las consultas CH no avisan avance.
+     *
+     * Si la misma consulta ya se resolvió sobre esta versión,
+     * devuelve ese resultado marcado con desdeCache.
+     *
+     * @throws java.util.concurrent.CancellationException si se cancela
+     * @throws IllegalStateException si se pide "CH" sin jerarquía preparada
+     */
+    public ResultadoBusqueda buscar(String algoritmo, String inicio, String fin,
+                                    Progreso progreso) {
+        return medir(algoritmo, inicio, fin, null, progreso);
+    }
+
+    /**
+     * Igual que buscar(algoritmo, inicio, fin, progreso), pero si hay
+     * que calcular la ruta primero la ejecuta las veces de calentamiento
+     * de medicion sin registrarlas, y luego las repeticiones, registrando
+     * cada tiempo y sus contadores de trabajo. Devuelve el resultado
+     * de la última repetición.
+     *
+     * Los resultados tomados de la caché no se registran.
+     *
+     * "BFS-TABLA" se ejecuta una sola vez, sin calentamiento: la
+     * ejecución que construye la tabla es la que se registra, y cada
+     * consulta distinta cuenta una vez, así que el promedio de sus
+     * tiempos es el costo amortizado (construcción + reconstrucciones
+     * entre consultas distintas).
+     *
+     * @param medicion Dónde registrar (null: una sola ejecución sin registrar)
+     */
+    public ResultadoBusqueda medir(String algoritmo, String inicio, String fin,
+                                   MedicionTiempos medicion, Progreso progreso) {
+
+        ResultadoBusqueda guardado = cache.obtener(algoritmo, inicio, fin, version);
+        if (guardado != null) return guardado.copiaDesdeCache();
+
+        int a = compilado.indiceDe(inicio);
+        int b = compilado.indiceDe(fin);
+        if (a < 0 || b < 0) return null;
+
+        ResultadoBusqueda resultado;
+
+        if (medicion == null) {
+            resultado = calcular(algoritmo, a, b, progreso);
+        } else {
+            boolean amortizado = algoritmo.equals("BFS-TABLA");
+            int calentamiento = amortizado ? 0 : medicion.getCalentamiento();
+            int repeticiones = amortizado ? 1 : medicion.getRepeticiones();
+
+            for (int i = calentamiento; i > 0; i--) {
+                calcular(algoritmo, a, b, progreso);
+            }
+
+            resultado = null;
+
+            for (int i = repeticiones; i > 0; i--) {
+                resultado = calcular(algoritmo, a, b, progreso);
+                if (resultado == null) break;
+                medicion.registrar(algoritmo, inicio, fin, version, resultado);
+            }
+        }
+
+        if (resultado != null) {
+            cache.guardar(algoritmo, inicio, fin, version, resultado);
+        }
+
+        return resultado;
+    }
+
+    /**
+     * Ejecuta un lote de consultas repartiéndolas entre los núcleos
+     * (ForkJoinPool común). Cada consulta mide su propia latencia.
+     *
+     * Las consultas del lote no usan la caché: así las latencias son
+     * las del algoritmo y los hilos no compiten por ella.
+     *
+     * @throws IllegalStateException si hay consultas "CH" sin jerarquía preparada
+     */
+    public ResultadoLote buscarLote(List<ConsultaRuta> consultas) {
+        return buscarLote(consultas, true);
+    }
+
+    /**
+     * Igual que buscarLote(consultas), eligiendo si las consultas se
+     * reparten entre los núcleos o se ejecutan una tras otra en el hilo
+     * actual (latencias sin competencia entre hilos).
+     */
+    public ResultadoLote buscarLote(List<ConsultaRuta> consultas, boolean paralelo) {
+
+        int n = consultas.size();
+        ResultadoBusqueda[] resultados = new ResultadoBusqueda[n];
+        long[] latencias = new long[n];
+
+        IntStream indices = IntStream.range(0, n);
+        if (paralelo) indices = indices.parallel();
+
+        long inicioLote = System.nanoTime();
+
+        indices.forEach(i -> {
+
+            ConsultaRuta c = consultas.get(i);
+            long inicioConsulta = System.nanoTime();
+
+            int a = compilado.indiceDe(c.getOrigen());
+            int b = compilado.indiceDe(c.getDestino());
+            if (a >= 0 && b >= 0) {
+                resultados[i] = calcular(c.getAlgoritmo(), a, b, null);
+            }
+
+            latencias[i] = System.nanoTime() - inicioConsulta;
+        });
+
+        long tiempoTotal = System.nanoTime() - inicioLote;
+
+        return new ResultadoLote(consultas, Arrays.asList(resultados), latencias, tiempoTotal);
+    }
+
+    /**
+     * Ejecuta el algoritmo indicado sin consultar la caché, midiendo
+     * los bytes asignados si MemoriaAsignada está activa.
+     */
+    private ResultadoBusqueda calcular(String algoritmo, int a, int b, Progreso progreso) {
+
+        long antes = MemoriaAsignada.leer();
+        ResultadoBusqueda resultado = ejecutar(algoritmo, a, b, progreso);
+
+        if (resultado != null && antes >= 0) {
+            resultado.bytesAsignados = MemoriaAsignada.leer() - antes;
+        }
+
+        return resultado;
+    }
+
+    /**
+     * Ejecuta el algoritmo indicado.
+     */
+    private ResultadoBusqueda ejecutar(String algoritmo, int a, int b, Progreso progreso) {
+
+        switch (algoritmo) {
+            case "BFS":
+                return compilado.bfs(a, b, progreso);
+            case "DFS":
+                return dfsRecursivo
+                        ? compilado.dfsRecursivo(a, b, progreso)
+                        : compilado.dfs(a, b, progreso);
+            case "BFS-BI":
+                return compilado.bfsBidireccional(a, b, progreso);
+            case "DIJKSTRA":
+                return compilado.dijkstra(a, b, progreso);
+            case "A*":
+                return compilado.aEstrella(a, b, progreso);
+            case "BFS-TABLA":
+                return rutaDesdeTabla(a, b, progreso);
+            case "CH":
+                if (jerarquia == null) {
+                    throw new IllegalStateException("La jerarquía de contracción no está preparada");
+                }
+                return jerarquia.consultar(a, b);
+            default:
+                throw new IllegalArgumentException("Algoritmo desconocido: " + algoritmo);
+        }
+    }
+
+    /**
+     * Responde con la tabla de distancias del origen, construyéndola
+     * con un BFS completo si la vigente es de otro origen o de otra
+     * versión. La primera consulta con ruta sobre cada tabla incluye
+     * el tiempo, los nodos expandidos (todos los alcanzados) y las
+     * aristas examinadas de su construcción (ver
+     * TablaDistancias.cobrarConstruccion), así que el promedio de las
+     * consultas es el costo amortizado.
+     */
+    private ResultadoBusqueda rutaDesdeTabla(int a, int b, Progreso progreso) {
+
+        TablaDistancias actual = tabla.get();
+
+        if (actual == null || !actual.esDe(compilado, a)) {
+            actual = TablaDistancias.construir(compilado, a, progreso);
+            tabla.set(actual);
+        }
+
+        ResultadoBusqueda resultado = actual.ruta(b);
+        if (resultado != null && actual.cobrarConstruccion()) {
+            resultado.tiempo += actual.getTiempoConstruccion();
+            resultado.nodosExpandidos = actual.getAlcanzados();
+            resultado.aristasExaminadas = actual.getAristasExaminadas();
+            resultado.fronteraMaxima = actual.getFronteraMaxima();
+        }
+
+        return resultado;
+    }
+}
@@ -0,0 +1,1048 @@
+package model;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.stream.IntStream;
+
+/**
+ * Clase JerarquiaContraccion
+ *
+ * Preprocesamiento opcional (Contraction Hierarchies) para responder
+ * consultas de ruta más corta en mapas grandes en microsegundos.
+ *
+ * Construcción:
+ * - Los nodos se "contraen" uno a uno, de menor a mayor importancia.
+ *   Al contraer v, para cada par u -> v -> w sin un camino alternativo
+ *   igual de corto (búsqueda testigo) se agrega un atajo u -> w.
+ * - La importancia de un nodo es la diferencia entre atajos creados
+ *   y aristas eliminadas, más los vecinos ya contraídos y su nivel.
+ * - En cada ronda se contrae un conjunto independiente de nodos con
+ *   prioridad mínima local; sus búsquedas testigo se ejecutan en
+ *   paralelo en todos los núcleos.
+ *
+ * Resultado (en formato CSR sobre los índices de GrafoCompilado):
+ * - subida: aristas v -> w hacia nodos de mayor rango (búsqueda desde inicio)
+ * - bajada: aristas u -> v desde nodos de mayor rango, guardadas en v
+ *   (búsqueda hacia atrás desde fin)
+ * Cada arista guarda su nodo intermedio (-1 si es una arista original)
+ * para desempaquetar los atajos en la ruta real.
+ *
+ * La consulta es un Dijkstra bidireccional que solo sube de rango.
+ */
+public final class JerarquiaContraccion {
+
+    // Identificador del formato de archivo ("CH01")
+    private static final int MAGICO = 0x43483031;
+
+    // Máximo de nodos fijados por búsqueda testigo al contraer un nodo
+    private static final int LIMITE_TESTIGO = 500;
+
+    // Límite menor para estimar prioridades (solo cuenta atajos)
+    private static final int LIMITE_ESTIMACION = 50;
+
+    // Grafo sobre el que se construyó la jerarquía
+    private final GrafoCompilado grafo;
+
+    // Huella del grafo al momento de construirla
+    private final long huella;
+
+    // Aristas hacia arriba desde cada nodo
+    private final int[] despSubida;
+    private final int[] destSubida;
+    private final double[] pesoSubida;
+    private final int[] medioSubida;
+
+    // Aristas que llegan a cada nodo desde nodos de mayor rango
+    private final int[] despBajada;
+    private final int[] origBajada;
+    private final double[] pesoBajada;
+    private final int[] medioBajada;
+
+    // Espacios de trabajo libres para las consultas (uno por consulta
+    // simultánea); se descartan junto con la jerarquía
+    private final ConcurrentLinkedQueue<Escaneo> escaneos = new ConcurrentLinkedQueue<>();
+
+    private JerarquiaContraccion(GrafoCompilado grafo, long huella,
+                                 int[] despSubida, int[] destSubida,
+                                 double[] pesoSubida, int[] medioSubida,
+                                 int[] despBajada, int[] origBajada,
+                                 double[] pesoBajada, int[] medioBajada) {
+        this.grafo = grafo;
+        this.huella = huella;
+        this.despSubida = despSubida;
+        this.destSubida = destSubida;
+        this.pesoSubida = pesoSubida;
+        this.medioSubida = medioSubida;
+        this.despBajada = despBajada;
+        this.origBajada = origBajada;
+        this.pesoBajada = pesoBajada;
+        this.medioBajada = medioBajada;
+    }
+
+    /**
+     * Construye la jerarquía para el grafo compilado.
+     * Las búsquedas testigo se reparten en el ForkJoinPool común.
+     */
+    public static JerarquiaContraccion construir(GrafoCompilado g) {
+        return new Contraccion(g).ejecutar();
+    }
+
+    /**
+     * Carga una jerarquía guardada con guardar().
+     * Devuelve null si el archivo no existe o si fue generado
+     * para otra versión del grafo.
+     *
+     * @throws IOException si el archivo está dañado: largos que no
+     *         coinciden con el grafo, índices fuera de rango, pesos
+     *         inválidos o atajos sin sus dos mitades
+     */
+    public static JerarquiaContraccion cargar(String rutaArchivo, GrafoCompilado g)
+            throws IOException {
+
+        File archivo = new File(rutaArchivo);
+        if (!archivo.exists()) return null;
+
+        // Ningún arreglo puede tener más elementos que bytes el archivo
+        long limite = archivo.length();
+
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(new FileInputStream(archivo), 1 << 16))) {
+
+            if (in.readInt() != MAGICO) return null;
+
+            long huella = in.readLong();
+            int n = in.readInt();
+            if (huella != g.huella() || n != g.getNumeroNodos()) return null;
+
+            int[] despSubida = leerDesplazamientos(in, n, limite);
+            int m = despSubida[n];
+            int[] destSubida = leerIndices(in, m, 0, n);
+            double[] pesoSubida = leerPesos(in, m);
+            int[] medioSubida = leerIndices(in, m, -1, n);
+
+            int[] despBajada = leerDesplazamientos(in, n, limite);
+            int mb = despBajada[n];
+            int[] origBajada = leerIndices(in, mb, 0, n);
+            double[] pesoBajada = leerPesos(in, mb);
+            int[] medioBajada = leerIndices(in, mb, -1, n);
+
+            JerarquiaContraccion jerarquia = new JerarquiaContraccion(g, huella,
+                    despSubida, destSubida, pesoSubida, medioSubida,
+                    despBajada, origBajada, pesoBajada, medioBajada);
+
+            jerarquia.verificarAtajos();
+            return jerarquia;
+        }
+    }
+
+    /**
+     * Reutiliza la jerarquía guardada en el archivo si corresponde al
+     * grafo; si no, la construye y la guarda en él.
+     * No depende de Grafo, así que puede ejecutarse en otro hilo.
+     *
+     * @param rutaArchivo Archivo de la jerarquía (puede ser null)
+     */
+    public static JerarquiaContraccion preparar(String rutaArchivo, GrafoCompilado g) {
+
+        JerarquiaContraccion jerarquia = null;
+
+        if (rutaArchivo != null) {
+            try {
+                jerarquia = cargar(rutaArchivo, g);
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+
+        if (jerarquia == null) {
+
+            jerarquia = construir(g);
+
+            if (rutaArchivo != null) {
+                try {
+                    jerarquia.guardar(rutaArchivo);
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+            }
+        }
+
+        return jerarquia;
+    }
+
+    /**
+     * Guarda la jerarquía en un archivo binario.
+     * Se escribe primero a un temporal y luego se reemplaza,
+     * para no dejar un archivo a medias.
+     */
+    public void guardar(String rutaArchivo) throws IOException {
+
+        Path destino = Paths.get(rutaArchivo).toAbsolutePath();
+        Path temporal = destino.resolveSibling(destino.getFileName() + ".tmp");
+
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(temporal), 1 << 16))) {
+
+            out.writeInt(MAGICO);
+            out.writeLong(huella);
+            out.writeInt(grafo.getNumeroNodos());
+
+            escribir(out, despSubida);
+            escribir(out, destSubida);
+            escribir(out, pesoSubida);
+            escribir(out, medioSubida);
+            escribir(out, despBajada);
+            escribir(out, origBajada);
+            escribir(out, pesoBajada);
+            escribir(out, medioBajada);
+        }
+
+        Files.move(temporal, destino, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Indica si la jerarquía corresponde al grafo compilado dado.
+     */
+    public boolean esValidaPara(GrafoCompilado g) {
+        return g == grafo || g.huella() == huella;
+    }
+
+    /**
+     * Devuelve la cantidad de aristas de la jerarquía (incluye atajos).
+     */
+    public int getNumeroAristas() {
+        return destSubida.length + origBajada.length;
+    }
+
+    /**
+     * Consulta la ruta más corta entre dos índices.
+     * Devuelve null si no existe ruta.
+     *
+     * El tiempo incluye desempaquetar los atajos.
+     * Puede llamarse desde varios hilos a la vez: cada consulta toma
+     * un espacio de trabajo libre (o crea uno) y lo devuelve al final.
+     */
+    public ResultadoBusqueda consultar(int inicio, int fin) {
+
+        Escaneo e = escaneos.poll();
+        if (e == null) e = new Escaneo(grafo.getNumeroNodos());
+
+        try {
+            return consultar(inicio, fin, e);
+        } finally {
+            e.limpiar();
+            escaneos.offer(e);
+        }
+    }
+
+    private ResultadoBusqueda consultar(int inicio, int fin, Escaneo e) {
+
+        long startTime = System.nanoTime();
+
+        e.tocarAdelante(inicio, 0, -1, -1);
+        e.monticuloAdelante.insertarODisminuir(inicio, 0);
+
+        e.tocarAtras(fin, 0, -1, -1);
+        e.monticuloAtras.insertarODisminuir(fin, 0);
+
+        double mejor = Double.POSITIVE_INFINITY;
+        int encuentro = -1;
+
+        // Contadores de trabajo (frontera: ambos montículos juntos)
+        long aristas = 0;
+        int frontera = 2;
+
+        if (inicio == fin) {
+            mejor = 0;
+            encuentro = inicio;
+        }
+
+        while (true) {
+
+            boolean puedeAdelante = !e.monticuloAdelante.estaVacio()
+                    && e.monticuloAdelante.prioridadMinima() < mejor;
+            boolean puedeAtras = !e.monticuloAtras.estaVacio()
+                    && e.monticuloAtras.prioridadMinima() < mejor;
+
+            if (!puedeAdelante && !puedeAtras) break;
+
+            boolean adelante = puedeAdelante && (!puedeAtras
+                    || e.monticuloAdelante.prioridadMinima() <= e.monticuloAtras.prioridadMinima());
+
+            if (adelante) {
+
+                int u = e.monticuloAdelante.extraerMinimo();
+                e.agregarOrden(u);
+
+                double du = e.distAdelante[u];
+                if (du + e.distAtras[u] < mejor) {
+                    mejor = du + e.distAtras[u];
+                    encuentro = u;
+                }
+
+                aristas += despSubida[u + 1] - despSubida[u];
+
+                for (int k = despSubida[u]; k < despSubida[u + 1]; k++) {
+                    int w = destSubida[k];
+                    double nueva = du + pesoSubida[k];
+                    if (nueva < e.distAdelante[w]) {
+                        e.tocarAdelante(w, nueva, u, medioSubida[k]);
+                        e.monticuloAdelante.insertarODisminuir(w, nueva);
+                    }
+                }
+
+            } else {
+
+                int u = e.monticuloAtras.extraerMinimo();
+                e.agregarOrden(u);
+
+                double du = e.distAtras[u];
+                if (du + e.distAdelante[u] < mejor) {
+                    mejor = du + e.distAdelante[u];
+                    encuentro = u;
+                }
+
+                aristas += despBajada[u + 1] - despBajada[u];
+
+                for (int k = despBajada[u]; k < despBajada[u + 1]; k++) {
+                    int x = origBajada[k];
+                    double nueva = du + pesoBajada[k];
+                    if (nueva < e.distAtras[x]) {
+                        e.tocarAtras(x, nueva, u, medioBajada[k]);
+                        e.monticuloAtras.insertarODisminuir(x, nueva);
+                    }
+                }
+            }
+
+            frontera = Math.max(frontera,
+                    e.monticuloAdelante.tamano() + e.monticuloAtras.tamano());
+        }
+
+        ResultadoBusqueda resultado = null;
+
+        if (encuentro >= 0) {
+
+            // Mitad hacia adelante: inicio ... encuentro (se recorre al revés)
+            List<int[]> tramos = new ArrayList<>();
+            for (int x = encuentro; e.padreAdelante[x] >= 0; x = e.padreAdelante[x]) {
+                tramos.add(new int[]{e.padreAdelante[x], x, e.medioAdelante[x]});
+            }
+
+            List<Integer> indices = new ArrayList<>();
+            indices.add(inicio);
+            for (int i = tramos.size() - 1; i >= 0; i--) {
+                int[] t = tramos.get(i);
+                desempaquetar(t[0], t[1], t[2], indices);
+            }
+
+            // Mitad hacia atrás: encuentro ... fin
+            for (int x = encuentro; e.padreAtras[x] >= 0; x = e.padreAtras[x]) {
+                desempaquetar(x, e.padreAtras[x], e.medioAtras[x], indices);
+            }
+
+            long tiempo = System.nanoTime() - startTime;
+
+            List<Nodo> ruta = new ArrayList<>(indices.size());
+            Map<String, String> padres = new HashMap<>();
+            for (int i = 0; i < indices.size(); i++) {
+                ruta.add(grafo.nodoDe(indices.get(i)));
+                padres.put(grafo.idDe(indices.get(i)),
+                        i == 0 ? null : grafo.idDe(indices.get(i - 1)));
+            }
+
+            List<Nodo> visitados = new ArrayList<>(e.cantidadOrden);
+            for (int i = 0; i < e.cantidadOrden; i++) {
+                visitados.add(grafo.nodoDe(e.orden[i]));
+            }
+
+            resultado = new ResultadoBusqueda(ruta, visitados, padres, tiempo);
+            resultado.aristasExaminadas = aristas;
+            resultado.fronteraMaxima = frontera;
+        }
+
+        return resultado;
+    }
+
+    /**
+     * Expande la arista a -> b (atajo si medio >= 0) y agrega
+     * a la ruta los nodos posteriores a "a", en orden.
+     */
+    private void desempaquetar(int a, int b, int medio, List<Integer> ruta) {
+
+        // Pila de tramos pendientes: (origen, destino, intermedio)
+        int[] pila = new int[48];
+        int tope = 0;
+
+        pila[tope++] = a;
+        pila[tope++] = b;
+        pila[tope++] = medio;
+
+        while (tope > 0) {
+
+            int m = pila[--tope];
+            int destino = pila[--tope];
+            int origen = pila[--tope];
+
+            if (m < 0) {
+                ruta.add(destino);
+                continue;
+            }
+
+            if (tope + 6 > pila.length) {
+                pila = Arrays.copyOf(pila, pila.length * 2);
+            }
+
+            // Se apila primero la segunda mitad para procesar antes la primera
+            pila[tope++] = m;
+            pila[tope++] = destino;
+            pila[tope++] = medioDeSubida(m, destino);
+
+            pila[tope++] = origen;
+            pila[tope++] = m;
+            pila[tope++] = medioDeBajada(origen, m);
+        }
+    }
+
+    // Intermedio de la arista v -> w guardada en la subida de v
+    private int medioDeSubida(int v, int w) {
+        for (int k = despSubida[v]; k < despSubida[v + 1]; k++) {
+            if (destSubida[k] == w) return medioSubida[k];
+        }
+        throw new IllegalStateException("Atajo inconsistente en la jerarquía");
+    }
+
+    // Intermedio de la arista u -> v guardada en la bajada de v
+    private int medioDeBajada(int u, int v) {
+        for (int k = despBajada[v]; k < despBajada[v + 1]; k++) {
+            if (origBajada[k] == u) return medioBajada[k];
+        }
+        throw new IllegalStateException("Atajo inconsistente en la jerarquía");
+    }
+
+    private static void escribir(DataOutputStream out, int[] datos) throws IOException {
+        out.writeInt(datos.length);
+        for (int d : datos) out.writeInt(d);
+    }
+
+    private static void escribir(DataOutputStream out, double[] datos) throws IOException {
+        out.writeInt(datos.length);
+        for (double d : datos) out.writeDouble(d);
+    }
+
+    /**
+     * Comprueba que cada atajo (medio >= 0) tenga sus dos mitades,
+     * para que desempaquetar no falle durante una consulta.
+     */
+    private void verificarAtajos() throws IOException {
+
+        int n = grafo.getNumeroNodos();
+
+        for (int v = 0; v < n; v++) {
+            for (int k = despSubida[v]; k < despSubida[v + 1]; k++) {
+                int m = medioSubida[k];
+                if (m >= 0 && (!tieneBajada(v, m) || !tieneSubida(m, destSubida[k]))) {
+                    throw new IOException("Atajo inconsistente en la jerarquía guardada");
+                }
+            }
+            for (int k = despBajada[v]; k < despBajada[v + 1]; k++) {
+                int m = medioBajada[k];
+                if (m >= 0 && (!tieneBajada(origBajada[k], m) || !tieneSubida(m, v))) {
+                    throw new IOException("Atajo inconsistente en la jerarquía guardada");
+                }
+            }
+        }
+    }
+
+    // Existe la arista v -> w en la subida de v
+    private boolean tieneSubida(int v, int w) {
+        for (int k = despSubida[v]; k < despSubida[v + 1]; k++) {
+            if (destSubida[k] == w) return true;
+        }
+        return false;
+    }
+
+    // Existe la arista u -> v en la bajada de v
+    private boolean tieneBajada(int u, int v) {
+        for (int k = despBajada[v]; k < despBajada[v + 1]; k++) {
+            if (origBajada[k] == u) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Lee el largo de un arreglo y falla si no es el esperado.
+     */
+    private static void leerLargo(DataInputStream in, int esperado) throws IOException {
+        int largo = in.readInt();
+        if (largo != esperado) {
+            throw new IOException("Jerarquía dañada: largo " + largo + ", se esperaba " + esperado);
+        }
+    }
+
+    /**
+     * Desplazamientos CSR: n + 1 valores crecientes desde 0, y el
+     * último (cantidad de aristas) no mayor que el archivo.
+     */
+    private static int[] leerDesplazamientos(DataInputStream in, int n, long limite)
+            throws IOException {
+
+        leerLargo(in, n + 1);
+
+        int[] datos = new int[n + 1];
+        for (int i = 0; i <= n; i++) {
+            datos[i] = in.readInt();
+            if (i == 0 ? datos[i] != 0 : datos[i] < datos[i - 1]) {
+                throw new IOException("Jerarquía dañada: desplazamientos no crecientes");
+            }
+        }
+
+        if (datos[n] > limite / 4) {
+            throw new IOException("Jerarquía dañada: " + datos[n] + " aristas no caben en el archivo");
+        }
+        return datos;
+    }
+
+    /**
+     * Índices de nodo en [minimo, n).
+     */
+    private static int[] leerIndices(DataInputStream in, int cantidad, int minimo, int n)
+            throws IOException {
+
+        leerLargo(in, cantidad);
+
+        int[] datos = new int[cantidad];
+        for (int i = 0; i < cantidad; i++) {
+            datos[i] = in.readInt();
+            if (datos[i] < minimo || datos[i] >= n) {
+                throw new IOException("Jerarquía dañada: índice de nodo " + datos[i] + " fuera de rango");
+            }
+        }
+        return datos;
+    }
+
+    /**
+     * Pesos finitos y no negativos.
+     */
+    private static double[] leerPesos(DataInputStream in, int cantidad) throws IOException {
+
+        leerLargo(in, cantidad);
+
+        double[] datos = new double[cantidad];
+        for (int i = 0; i < cantidad; i++) {
+            datos[i] = in.readDouble();
+            if (!Grafo.esPesoValido(datos[i])) {
+                throw new IOException("Jerarquía dañada: peso inválido " + datos[i]);
+            }
+        }
+        return datos;
+    }
+
+    /**
+     * Espacio de trabajo reutilizable de una consulta.
+     * Las distancias empiezan en infinito y solo se restauran
+     * las posiciones tocadas, así una consulta no recorre todo el grafo.
+     */
+    private static final class Escaneo {
+
+        final double[] distAdelante;
+        final double[] distAtras;
+        final int[] padreAdelante;
+        final int[] padreAtras;
+        final int[] medioAdelante;
+        final int[] medioAtras;
+        final MonticuloIndexado monticuloAdelante;
+        final MonticuloIndexado monticuloAtras;
+
+        // Nodos con distancia asignada en cada dirección
+        int[] tocadosAdelante = new int[64];
+        int cantidadAdelante;
+        int[] tocadosAtras = new int[64];
+        int cantidadAtras;
+
+        // Nodos fijados por ambas búsquedas, en orden
+        int[] orden = new int[64];
+        int cantidadOrden;
+
+        Escaneo(int n) {
+            distAdelante = new double[n];
+            distAtras = new double[n];
+            Arrays.fill(distAdelante, Double.POSITIVE_INFINITY);
+            Arrays.fill(distAtras, Double.POSITIVE_INFINITY);
+            padreAdelante = new int[n];
+            padreAtras = new int[n];
+            medioAdelante = new int[n];
+            medioAtras = new int[n];
+            monticuloAdelante = new MonticuloIndexado(n);
+            monticuloAtras = new MonticuloIndexado(n);
+        }
+
+        void tocarAdelante(int v, double d, int padre, int medio) {
+            if (distAdelante[v] == Double.POSITIVE_INFINITY) {
+                if (cantidadAdelante == tocadosAdelante.length)
+                    tocadosAdelante = Arrays.copyOf(tocadosAdelante, cantidadAdelante * 2);
+                tocadosAdelante[cantidadAdelante++] = v;
+            }
+            distAdelante[v] = d;
+            padreAdelante[v] = padre;
+            medioAdelante[v] = medio;
+        }
+
+        void tocarAtras(int v, double d, int padre, int medio) {
+            if (distAtras[v] == Double.POSITIVE_INFINITY) {
+                if (cantidadAtras == tocadosAtras.length)
+                    tocadosAtras = Arrays.copyOf(tocadosAtras, cantidadAtras * 2);
+                tocadosAtras[cantidadAtras++] = v;
+            }
+            distAtras[v] = d;
+            padreAtras[v] = padre;
+            medioAtras[v] = medio;
+        }
+
+        void agregarOrden(int v) {
+            if (cantidadOrden == orden.length)
+                orden = Arrays.copyOf(orden, cantidadOrden * 2);
+            orden[cantidadOrden++] = v;
+        }
+
+        void limpiar() {
+            for (int i = 0; i < cantidadAdelante; i++)
+                distAdelante[tocadosAdelante[i]] = Double.POSITIVE_INFINITY;
+            for (int i = 0; i < cantidadAtras; i++)
+                distAtras[tocadosAtras[i]] = Double.POSITIVE_INFINITY;
+            cantidadAdelante = 0;
+            cantidadAtras = 0;
+            cantidadOrden = 0;
+            monticuloAdelante.limpiar();
+            monticuloAtras.limpiar();
+        }
+    }
+
+    /**
+     * Atajos que requiere la contracción de un nodo.
+     */
+    private static final class Atajos {
+
+        int[] origen = new int[8];
+        int[] destino = new int[8];
+        double[] peso = new double[8];
+        int cantidad;
+
+        void agregar(int u, int w, double p) {
+            if (cantidad == origen.length) {
+                origen = Arrays.copyOf(origen, cantidad * 2);
+                destino = Arrays.copyOf(destino, cantidad * 2);
+                peso = Arrays.copyOf(peso, cantidad * 2);
+            }
+            origen[cantidad] = u;
+            destino[cantidad] = w;
+            peso[cantidad] = p;
+            cantidad++;
+        }
+    }
+
+    /**
+     * Estado mutable del proceso de contracción.
+     *
+     * Cada nodo mantiene listas de aristas de salida y entrada
+     * hacia nodos aún no contraídos (incluidos los atajos).
+     */
+    private static final class Contraccion {
+
+        final GrafoCompilado grafo;
+        final int n;
+
+        // Aristas de salida por nodo
+        final int[][] salDest;
+        final double[][] salPeso;
+        final int[][] salMedio;
+        final int[] salCant;
+
+        // Aristas de entrada por nodo
+        final int[][] entOrig;
+        final double[][] entPeso;
+        final int[][] entMedio;
+        final int[] entCant;
+
+        // Nodos de la ronda actual (se excluyen de las búsquedas testigo)
+        final boolean[] enRonda;
+
+        final int[] prioridad;
+        final int[] vecinosContraidos;
+
+        // Profundidad en la jerarquía: 1 + máximo nivel de los vecinos contraídos
+        final int[] nivel;
+
+        // Espacio de trabajo de las búsquedas testigo, uno por hilo
+        final ThreadLocal<Testigo> testigos;
+
+        Contraccion(GrafoCompilado grafo) {
+
+            this.grafo = grafo;
+            this.n = grafo.getNumeroNodos();
+
+            salDest = new int[n][];
+            salPeso = new double[n][];
+            salMedio = new int[n][];
+            salCant = new int[n];
+            entOrig = new int[n][];
+            entPeso = new double[n][];
+            entMedio = new int[n][];
+            entCant = new int[n];
+            enRonda = new boolean[n];
+            prioridad = new int[n];
+            vecinosContraidos = new int[n];
+            nivel = new int[n];
+            testigos = ThreadLocal.withInitial(Testigo::new);
+
+            int[] desp = grafo.desplazamientos();
+            int[] dest = grafo.destinos();
+            double[] pesos = grafo.pesos();
+
+            for (int v = 0; v < n; v++) {
+                salDest[v] = new int[4];
+                salPeso[v] = new double[4];
+                salMedio[v] = new int[4];
+                entOrig[v] = new int[4];
+                entPeso[v] = new double[4];
+                entMedio[v] = new int[4];
+            }
+
+            for (int u = 0; u < n; u++) {
+                for (int k = desp[u]; k < desp[u + 1]; k++) {
+                    if (dest[k] != u) {
+                        agregarArista(u, dest[k], pesos[k], -1);
+                    }
+                }
+            }
+        }
+
+        /**
+         * Contrae todos los nodos y arma la jerarquía final.
+         */
+        JerarquiaContraccion ejecutar() {
+
+            // Aristas finales de cada nodo, registradas al contraerlo
+            int[][] subDest = new int[n][];
+            double[][] subPeso = new double[n][];
+            int[][] subMedio = new int[n][];
+            int[][] bajOrig = new int[n][];
+            double[][] bajPeso = new double[n][];
+            int[][] bajMedio = new int[n][];
+
+            IntStream.range(0, n).parallel()
+                    .forEach(v -> prioridad[v] = calcularPrioridad(v));
+
+            int[] restantes = new int[n];
+            for (int v = 0; v < n; v++) restantes[v] = v;
+            int cantidadRestantes = n;
+
+            boolean[] afectado = new boolean[n];
+
+            while (cantidadRestantes > 0) {
+
+                // 1. Conjunto independiente de mínimos locales
+                int[] ronda = Arrays.stream(restantes, 0, cantidadRestantes)
+                        .parallel()
+                        .filter(this::esMinimoLocal)
+                        .toArray();
+
+                for (int v : ronda) enRonda[v] = true;
+
+                // 2. Búsquedas testigo en paralelo
+                Atajos[] atajos = new Atajos[ronda.length];
+                IntStream.range(0, ronda.length).parallel()
+                        .forEach(i -> atajos[i] = calcularAtajos(ronda[i], LIMITE_TESTIGO));
+
+                // 3. Se aplica la ronda en orden (resultado determinista)
+                for (int v : ronda) {
+                    subDest[v] = Arrays.copyOf(salDest[v], salCant[v]);
+                    subPeso[v] = Arrays.copyOf(salPeso[v], salCant[v]);
+                    subMedio[v] = Arrays.copyOf(salMedio[v], salCant[v]);
+                    bajOrig[v] = Arrays.copyOf(entOrig[v], entCant[v]);
+                    bajPeso[v] = Arrays.copyOf(entPeso[v], entCant[v]);
+                    bajMedio[v] = Arrays.copyOf(entMedio[v], entCant[v]);
+                }
+
+                for (int i = 0; i < ronda.length; i++) {
+                    Atajos a = atajos[i];
+                    for (int j = 0; j < a.cantidad; j++) {
+                        agregarArista(a.origen[j], a.destino[j], a.peso[j], ronda[i]);
+                    }
+                }
+
+                List<Integer> vecinos = new ArrayList<>();
+                for (int v : ronda) {
+                    for (int j = 0; j < salCant[v]; j++) {
+                        int w = salDest[v][j];
+                        quitarEntrada(w, v);
+                        vecinosContraidos[w]++;
+                        nivel[w] = Math.max(nivel[w], nivel[v] + 1);
+                        if (!afectado[w]) { afectado[w] = true; vecinos.add(w); }
+                    }
+                    for (int j = 0; j < entCant[v]; j++) {
+                        int u = entOrig[v][j];
+                        quitarSalida(u, v);
+                        vecinosContraidos[u]++;
+                        nivel[u] = Math.max(nivel[u], nivel[v] + 1);
+                        if (!afectado[u]) { afectado[u] = true; vecinos.add(u); }
+                    }
+                    salCant[v] = 0;
+                    entCant[v] = 0;
+                    enRonda[v] = false;
+                    // Se libera la memoria del nodo contraído
+                    salDest[v] = null; salPeso[v] = null; salMedio[v] = null;
+                    entOrig[v] = null; entPeso[v] = null; entMedio[v] = null;
+                }
+
+                // 4. Se quitan los contraídos de la lista de restantes
+                int j = 0;
+                for (int i = 0; i < cantidadRestantes; i++) {
+                    if (salDest[restantes[i]] != null) restantes[j++] = restantes[i];
+                }
+                cantidadRestantes = j;
+
+                // 5. Se recalcula la prioridad de los vecinos afectados
+                vecinos.parallelStream()
+                        .forEach(w -> prioridad[w] = calcularPrioridad(w));
+                for (int w : vecinos) afectado[w] = false;
+            }
+
+            int[] despSubida = new int[n + 1];
+            int[] despBajada = new int[n + 1];
+            for (int v = 0; v < n; v++) {
+                despSubida[v + 1] = despSubida[v] + subDest[v].length;
+                despBajada[v + 1] = despBajada[v] + bajOrig[v].length;
+            }
+
+            int[] destSubida = new int[despSubida[n]];
+            double[] pesoSubida = new double[despSubida[n]];
+            int[] medioSubida = new int[despSubida[n]];
+            int[] origBajada = new int[despBajada[n]];
+            double[] pesoBajada = new double[despBajada[n]];
+            int[] medioBajada = new int[despBajada[n]];
+
+            for (int v = 0; v < n; v++) {
+                System.arraycopy(subDest[v], 0, destSubida, despSubida[v], subDest[v].length);
+                System.arraycopy(subPeso[v], 0, pesoSubida, despSubida[v], subPeso[v].length);
+                System.arraycopy(subMedio[v], 0, medioSubida, despSubida[v], subMedio[v].length);
+                System.arraycopy(bajOrig[v], 0, origBajada, despBajada[v], bajOrig[v].length);
+                System.arraycopy(bajPeso[v], 0, pesoBajada, despBajada[v], bajPeso[v].length);
+                System.arraycopy(bajMedio[v], 0, medioBajada, despBajada[v], bajMedio[v].length);
+            }
+
+            return new JerarquiaContraccion(grafo, grafo.huella(),
+                    despSubida, destSubida, pesoSubida, medioSubida,
+                    despBajada, origBajada, pesoBajada, medioBajada);
+        }
+
+        /**
+         * Un nodo entra en la ronda si su prioridad es menor que la de
+         * todos sus vecinos (a igualdad, gana el índice menor).
+         */
+        boolean esMinimoLocal(int v) {
+            int p = prioridad[v];
+            for (int j = 0; j < salCant[v]; j++) {
+                int w = salDest[v][j];
+                if (prioridad[w] < p || (prioridad[w] == p && w < v)) return false;
+            }
+            for (int j = 0; j < entCant[v]; j++) {
+                int u = entOrig[v][j];
+                if (prioridad[u] < p || (prioridad[u] == p && u < v)) return false;
+            }
+            return true;
+        }
+
+        /**
+         * Prioridad de contracción: menor es antes.
+         * Favorece nodos que crean pocos atajos respecto a las aristas
+         * que eliminan; los vecinos contraídos y el nivel reparten
+         * la contracción por todo el grafo.
+         */
+        int calcularPrioridad(int v) {
+            int atajos = calcularAtajos(v, LIMITE_ESTIMACION).cantidad;
+            int quitadas = salCant[v] + entCant[v];
+            return 2 * atajos - quitadas + vecinosContraidos[v] + nivel[v];
+        }
+
+        /**
+         * Calcula los atajos necesarios para contraer v.
+         */
+        Atajos calcularAtajos(int v, int maxFijados) {
+
+            Atajos atajos = new Atajos();
+            Testigo testigo = testigos.get();
+
+            for (int i = 0; i < entCant[v]; i++) {
+
+                int u = entOrig[v][i];
+                double pesoUV = entPeso[v][i];
+
+                double limite = -1;
+                for (int j = 0; j < salCant[v]; j++) {
+                    if (salDest[v][j] != u) {
+                        limite = Math.max(limite, pesoUV + salPeso[v][j]);
+                    }
+                }
+                if (limite < 0) continue;
+
+                testigo.buscar(u, v, limite, maxFijados);
+
+                for (int j = 0; j < salCant[v]; j++) {
+                    int w = salDest[v][j];
+                    if (w == u) continue;
+                    double via = pesoUV + salPeso[v][j];
+                    if (testigo.distancia[w] > via) {
+                        atajos.agregar(u, w, via);
+                    }
+                }
+
+                testigo.limpiar();
+            }
+
+            return atajos;
+        }
+
+        /**
+         * Agrega la arista u -> w o mejora su peso si ya existe.
+         */
+        void agregarArista(int u, int w, double peso, int medio) {
+
+            for (int j = 0; j < salCant[u]; j++) {
+                if (salDest[u][j] != w) continue;
+
+                if (peso < salPeso[u][j]) {
+                    salPeso[u][j] = peso;
+                    salMedio[u][j] = medio;
+                    for (int i = 0; i < entCant[w]; i++) {
+                        if (entOrig[w][i] == u) {
+                            entPeso[w][i] = peso;
+                            entMedio[w][i] = medio;
+                            break;
+                        }
+                    }
+                }
+                return;
+            }
+
+            if (salCant[u] == salDest[u].length) {
+                int nuevo = salCant[u] * 2;
+                salDest[u] = Arrays.copyOf(salDest[u], nuevo);
+                salPeso[u] = Arrays.copyOf(salPeso[u], nuevo);
+                salMedio[u] = Arrays.copyOf(salMedio[u], nuevo);
+            }
+            salDest[u][salCant[u]] = w;
+            salPeso[u][salCant[u]] = peso;
+            salMedio[u][salCant[u]] = medio;
+            salCant[u]++;
+
+            if (entCant[w] == entOrig[w].length) {
+                int nuevo = entCant[w] * 2;
+                entOrig[w] = Arrays.copyOf(entOrig[w], nuevo);
+                entPeso[w] = Arrays.copyOf(entPeso[w], nuevo);
+                entMedio[w] = Arrays.copyOf(entMedio[w], nuevo);
+            }
+            entOrig[w][entCant[w]] = u;
+            entPeso[w][entCant[w]] = peso;
+            entMedio[w][entCant[w]] = medio;
+            entCant[w]++;
+        }
+
+        // Quita v de las aristas de salida de u (intercambia con la última)
+        void quitarSalida(int u, int v) {
+            for (int j = 0; j < salCant[u]; j++) {
+                if (salDest[u][j] == v) {
+                    int ultimo = --salCant[u];
+                    salDest[u][j] = salDest[u][ultimo];
+                    salPeso[u][j] = salPeso[u][ultimo];
+                    salMedio[u][j] = salMedio[u][ultimo];
+                    return;
+                }
+            }
+        }
+
+        // Quita v de las aristas de entrada de w (intercambia con la última)
+        void quitarEntrada(int w, int v) {
+            for (int j = 0; j < entCant[w]; j++) {
+                if (entOrig[w][j] == v) {
+                    int ultimo = --entCant[w];
+                    entOrig[w][j] = entOrig[w][ultimo];
+                    entPeso[w][j] = entPeso[w][ultimo];
+                    entMedio[w][j] = entMedio[w][ultimo];
+                    return;
+                }
+            }
+        }
+
+        /**
+         * Dijkstra local desde u que evita el nodo a contraer
+         * (y los demás nodos de la ronda), limitado en distancia
+         * y en cantidad de nodos fijados.
+         */
+        final class Testigo {
+
+            final double[] distancia = new double[n];
+            final MonticuloIndexado monticulo = new MonticuloIndexado(n);
+            int[] tocados = new int[64];
+            int cantidad;
+
+            Testigo() {
+                Arrays.fill(distancia, Double.POSITIVE_INFINITY);
+            }
+
+            void buscar(int origen, int evitar, double limite, int maxFijados) {
+
+                tocar(origen, 0);
+                monticulo.insertarODisminuir(origen, 0);
+
+                int fijados = 0;
+
+                while (!monticulo.estaVacio()
+                        && monticulo.prioridadMinima() <= limite
+                        && fijados < maxFijados) {
+
+                    int x = monticulo.extraerMinimo();
+                    fijados++;
+
+                    double dx = distancia[x];
+
+                    for (int j = 0; j < salCant[x]; j++) {
+                        int y = salDest[x][j];
+                        if (y == evitar || enRonda[y]) continue;
+
+                        double nueva = dx + salPeso[x][j];
+                        if (nueva < distancia[y]) {
+                            tocar(y, nueva);
+                            monticulo.insertarODisminuir(y, nueva);
+                        }
+                    }
+                }
+
+                monticulo.limpiar();
+            }
+
+            void tocar(int v, double d) {
+                if (distancia[v] == Double.POSITIVE_INFINITY) {
+                    if (cantidad == tocados.length)
+                        tocados = Arrays.copyOf(tocados, cantidad * 2);
+                    tocados[cantidad++] = v;
+                }
+                distancia[v] = d;
+            }
+
+            void limpiar() {
+                for (int i = 0; i < cantidad; i++)
+                    distancia[tocados[i]] = Double.POSITIVE_INFINITY;
+                cantidad = 0;
+            }
+        }
+    }
+}
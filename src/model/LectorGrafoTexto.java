@@ -0,0 +1,155 @@
+package model;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+/**
+ * Clase LectorGrafoTexto
+ *
+ * Lector del formato de texto de grafo.txt, usado tanto al cargar
+ * desde un archivo como desde un recurso del classpath.
+ *
+ * Formato: ver CamposLinea.
+ *
+ * Lee bytes con un buffer que se reutiliza y separa los campos
+ * sobre el mismo buffer, sin crear Strings por línea ni por campo:
+ * - Los números se interpretan directamente desde los bytes.
+ * - Solo se crea un String por nodo (su ID). Los IDs leídos se
+ *   guardan también como bytes (TablaIds), así que cada
+ *   arista se resuelve a números de nodo sin crear objetos y se
+ *   agrega a Grafo con agregarArista por números.
+ *
+ * La memoria usada no depende del tamaño del archivo sino de la
+ * línea más larga y de la cantidad de nodos.
+ *
+ * Un error de formato se informa con FormatoGrafoException,
+ * indicando el número de línea.
+ */
+final class LectorGrafoTexto {
+
+    // Tamaño inicial del buffer de lectura
+    private static final int TAMANO_BUFFER = 1 << 16;
+
+    private final Grafo grafo;
+
+    private byte[] buffer = new byte[TAMANO_BUFFER];
+
+    private final CamposLinea campos;
+    private final TablaIds ids = new TablaIds();
+
+    // Sección actual (ver CamposLinea)
+    private int seccion = CamposLinea.NINGUNA;
+
+    private LectorGrafoTexto(Grafo grafo, String origen) {
+        this.grafo = grafo;
+        this.campos = new CamposLinea(origen);
+    }
+
+    /**
+     * Lee el grafo del flujo y lo agrega a grafo (no lo reinicia).
+     * No cierra el flujo.
+     *
+     * @param origen Nombre del archivo o recurso, para los mensajes de error
+     */
+    static void leer(InputStream in, Grafo grafo, String origen) throws IOException {
+        new LectorGrafoTexto(grafo, origen).leer(in);
+    }
+
+    private void leer(InputStream in) throws IOException {
+
+        // Bytes válidos: buffer[inicio, fin); se busca el fin de línea desde revisado
+        int inicio = 0;
+        int fin = 0;
+        int revisado = 0;
+        boolean terminado = false;
+
+        while (true) {
+
+            int salto = revisado;
+            while (salto < fin && buffer[salto] != '\n') {
+                salto++;
+            }
+
+            if (salto < fin) {
+                procesarLinea(inicio, salto);
+                inicio = salto + 1;
+                revisado = inicio;
+                continue;
+            }
+
+            if (terminado) {
+                if (inicio < fin) procesarLinea(inicio, fin);
+                return;
+            }
+
+            // Se mueve la línea incompleta al principio; si ocupa
+            // todo el buffer (línea muy larga) se agranda
+            if (inicio > 0) {
+                System.arraycopy(buffer, inicio, buffer, 0, fin - inicio);
+                fin -= inicio;
+                inicio = 0;
+            } else if (fin == buffer.length) {
+                buffer = Arrays.copyOf(buffer, buffer.length * 2);
+            }
+            revisado = fin;
+
+            int leidos = in.read(buffer, fin, buffer.length - fin);
+            if (leidos < 0) {
+                terminado = true;
+            } else {
+                fin += leidos;
+            }
+        }
+    }
+
+    private void procesarLinea(int inicio, int fin) throws IOException {
+
+        campos.linea++;
+
+        while (inicio < fin && CamposLinea.esEspacio(buffer[inicio])) inicio++;
+        while (fin > inicio && CamposLinea.esEspacio(buffer[fin - 1])) fin--;
+        if (inicio == fin) return;
+
+        int marca = CamposLinea.seccion(buffer, inicio, fin);
+        if (marca != CamposLinea.NINGUNA) {
+            seccion = marca;
+            return;
+        }
+        if (seccion == CamposLinea.NINGUNA) return;
+
+        campos.separar(buffer, inicio, fin);
+
+        if (seccion == CamposLinea.NODOS) {
+            if (campos.esNodo()) leerNodo();
+        } else {
+            if (campos.esArista()) leerArista();
+        }
+    }
+
+    private void leerNodo() throws IOException {
+
+        Nodo nodo = campos.nodo();
+        grafo.cargarNodo(nodo);
+
+        ids.registrar(buffer, campos.inicio(0), campos.largo(0), grafo.getNumero(nodo.getId()));
+    }
+
+    private void leerArista() throws IOException {
+
+        boolean bidireccional = campos.bidireccional();
+        double peso = campos.tienePeso() ? campos.peso() : Double.NaN;
+
+        int a = ids.buscar(buffer, campos.inicio(0), campos.largo(0));
+        int b = ids.buscar(buffer, campos.inicio(1), campos.largo(1));
+
+        // Como antes, las aristas con nodos inexistentes se ignoran
+        if (a < 0 || b < 0) return;
+
+        if (campos.tienePeso()) {
+            grafo.agregarArista(a, b, true, bidireccional, peso);
+        } else {
+            grafo.agregarArista(a, b, true, bidireccional);
+        }
+    }
+}
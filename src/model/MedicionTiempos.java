@@ -0,0 +1,179 @@
+package model;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Clase MedicionTiempos
+ *
+ * Tiempos registrados por algoritmo, cada uno en un HistogramaLatencias
+ * (memoria fija aunque se ejecuten miles de búsquedas), los promedios
+ * de sus contadores de trabajo (ver ResultadoBusqueda) y la forma de
+ * medir cada búsqueda:
+ * - Calentamiento: ejecuciones previas que no se registran, para que
+ *   el JIT compile el algoritmo antes de medirlo
+ * - Repeticiones: ejecuciones registradas por cada búsqueda
+ *
+ * Si tiene un RegistroTiempos, cada ejecución registrada se agrega
+ * también como fila (ver setRegistro).
+ *
+ * Ver InstantaneaGrafo.medir.
+ */
+public final class MedicionTiempos {
+
+    // Un histograma por algoritmo, en el orden de ConsultaRuta.ALGORITMOS
+    private final Map<String, HistogramaLatencias> histogramas = new LinkedHashMap<>();
+
+    // Contadores de trabajo acumulados por algoritmo
+    private final Map<String, Contadores> contadores = new LinkedHashMap<>();
+
+    private volatile int calentamiento;
+    private volatile int repeticiones;
+
+    // Registro de cada ejecución en archivo (puede ser null)
+    private volatile RegistroTiempos registro;
+
+    /**
+     * @param calentamiento Ejecuciones sin registrar antes de medir
+     * @param repeticiones Ejecuciones registradas por búsqueda (al menos 1)
+     */
+    public MedicionTiempos(int calentamiento, int repeticiones) {
+
+        for (String algoritmo : ConsultaRuta.ALGORITMOS) {
+            histogramas.put(algoritmo, new HistogramaLatencias());
+            contadores.put(algoritmo, new Contadores());
+        }
+
+        setCalentamiento(calentamiento);
+        setRepeticiones(repeticiones);
+    }
+
+    /**
+     * Histograma del algoritmo (uno de ConsultaRuta.ALGORITMOS).
+     */
+    public HistogramaLatencias getHistograma(String algoritmo) {
+        return histogramas.get(algoritmo);
+    }
+
+    /**
+     * Contadores de trabajo acumulados del algoritmo.
+     */
+    public Contadores getContadores(String algoritmo) {
+        return contadores.get(algoritmo);
+    }
+
+    /**
+     * Registra una ejecución del algoritmo: su tiempo en el histograma,
+     * sus contadores de trabajo y, si hay registro, su fila.
+     *
+     * @param version Versión del grafo sobre la que se ejecutó
+     */
+    public void registrar(String algoritmo, String origen, String destino,
+                          long version, ResultadoBusqueda resultado) {
+
+        histogramas.get(algoritmo).registrar(resultado.tiempo);
+        contadores.get(algoritmo).registrar(resultado);
+
+        RegistroTiempos r = registro;
+        if (r != null) r.agregar(version, algoritmo, origen, destino, resultado);
+    }
+
+    /**
+     * Agrega en adelante cada ejecución registrada a este registro
+     * (null para no guardarlas).
+     */
+    public void setRegistro(RegistroTiempos registro) {
+        this.registro = registro;
+    }
+
+    /**
+     * Histogramas de todos los algoritmos, en orden.
+     */
+    public Map<String, HistogramaLatencias> getHistogramas() {
+        return Collections.unmodifiableMap(histogramas);
+    }
+
+    public int getCalentamiento() {
+        return calentamiento;
+    }
+
+    public void setCalentamiento(int calentamiento) {
+        this.calentamiento = Math.max(0, calentamiento);
+    }
+
+    public int getRepeticiones() {
+        return repeticiones;
+    }
+
+    public void setRepeticiones(int repeticiones) {
+        this.repeticiones = Math.max(1, repeticiones);
+    }
+
+    /**
+     * Descarta las mediciones de todos los algoritmos.
+     */
+    public void reiniciar() {
+        for (HistogramaLatencias h : histogramas.values()) {
+            h.reiniciar();
+        }
+        for (Contadores c : contadores.values()) {
+            c.reiniciar();
+        }
+    }
+
+    /**
+     * Sumas de los contadores de trabajo de las ejecuciones de un
+     * algoritmo, para mostrar sus promedios. Los bytes asignados se
+     * promedian solo sobre las ejecuciones en que se midieron.
+     */
+    public static final class Contadores {
+
+        private long ejecuciones;
+        private long expandidos;
+        private long aristas;
+        private long frontera;
+        private long saltos;
+        private long bytes;
+        private long conBytes;
+
+        private synchronized void registrar(ResultadoBusqueda r) {
+            ejecuciones++;
+            expandidos += r.nodosExpandidos;
+            aristas += r.aristasExaminadas;
+            frontera += r.fronteraMaxima;
+            saltos += r.getSaltos();
+            if (r.bytesAsignados >= 0) {
+                bytes += r.bytesAsignados;
+                conBytes++;
+            }
+        }
+
+        private synchronized void reiniciar() {
+            ejecuciones = expandidos = aristas = frontera = saltos = bytes = conBytes = 0;
+        }
+
+        public synchronized double getExpandidos() {
+            return ejecuciones == 0 ? 0 : (double) expandidos / ejecuciones;
+        }
+
+        public synchronized double getAristas() {
+            return ejecuciones == 0 ? 0 : (double) aristas / ejecuciones;
+        }
+
+        public synchronized double getFrontera() {
+            return ejecuciones == 0 ? 0 : (double) frontera / ejecuciones;
+        }
+
+        public synchronized double getSaltos() {
+            return ejecuciones == 0 ? 0 : (double) saltos / ejecuciones;
+        }
+
+        /**
+         * Promedio de bytes asignados, o -1 si no se midieron.
+         */
+        public synchronized double getBytes() {
+            return conBytes == 0 ? -1 : (double) bytes / conBytes;
+        }
+    }
+}
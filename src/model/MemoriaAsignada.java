@@ -0,0 +1,68 @@
+package model;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Clase MemoriaAsignada
+ *
+ * Mide los bytes que asigna el hilo actual con el ThreadMXBean de la
+ * JVM (com.sun.management), para saber cuánta memoria pide cada
+ * búsqueda además de cuánto tarda.
+ *
+ * Leer el contador cuesta poco, pero no es gratis; con setActiva(false)
+ * las búsquedas no lo consultan y su bytesAsignados queda en -1.
+ * Si la JVM no ofrece la medición, queda siempre inactiva.
+ */
+public final class MemoriaAsignada {
+
+    // null si la JVM no permite medir la memoria por hilo
+    private static final com.sun.management.ThreadMXBean HILOS = iniciar();
+
+    private static volatile boolean activa = HILOS != null;
+
+    private MemoriaAsignada() {}
+
+    private static com.sun.management.ThreadMXBean iniciar() {
+
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (!(bean instanceof com.sun.management.ThreadMXBean)) return null;
+
+        com.sun.management.ThreadMXBean hilos = (com.sun.management.ThreadMXBean) bean;
+        if (!hilos.isThreadAllocatedMemorySupported()) return null;
+
+        try {
+            hilos.setThreadAllocatedMemoryEnabled(true);
+        } catch (UnsupportedOperationException | SecurityException e) {
+            return null;
+        }
+
+        return hilos;
+    }
+
+    /**
+     * Indica si la JVM permite medir la memoria asignada.
+     */
+    public static boolean estaDisponible() {
+        return HILOS != null;
+    }
+
+    public static boolean estaActiva() {
+        return activa;
+    }
+
+    /**
+     * Activa o desactiva la medición (no tiene efecto si no está disponible).
+     */
+    public static void setActiva(boolean valor) {
+        activa = valor && HILOS != null;
+    }
+
+    /**
+     * Bytes asignados hasta ahora por el hilo actual, o -1 si la
+     * medición está desactivada.
+     */
+    static long leer() {
+        return activa ? HILOS.getCurrentThreadAllocatedBytes() : -1;
+    }
+}
@@ -0,0 +1,160 @@
+package model;
+
+import java.util.Arrays;
+
+/**
+ * Clase MonticuloIndexado
+ *
+ * Montículo binario mínimo sobre índices enteros de nodos (0..n-1),
+ * ordenado por una prioridad double.
+ *
+ * A diferencia de PriorityQueue, guarda la posición de cada nodo
+ * dentro del montículo, lo que permite disminuir su prioridad
+ * sin insertar duplicados. Todas las operaciones trabajan sobre
+ * arreglos primitivos reservados en el constructor, por lo que no
+ * crean objetos durante la búsqueda.
+ */
+public final class MonticuloIndexado {
+
+    // Nodos ordenados como árbol binario (monticulo[0] es el mínimo)
+    private final int[] monticulo;
+
+    // Posición de cada nodo en el montículo (-1 si no está)
+    private final int[] posicion;
+
+    // Prioridad actual de cada nodo
+    private final double[] prioridad;
+
+    // Cantidad de elementos en el montículo
+    private int tamano;
+
+    /**
+     * Crea un montículo para nodos con índice entre 0 y capacidad - 1.
+     */
+    public MonticuloIndexado(int capacidad) {
+        monticulo = new int[capacidad];
+        posicion = new int[capacidad];
+        prioridad = new double[capacidad];
+        Arrays.fill(posicion, -1);
+    }
+
+    /**
+     * Indica si el montículo no tiene elementos.
+     */
+    public boolean estaVacio() {
+        return tamano == 0;
+    }
+
+    /**
+     * Devuelve la cantidad de elementos en el montículo.
+     */
+    public int tamano() {
+        return tamano;
+    }
+
+    /**
+     * Indica si el nodo está actualmente en el montículo.
+     */
+    public boolean contiene(int nodo) {
+        return posicion[nodo] >= 0;
+    }
+
+    /**
+     * Inserta un nodo o, si ya está, reduce su prioridad.
+     * Si la nueva prioridad no es menor, no hace nada.
+     */
+    public void insertarODisminuir(int nodo, double valor) {
+
+        int i = posicion[nodo];
+
+        if (i < 0) {
+            i = tamano++;
+            monticulo[i] = nodo;
+            posicion[nodo] = i;
+        } else if (valor >= prioridad[nodo]) {
+            return;
+        }
+
+        prioridad[nodo] = valor;
+        subir(i);
+    }
+
+    /**
+     * Devuelve la prioridad del mínimo sin extraerlo.
+     */
+    public double prioridadMinima() {
+        return prioridad[monticulo[0]];
+    }
+
+    /**
+     * Extrae el nodo con menor prioridad.
+     */
+    public int extraerMinimo() {
+
+        int minimo = monticulo[0];
+        posicion[minimo] = -1;
+
+        tamano--;
+        if (tamano > 0) {
+            monticulo[0] = monticulo[tamano];
+            posicion[monticulo[0]] = 0;
+            bajar(0);
+        }
+
+        return minimo;
+    }
+
+    /**
+     * Vacía el montículo para reutilizarlo.
+     */
+    public void limpiar() {
+        for (int i = 0; i < tamano; i++) {
+            posicion[monticulo[i]] = -1;
+        }
+        tamano = 0;
+    }
+
+    private void subir(int i) {
+
+        int nodo = monticulo[i];
+        double valor = prioridad[nodo];
+
+        while (i > 0) {
+            int padre = (i - 1) >>> 1;
+            int nodoPadre = monticulo[padre];
+            if (prioridad[nodoPadre] <= valor) break;
+
+            monticulo[i] = nodoPadre;
+            posicion[nodoPadre] = i;
+            i = padre;
+        }
+
+        monticulo[i] = nodo;
+        posicion[nodo] = i;
+    }
+
+    private void bajar(int i) {
+
+        int nodo = monticulo[i];
+        double valor = prioridad[nodo];
+
+        while (true) {
+            int hijo = 2 * i + 1;
+            if (hijo >= tamano) break;
+
+            if (hijo + 1 < tamano && prioridad[monticulo[hijo + 1]] < prioridad[monticulo[hijo]]) {
+                hijo++;
+            }
+
+            int nodoHijo = monticulo[hijo];
+            if (prioridad[nodoHijo] >= valor) break;
+
+            monticulo[i] = nodoHijo;
+            posicion[nodoHijo] = i;
+            i = hijo;
+        }
+
+        monticulo[i] = nodo;
+        posicion[nodo] = i;
+    }
+}
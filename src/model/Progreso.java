@@ -0,0 +1,51 @@
+package model;
+
+import java.util.concurrent.CancellationException;
+
+/**
+ * Clase Progreso
+ *
+ * Comunica una búsqueda que corre en otro hilo con quien la lanzó:
+ * - La búsqueda publica cuántos nodos lleva expandidos
+ * - Quien la lanzó puede pedir que se cancele
+ *
+ * Los algoritmos de GrafoCompilado llaman a avanzar() cada pocos
+ * miles de nodos, así que el costo por nodo es despreciable y la
+ * cancelación se nota casi de inmediato.
+ */
+public final class Progreso {
+
+    private volatile long expandidos;
+    private volatile boolean cancelado;
+
+    /**
+     * Pide que la búsqueda se detenga en su próximo aviso de avance.
+     */
+    public void cancelar() {
+        cancelado = true;
+    }
+
+    /**
+     * Indica si se pidió cancelar la búsqueda.
+     */
+    public boolean estaCancelado() {
+        return cancelado;
+    }
+
+    /**
+     * Nodos expandidos hasta el último aviso de avance.
+     */
+    public long getExpandidos() {
+        return expandidos;
+    }
+
+    /**
+     * Registra el avance de la búsqueda.
+     *
+     * @throws CancellationException si se pidió cancelarla
+     */
+    void avanzar(long expandidos) {
+        this.expandidos = expandidos;
+        if (cancelado) throw new CancellationException("Búsqueda cancelada");
+    }
+}
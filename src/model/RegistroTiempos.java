@@ -0,0 +1,203 @@
+package model;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Clase RegistroTiempos
+ *
+ * Registro de solo agregado de las ejecuciones medidas (tiempos.csv):
+ * una fila por ejecución con la versión del grafo, el algoritmo, el
+ * origen, el destino, el tiempo y los contadores de trabajo.
+ *
+ * - agregar() solo arma la fila y la deja en memoria; no toca el disco,
+ *   así que registrar cuesta lo mismo con 10 o con 10.000 filas
+ * - Un hilo propio agrega las filas pendientes al final del archivo
+ *   cada INTERVALO ms, todas juntas en una sola escritura
+ * - Cuando el archivo supera el tamaño máximo se rota: tiempos.csv
+ *   pasa a tiempos.1.csv (el anterior a tiempos.2.csv, ...) y se
+ *   empieza uno nuevo con el encabezado; se conservan ARCHIVOS_VIEJOS
+ * - Si el archivo existente tiene otro encabezado (otro formato),
+ *   se rota antes de agregar, para no mezclar formatos
+ * - Al cerrar la aplicación se escriben las filas pendientes
+ */
+public final class RegistroTiempos {
+
+    public static final String ENCABEZADO =
+            "Version,Algoritmo,Origen,Destino,Tiempo_ms,Expandidos,Aristas,Frontera_max,Saltos,Bytes";
+
+    // Cada cuántos milisegundos se escriben las filas pendientes
+    private static final long INTERVALO = 500;
+
+    // Archivos rotados que se conservan
+    private static final int ARCHIVOS_VIEJOS = 5;
+
+    private final Path archivo;
+    private final long tamanoMaximo;
+
+    // Filas aún no escritas (protegidas por this)
+    private List<String> pendientes = new ArrayList<>();
+
+    // Protege el archivo (hilo de escritura y cerrar())
+    private final Object escritura = new Object();
+
+    private boolean abierto;
+    private long tamano;
+
+    private final ScheduledExecutorService escritor =
+            Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread hilo = new Thread(r, "registro-tiempos");
+                hilo.setDaemon(true);
+                return hilo;
+            });
+
+    /**
+     * @param rutaArchivo Archivo CSV (por ejemplo tiempos.csv)
+     * @param tamanoMaximo Bytes a partir de los cuales se rota
+     */
+    public RegistroTiempos(String rutaArchivo, long tamanoMaximo) {
+
+        this.archivo = Paths.get(rutaArchivo).toAbsolutePath();
+        this.tamanoMaximo = tamanoMaximo;
+
+        escritor.scheduleWithFixedDelay(this::escribirPendientes,
+                INTERVALO, INTERVALO, TimeUnit.MILLISECONDS);
+
+        Runtime.getRuntime().addShutdownHook(new Thread(this::cerrar, "registro-tiempos-cierre"));
+    }
+
+    /**
+     * Agrega la fila de una ejecución medida. Puede llamarse desde
+     * cualquier hilo; la fila se escribe más tarde en segundo plano.
+     */
+    public void agregar(long version, String algoritmo, String origen, String destino,
+                        ResultadoBusqueda r) {
+
+        String fila = version + "," + algoritmo + "," + origen + "," + destino + "," +
+                r.tiempo / 1_000_000.0 + "," +
+                r.nodosExpandidos + "," +
+                r.aristasExaminadas + "," +
+                r.fronteraMaxima + "," +
+                r.getSaltos() + "," +
+                (r.bytesAsignados < 0 ? "" : String.valueOf(r.bytesAsignados));
+
+        synchronized (this) {
+            pendientes.add(fila);
+        }
+    }
+
+    /**
+     * Escribe las filas pendientes y detiene el hilo de escritura.
+     */
+    public void cerrar() {
+
+        escritor.shutdown();
+        try {
+            escritor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        escribirPendientes();
+    }
+
+    /**
+     * Agrega al archivo las filas acumuladas desde la última escritura.
+     */
+    private void escribirPendientes() {
+
+        List<String> filas;
+        synchronized (this) {
+            if (pendientes.isEmpty()) return;
+            filas = pendientes;
+            pendientes = new ArrayList<>();
+        }
+
+        synchronized (escritura) {
+            try {
+                if (!abierto) abrir();
+                if (tamano >= tamanoMaximo) rotar();
+
+                StringBuilder texto = new StringBuilder();
+                if (tamano == 0) texto.append(ENCABEZADO).append('\n');
+                for (String fila : filas) {
+                    texto.append(fila).append('\n');
+                }
+
+                byte[] bytes = texto.toString().getBytes(StandardCharsets.UTF_8);
+                Files.write(archivo, bytes, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+
+                tamano += bytes.length;
+
+            } catch (IOException e) {
+                // Las filas se pierden, pero el registro sigue funcionando
+                e.printStackTrace();
+                abierto = false;
+            }
+        }
+    }
+
+    /**
+     * Revisa el archivo existente: si tiene otro formato, lo rota.
+     */
+    private void abrir() throws IOException {
+
+        tamano = Files.exists(archivo) ? Files.size(archivo) : 0;
+
+        if (tamano > 0) {
+            String primera;
+            try (BufferedReader br = Files.newBufferedReader(archivo, StandardCharsets.UTF_8)) {
+                primera = br.readLine();
+            }
+            if (!ENCABEZADO.equals(primera)) rotar();
+        }
+
+        abierto = true;
+    }
+
+    /**
+     * Corre los archivos viejos un lugar (el más viejo se descarta)
+     * y pasa el actual a .1; el próximo se empieza vacío.
+     */
+    private void rotar() throws IOException {
+
+        Files.deleteIfExists(viejo(ARCHIVOS_VIEJOS));
+        for (int i = ARCHIVOS_VIEJOS - 1; i >= 1; i--) {
+            if (Files.exists(viejo(i))) {
+                Files.move(viejo(i), viejo(i + 1), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+
+        if (Files.exists(archivo)) {
+            Files.move(archivo, viejo(1), StandardCopyOption.REPLACE_EXISTING);
+        }
+
+        tamano = 0;
+    }
+
+    /**
+     * Archivo rotado número i: tiempos.csv -> tiempos.i.csv
+     */
+    private Path viejo(int i) {
+
+        String nombre = archivo.getFileName().toString();
+        int punto = nombre.lastIndexOf('.');
+
+        String rotado = punto < 0
+                ? nombre + "." + i
+                : nombre.substring(0, punto) + "." + i + nombre.substring(punto);
+
+        return archivo.resolveSibling(rotado);
+    }
+}
@@ -7,13 +7,16 @@ import java.util.Map;
  * Clase ResultadoBusqueda
  *
  * Representa el resultado obtenido después de ejecutar
- * un algoritmo de búsqueda (BFS o DFS).
+ * un algoritmo de búsqueda (BFS, DFS, Dijkstra, A*, ...).
  *
  * Contiene:
  * - La ruta encontrada desde el nodo inicio hasta el nodo fin
  * - El orden de nodos visitados durante la ejecución
  * - El mapa de padres usado para reconstruir el camino
  * - El tiempo de ejecución en nanosegundos
+ * - Contadores de trabajo: nodos expandidos, aristas examinadas,
+ *   tamaño máximo de la frontera y bytes asignados
+ * - Si fue reutilizado desde la caché de Grafo
  *
  * Esta clase funciona como un contenedor de datos
  * que permite enviar toda la información al controlador y la vista.
@@ -34,6 +37,24 @@ public class ResultadoBusqueda {
     // Tiempo total de ejecución del algoritmo (en nanosegundos)
     public long tiempo;
 
+    // Cantidad de nodos expandidos (sacados de la cola, pila o montículo)
+    public int nodosExpandidos;
+
+    // Aristas revisadas al expandir nodos (vecinos consultados)
+    public long aristasExaminadas;
+
+    // Tamaño máximo de la frontera (cola, pila, montículo o profundidad
+    // de recursión) durante la búsqueda
+    public int fronteraMaxima;
+
+    // Bytes asignados por el hilo durante la búsqueda, incluido armar
+    // este resultado; -1 si no se midieron (ver MemoriaAsignada)
+    public long bytesAsignados = -1;
+
+    // true si el resultado se tomó de la caché en lugar de calcularse;
+    // en ese caso tiempo es el de la ejecución original
+    public boolean desdeCache;
+
     /**
      * Constructor que inicializa todos los datos del resultado.
      *
@@ -50,5 +71,27 @@ public class ResultadoBusqueda {
         this.visitados = visitados;
         this.padres = padres;
         this.tiempo = tiempo;
+        this.nodosExpandidos = visitados == null ? 0 : visitados.size();
+    }
+
+    /**
+     * Cantidad de saltos de la ruta (aristas recorridas).
+     */
+    public int getSaltos() {
+        return ruta == null || ruta.isEmpty() ? 0 : ruta.size() - 1;
+    }
+
+    /**
+     * Devuelve una copia marcada como tomada de la caché.
+     * Las listas y el mapa se comparten con el original.
+     */
+    public ResultadoBusqueda copiaDesdeCache() {
+        ResultadoBusqueda copia = new ResultadoBusqueda(ruta, visitados, padres, tiempo);
+        copia.nodosExpandidos = nodosExpandidos;
+        copia.aristasExaminadas = aristasExaminadas;
+        copia.fronteraMaxima = fronteraMaxima;
+        copia.bytesAsignados = bytesAsignados;
+        copia.desdeCache = true;
+        return copia;
     }
 }
@@ -0,0 +1,144 @@
+package model;
+
+import java.io.BufferedWriter;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Clase ResultadoLote
+ *
+ * Resultado de ejecutar un lote de consultas (ver Grafo.buscarLote).
+ *
+ * Contiene:
+ * - El ResultadoBusqueda de cada consulta, en el orden del lote
+ *   (null si algún nodo no existe o no hay ruta)
+ * - La latencia de cada consulta en nanosegundos
+ * - El tiempo total del lote, con el que se calcula el rendimiento
+ *   (consultas por segundo usando todos los núcleos)
+ */
+public class ResultadoLote {
+
+    private final List<ConsultaRuta> consultas;
+    private final List<ResultadoBusqueda> resultados;
+    private final long[] latencias;
+    private final long tiempoTotal;
+
+    // Latencias ordenadas, para los percentiles
+    private final long[] ordenadas;
+
+    /**
+     * @param consultas Consultas del lote
+     * @param resultados Resultado de cada consulta (mismo orden)
+     * @param latencias Latencia de cada consulta en nanosegundos
+     * @param tiempoTotal Tiempo total del lote en nanosegundos
+     */
+    public ResultadoLote(List<ConsultaRuta> consultas,
+                         List<ResultadoBusqueda> resultados,
+                         long[] latencias,
+                         long tiempoTotal) {
+        this.consultas = consultas;
+        this.resultados = resultados;
+        this.latencias = latencias;
+        this.tiempoTotal = tiempoTotal;
+        this.ordenadas = latencias.clone();
+        Arrays.sort(ordenadas);
+    }
+
+    public List<ConsultaRuta> getConsultas() {
+        return consultas;
+    }
+
+    public List<ResultadoBusqueda> getResultados() {
+        return resultados;
+    }
+
+    /**
+     * Latencia de la consulta i en nanosegundos.
+     */
+    public long getLatencia(int i) {
+        return latencias[i];
+    }
+
+    /**
+     * Tiempo total del lote en nanosegundos.
+     */
+    public long getTiempoTotal() {
+        return tiempoTotal;
+    }
+
+    /**
+     * Cantidad de consultas que encontraron ruta.
+     */
+    public int getRutasEncontradas() {
+        int total = 0;
+        for (ResultadoBusqueda r : resultados) {
+            if (r != null) total++;
+        }
+        return total;
+    }
+
+    /**
+     * Consultas resueltas por segundo.
+     */
+    public double getConsultasPorSegundo() {
+        return tiempoTotal == 0 ? 0 : consultas.size() * 1e9 / tiempoTotal;
+    }
+
+    /**
+     * Percentil p (0..100) de las latencias, en nanosegundos
+     * (método del rango más cercano). 0 si el lote está vacío.
+     */
+    public long percentil(double p) {
+        return percentil(ordenadas, p);
+    }
+
+    /**
+     * Percentil p (0..100) de valores ya ordenados
+     * (método del rango más cercano). 0 si no hay valores.
+     */
+    public static long percentil(long[] ordenados, double p) {
+        if (ordenados.length == 0) return 0;
+        int rango = (int) Math.ceil(p / 100.0 * ordenados.length);
+        return ordenados[Math.min(ordenados.length, Math.max(1, rango)) - 1];
+    }
+
+    /**
+     * Resumen de una línea: rutas, rendimiento y percentiles en ms.
+     */
+    public String getResumen() {
+        return String.format(
+                "%d consultas (%d con ruta) en %.1f ms: %.1f consultas/s; latencia p50 %.3f ms, p90 %.3f ms, p99 %.3f ms, máx %.3f ms",
+                consultas.size(), getRutasEncontradas(), tiempoTotal / 1e6,
+                getConsultasPorSegundo(),
+                percentil(50) / 1e6, percentil(90) / 1e6, percentil(99) / 1e6,
+                percentil(100) / 1e6);
+    }
+
+    /**
+     * Guarda una fila por consulta en CSV:
+     * origen, destino, algoritmo, si hubo ruta, saltos, nodos expandidos
+     * y latencia en ms.
+     */
+    public void guardarCSV(String rutaArchivo) throws IOException {
+
+        try (PrintWriter pw = new PrintWriter(new BufferedWriter(new FileWriter(rutaArchivo)))) {
+
+            pw.println("Origen,Destino,Algoritmo,Ruta,Saltos,Expandidos,Latencia_ms");
+
+            for (int i = 0; i < consultas.size(); i++) {
+
+                ConsultaRuta c = consultas.get(i);
+                ResultadoBusqueda r = resultados.get(i);
+
+                pw.println(c + "," +
+                        (r != null ? 1 : 0) + "," +
+                        (r != null ? r.ruta.size() - 1 : -1) + "," +
+                        (r != null ? r.nodosExpandidos : 0) + "," +
+                        latencias[i] / 1_000_000.0);
+            }
+        }
+    }
+}
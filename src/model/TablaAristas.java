@@ -0,0 +1,247 @@
+package model;
+
+import java.util.Arrays;
+
+/**
+ * Clase TablaAristas
+ *
+ * Almacén de aristas dirigidas con claves long empaquetadas:
+ * clave = (número de origen << 32) | número de destino,
+ * donde los números son los índices densos que Grafo asigna
+ * a cada nodo.
+ *
+ * Cada arista guarda un byte de banderas y, opcionalmente, un peso:
+ * - VISIBLE: la arista se dibuja y se guarda en el archivo
+ * - BIDIRECCIONAL: la arista visible representa ambos sentidos
+ * - CON_PESO: la arista tiene un peso explícito
+ *
+ * Es una tabla hash de direccionamiento abierto (sondeo lineal)
+ * sobre arreglos primitivos, así que agregar, consultar y borrar
+ * no crean Strings ni objetos. Una posición está ocupada si sus
+ * banderas son distintas de 0.
+ *
+ * Para recorrerla se itera de 0 a capacidad() - 1 usando
+ * banderasEn(i) y claveEn(i).
+ */
+public final class TablaAristas {
+
+    public static final byte VISIBLE = 1;
+    public static final byte BIDIRECCIONAL = 2;
+    public static final byte CON_PESO = 4;
+
+    private long[] claves;
+    private byte[] banderas;
+    private double[] pesos;
+
+    // Cantidad de aristas guardadas
+    private int tamano;
+
+    // 64 - log2(capacidad), para el hash multiplicativo
+    private int desplazamiento;
+
+    /**
+     * Crea una tabla vacía.
+     */
+    public TablaAristas() {
+        reservar(16);
+    }
+
+    /**
+     * Empaqueta el par (origen, destino) en una clave.
+     */
+    public static long clave(int origen, int destino) {
+        return ((long) origen << 32) | (destino & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Número del nodo origen de una clave.
+     */
+    public static int origen(long clave) {
+        return (int) (clave >>> 32);
+    }
+
+    /**
+     * Número del nodo destino de una clave.
+     */
+    public static int destino(long clave) {
+        return (int) clave;
+    }
+
+    /**
+     * Cantidad de aristas guardadas.
+     */
+    public int tamano() {
+        return tamano;
+    }
+
+    /**
+     * Tamaño de los arreglos internos (límite para recorrer la tabla).
+     */
+    public int capacidad() {
+        return claves.length;
+    }
+
+    /**
+     * Clave guardada en la posición i (válida si banderasEn(i) != 0).
+     */
+    public long claveEn(int i) {
+        return claves[i];
+    }
+
+    /**
+     * Banderas de la posición i (0 si está vacía).
+     */
+    public byte banderasEn(int i) {
+        return banderas[i];
+    }
+
+    /**
+     * Peso de la posición i (válido si tiene CON_PESO).
+     */
+    public double pesoEn(int i) {
+        return pesos[i];
+    }
+
+    /**
+     * Banderas de la arista, o 0 si no existe.
+     */
+    public byte banderas(long clave) {
+        int i = buscar(clave);
+        return i < 0 ? 0 : banderas[i];
+    }
+
+    /**
+     * Peso explícito de la arista, o NaN si no tiene.
+     */
+    public double peso(long clave) {
+        int i = buscar(clave);
+        return i >= 0 && (banderas[i] & CON_PESO) != 0 ? pesos[i] : Double.NaN;
+    }
+
+    /**
+     * Marca la arista como visible (uni o bidireccional).
+     * Conserva su peso si ya lo tenía.
+     */
+    public void ponerVisible(long clave, boolean bidireccional) {
+        int i = insertar(clave);
+        banderas[i] = (byte) ((banderas[i] & CON_PESO) | VISIBLE
+                | (bidireccional ? BIDIRECCIONAL : 0));
+    }
+
+    /**
+     * Asigna un peso explícito a la arista.
+     */
+    public void ponerPeso(long clave, double peso) {
+        int i = insertar(clave);
+        banderas[i] |= CON_PESO;
+        pesos[i] = peso;
+    }
+
+    /**
+     * Elimina la arista con todas sus banderas y su peso.
+     */
+    public void quitar(long clave) {
+
+        int i = buscar(clave);
+        if (i < 0) return;
+
+        int mascara = claves.length - 1;
+        tamano--;
+
+        // Borrado con desplazamiento hacia atrás: se recolocan las
+        // entradas siguientes del mismo grupo para no dejar huecos
+        int hueco = i;
+        int j = i;
+        while (true) {
+            j = (j + 1) & mascara;
+            if (banderas[j] == 0) break;
+
+            int ideal = posicionIdeal(claves[j]);
+            boolean mover = hueco <= j
+                    ? ideal <= hueco || ideal > j
+                    : ideal <= hueco && ideal > j;
+
+            if (mover) {
+                claves[hueco] = claves[j];
+                banderas[hueco] = banderas[j];
+                pesos[hueco] = pesos[j];
+                hueco = j;
+            }
+        }
+
+        banderas[hueco] = 0;
+    }
+
+    /**
+     * Elimina todas las aristas.
+     */
+    public void limpiar() {
+        Arrays.fill(banderas, (byte) 0);
+        tamano = 0;
+    }
+
+    // Posición de la clave, o -1 si no está
+    private int buscar(long clave) {
+        int mascara = claves.length - 1;
+        for (int i = posicionIdeal(clave); banderas[i] != 0; i = (i + 1) & mascara) {
+            if (claves[i] == clave) return i;
+        }
+        return -1;
+    }
+
+    // Posición de la clave, creándola (con banderas 0 aún) si no existe
+    private int insertar(long clave) {
+
+        int i = buscar(clave);
+        if (i >= 0) return i;
+
+        // Se mantiene la ocupación por debajo del 50%
+        if ((tamano + 1) * 2 > claves.length) {
+            crecer();
+        }
+
+        int mascara = claves.length - 1;
+        i = posicionIdeal(clave);
+        while (banderas[i] != 0) {
+            i = (i + 1) & mascara;
+        }
+
+        claves[i] = clave;
+        tamano++;
+        return i;
+    }
+
+    private void crecer() {
+
+        long[] viejasClaves = claves;
+        byte[] viejasBanderas = banderas;
+        double[] viejosPesos = pesos;
+
+        reservar(claves.length * 2);
+
+        int mascara = claves.length - 1;
+        for (int k = 0; k < viejasClaves.length; k++) {
+            if (viejasBanderas[k] == 0) continue;
+
+            int i = posicionIdeal(viejasClaves[k]);
+            while (banderas[i] != 0) {
+                i = (i + 1) & mascara;
+            }
+            claves[i] = viejasClaves[k];
+            banderas[i] = viejasBanderas[k];
+            pesos[i] = viejosPesos[k];
+        }
+    }
+
+    private void reservar(int capacidad) {
+        claves = new long[capacidad];
+        banderas = new byte[capacidad];
+        pesos = new double[capacidad];
+        desplazamiento = 64 - Integer.numberOfTrailingZeros(capacidad);
+    }
+
+    // Hash multiplicativo (Fibonacci) de la clave
+    private int posicionIdeal(long clave) {
+        return (int) ((clave * 0x9E3779B97F4A7C15L) >>> desplazamiento);
+    }
+}
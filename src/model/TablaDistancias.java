@@ -0,0 +1,202 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Clase TablaDistancias
+ *
+ * Resultado de un BFS completo desde un origen: la distancia en
+ * saltos y el padre de cada nodo, en arreglos int[] indexados por
+ * el índice denso de GrafoCompilado.
+ *
+ * Se construye una vez (un BFS hasta agotar la cola) y luego cada
+ * destino se responde solo reconstruyendo el camino con los padres,
+ * en O(largo de la ruta). La ruta coincide con la de bfs(origen, fin),
+ * porque ambos recorren los vecinos en el mismo orden.
+ *
+ * Es inmutable (salvo la marca de cobrarConstruccion) y pertenece a
+ * una vista compilada concreta: cuando el grafo cambia, Grafo la
+ * descarta junto con la vista.
+ */
+public final class TablaDistancias {
+
+    private final GrafoCompilado grafo;
+    private final int origen;
+
+    // Saltos desde el origen (-1 si no se alcanza)
+    private final int[] distancias;
+
+    // Padre de cada nodo alcanzado (-1 para el origen)
+    private final int[] padres;
+
+    private final int alcanzados;
+    private final long tiempoConstruccion;
+
+    // Trabajo del BFS completo: aristas revisadas y cola más grande
+    private final long aristasExaminadas;
+    private final int fronteraMaxima;
+
+    // Si el BFS completo ya se sumó a alguna consulta
+    private final AtomicBoolean cobrada = new AtomicBoolean();
+
+    private TablaDistancias(GrafoCompilado grafo, int origen, int[] distancias,
+                            int[] padres, int alcanzados, long tiempoConstruccion,
+                            long aristasExaminadas, int fronteraMaxima) {
+        this.grafo = grafo;
+        this.origen = origen;
+        this.distancias = distancias;
+        this.padres = padres;
+        this.alcanzados = alcanzados;
+        this.tiempoConstruccion = tiempoConstruccion;
+        this.aristasExaminadas = aristasExaminadas;
+        this.fronteraMaxima = fronteraMaxima;
+    }
+
+    /**
+     * Ejecuta BFS desde origen hasta recorrer todo lo alcanzable.
+     *
+     * @param progreso Recibe el avance (puede ser null)
+     * @throws java.util.concurrent.CancellationException si se cancela
+     */
+    public static TablaDistancias construir(GrafoCompilado g, int origen, Progreso progreso) {
+
+        long startTime = System.nanoTime();
+
+        int[] desplazamientos = g.desplazamientos();
+        int[] destinos = g.destinos();
+
+        int n = g.getNumeroNodos();
+        int[] distancias = new int[n];
+        int[] padres = new int[n];
+        int[] cola = new int[n];
+        Arrays.fill(distancias, -1);
+
+        int cabeza = 0;
+        int ultimo = 0;
+
+        long aristas = 0;
+        int frontera = 1;
+
+        cola[ultimo++] = origen;
+        distancias[origen] = 0;
+        padres[origen] = -1;
+
+        while (cabeza < ultimo) {
+
+            int actual = cola[cabeza++];
+            if ((cabeza & 4095) == 0 && progreso != null) progreso.avanzar(cabeza);
+
+            int siguiente = distancias[actual] + 1;
+            aristas += desplazamientos[actual + 1] - desplazamientos[actual];
+
+            for (int k = desplazamientos[actual]; k < desplazamientos[actual + 1]; k++) {
+                int vecino = destinos[k];
+                if (distancias[vecino] < 0) {
+                    distancias[vecino] = siguiente;
+                    padres[vecino] = actual;
+                    cola[ultimo++] = vecino;
+                }
+            }
+
+            if (ultimo - cabeza > frontera) frontera = ultimo - cabeza;
+        }
+
+        return new TablaDistancias(g, origen, distancias, padres, ultimo,
+                System.nanoTime() - startTime, aristas, frontera);
+    }
+
+    /**
+     * Indica si la tabla sirve para consultas desde origen
+     * sobre esa vista compilada.
+     */
+    public boolean esDe(GrafoCompilado g, int origen) {
+        return grafo == g && this.origen == origen;
+    }
+
+    /**
+     * Índice del nodo origen.
+     */
+    public int getOrigen() {
+        return origen;
+    }
+
+    /**
+     * Saltos desde el origen hasta destino, o -1 si no se alcanza.
+     */
+    public int getDistancia(int destino) {
+        return distancias[destino];
+    }
+
+    /**
+     * Cantidad de nodos alcanzables desde el origen (incluido).
+     */
+    public int getAlcanzados() {
+        return alcanzados;
+    }
+
+    /**
+     * Tiempo que tomó el BFS completo, en nanosegundos.
+     */
+    public long getTiempoConstruccion() {
+        return tiempoConstruccion;
+    }
+
+    /**
+     * Aristas revisadas por el BFS completo.
+     */
+    public long getAristasExaminadas() {
+        return aristasExaminadas;
+    }
+
+    /**
+     * Tamaño máximo que alcanzó la cola del BFS completo.
+     */
+    public int getFronteraMaxima() {
+        return fronteraMaxima;
+    }
+
+    /**
+     * Devuelve true solo la primera vez que se llama: la consulta que
+     * lo recibe lleva el costo del BFS completo. Así la construcción
+     * se cuenta una vez aunque la consulta que armó la tabla no
+     * encontrara ruta.
+     */
+    public boolean cobrarConstruccion() {
+        return cobrada.compareAndSet(false, true);
+    }
+
+    /**
+     * Reconstruye la ruta hasta destino sin volver a buscar.
+     * Devuelve null si destino no se alcanza.
+     *
+     * El resultado no tiene nodos visitados (no se expande ninguno);
+     * sus padres son solo los de la ruta. El tiempo es el de la
+     * reconstrucción.
+     */
+    public ResultadoBusqueda ruta(int destino) {
+
+        long startTime = System.nanoTime();
+
+        int largo = distancias[destino];
+        if (largo < 0) return null;
+
+        Nodo[] camino = new Nodo[largo + 1];
+        Map<String, String> mapaPadres = new HashMap<>();
+
+        for (int actual = destino; actual >= 0; actual = padres[actual]) {
+            camino[largo--] = grafo.nodoDe(actual);
+            int padre = padres[actual];
+            mapaPadres.put(grafo.idDe(actual), padre < 0 ? null : grafo.idDe(padre));
+        }
+
+        List<Nodo> ruta = new ArrayList<>(Arrays.asList(camino));
+
+        return new ResultadoBusqueda(ruta, new ArrayList<>(), mapaPadres,
+                System.nanoTime() - startTime);
+    }
+}
@@ -0,0 +1,106 @@
+package model;
+
+import java.util.Arrays;
+
+/**
+ * Clase TablaIds
+ *
+ * Relación ID de nodo -> número de nodo en Grafo, con los IDs
+ * guardados como bytes (tal como aparecen en el archivo).
+ * Permite resolver los extremos de cada arista directamente sobre
+ * el buffer leído, sin crear un String por arista.
+ *
+ * Es una tabla hash de direccionamiento abierto; los bytes de los IDs
+ * se concatenan en un único arreglo. Las consultas no modifican nada,
+ * así que varios hilos pueden consultar a la vez mientras nadie registre.
+ */
+final class TablaIds {
+
+    // Bytes de los IDs concatenados
+    private byte[] arena = new byte[1 << 12];
+    private int usadoArena;
+
+    // Posición y largo del ID en arena, y su número (-1 = vacía)
+    private int[] inicios = new int[64];
+    private int[] largos = new int[64];
+    private int[] numeros = new int[64];
+    private int cantidad;
+
+    TablaIds() {
+        Arrays.fill(numeros, -1);
+    }
+
+    /**
+     * Número del ID datos[inicio, inicio + largo), o -1 si no está.
+     */
+    int buscar(byte[] datos, int inicio, int largo) {
+
+        int mascara = numeros.length - 1;
+        for (int i = hash(datos, inicio, largo) & mascara; numeros[i] >= 0; i = (i + 1) & mascara) {
+            if (largos[i] == largo
+                    && Arrays.equals(arena, inicios[i], inicios[i] + largo,
+                                     datos, inicio, inicio + largo)) {
+                return numeros[i];
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Registra el ID si no estaba (un ID repetido conserva su número).
+     */
+    void registrar(byte[] datos, int inicio, int largo, int numero) {
+
+        if (buscar(datos, inicio, largo) >= 0) return;
+
+        if (usadoArena + largo > arena.length) {
+            arena = Arrays.copyOf(arena, Math.max(arena.length * 2, usadoArena + largo));
+        }
+        System.arraycopy(datos, inicio, arena, usadoArena, largo);
+
+        // Ocupación máxima del 50%
+        if ((cantidad + 1) * 2 > numeros.length) {
+            crecer();
+        }
+
+        colocar(usadoArena, largo, numero);
+        usadoArena += largo;
+        cantidad++;
+    }
+
+    private void crecer() {
+
+        int[] viejosInicios = inicios;
+        int[] viejosLargos = largos;
+        int[] viejosNumeros = numeros;
+
+        inicios = new int[viejosNumeros.length * 2];
+        largos = new int[inicios.length];
+        numeros = new int[inicios.length];
+        Arrays.fill(numeros, -1);
+
+        for (int i = 0; i < viejosNumeros.length; i++) {
+            if (viejosNumeros[i] >= 0) colocar(viejosInicios[i], viejosLargos[i], viejosNumeros[i]);
+        }
+    }
+
+    private void colocar(int inicioArena, int largo, int numero) {
+
+        int mascara = numeros.length - 1;
+        int i = hash(arena, inicioArena, largo) & mascara;
+        while (numeros[i] >= 0) {
+            i = (i + 1) & mascara;
+        }
+        inicios[i] = inicioArena;
+        largos[i] = largo;
+        numeros[i] = numero;
+    }
+
+    private static int hash(byte[] datos, int inicio, int largo) {
+        int h = 0;
+        for (int i = inicio; i < inicio + largo; i++) {
+            h = 31 * h + datos[i];
+        }
+        return (h * 0x9E3779B9) ^ (h * 0x9E3779B9 >>> 16);
+    }
+}
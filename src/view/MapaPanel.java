@@ -1,10 +1,16 @@
 package view;
 
 import java.awt.*;
+import java.awt.image.BufferedImage;
 import java.net.URL;
 import java.util.*;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
 import javax.swing.*;
+import model.Grafo;
+import model.InstantaneaGrafo;
 import model.Nodo;
 
 /**
@@ -17,6 +23,17 @@ import model.Nodo;
  * - La ruta final encontrada
  * - La animación de recorrido
  *
+ * Dibuja siempre una instantánea inmutable del grafo (InstantaneaGrafo),
+ * así que el repintado no depende de lo que se edite después. Tras una
+ * edición la instantánea nueva se arma en un hilo aparte y, mientras
+ * tanto, se sigue dibujando la anterior; varias ediciones seguidas se
+ * juntan en una sola instantánea.
+ *
+ * El fondo, las aristas y los nodos se dibujan una sola vez en una
+ * imagen (capa estática) que solo se rehace al cambiar el tamaño del
+ * panel o la versión del grafo; cada repintado copia esa imagen y
+ * dibuja encima la ruta, la animación y los nodos especiales.
+ *
  * También maneja:
  * - Escalado automático de la imagen
  * - Conversión de coordenadas del mouse
@@ -24,6 +41,18 @@ import model.Nodo;
  */
 public class MapaPanel extends JPanel {
 
+    // Colores de las aristas según su tipo
+    private static final Color ARISTA_BIDIRECCIONAL = new Color(180, 180, 180);
+    private static final Color ARISTA_UNIDIRECCIONAL = new Color(90, 90, 90);
+
+    // Hilo que arma las instantáneas para dibujar; no impide que la
+    // aplicación termine
+    private static final ExecutorService PREPARADOR = Executors.newSingleThreadExecutor(r -> {
+        Thread hilo = new Thread(r, "instantanea-mapa");
+        hilo.setDaemon(true);
+        return hilo;
+    });
+
     // Imagen de fondo del mapa
     private final Image mapa;
 
@@ -39,11 +68,19 @@ public class MapaPanel extends JPanel {
     private int offsetY;
 
     // Estructuras que recibe desde el controlador
-    private Map<String, Nodo> nodos;
-    private Map<String, Boolean> aristasVisibles;
+    private InstantaneaGrafo grafo;
+
+    // Hay una instantánea pedida al PREPARADOR que aún no empezó
+    private final AtomicBoolean pedida = new AtomicBoolean();
     private List<Nodo> nodosAnimacion;
     private List<Nodo> rutaFinal;
 
+    // Capa estática ya dibujada (fondo, aristas y nodos) y de qué
+    // versión del grafo y configuración de pantalla es
+    private BufferedImage capa;
+    private long versionCapa;
+    private GraphicsConfiguration configuracionCapa;
+
     // Nodos especiales
     private Nodo nodoInicio;
     private Nodo nodoFin;
@@ -69,18 +106,28 @@ public class MapaPanel extends JPanel {
     /**
      * Actualiza la información que debe dibujarse en el panel.
      * Luego fuerza un repintado.
+     *
+     * No arma la instantánea del grafo: usa la última disponible y,
+     * si es de una versión anterior, pide la nueva en segundo plano
+     * (ver pedirInstantanea).
      */
     public void actualizar(
-            Map<String, Nodo> nodos,
-            Map<String, Boolean> aristas,
+            Grafo grafo,
             List<Nodo> ruta,
             List<Nodo> animacion,
             Map<String, String> padres,
             Nodo inicio,
             Nodo fin) {
 
-        this.nodos = nodos;
-        this.aristasVisibles = aristas;
+        if (grafo == null) {
+            this.grafo = null;
+        } else {
+            mostrarInstantanea(grafo.getUltimaInstantanea());
+            if (this.grafo == null || this.grafo.getVersion() != grafo.getVersion()) {
+                pedirInstantanea(grafo);
+            }
+        }
+
         this.rutaFinal = ruta;
         this.nodosAnimacion = animacion;
         this.nodoInicio = inicio;
@@ -89,95 +136,167 @@ public class MapaPanel extends JPanel {
         repaint();
     }
 
+    /**
+     * Arma la instantánea de la versión actual en el PREPARADOR y la
+     * dibuja cuando está lista. Si ya hay una pedida que no empezó,
+     * no pide otra: esa tomará la versión más reciente.
+     */
+    private void pedirInstantanea(Grafo modelo) {
+
+        if (!pedida.compareAndSet(false, true)) return;
+
+        PREPARADOR.execute(() -> {
+            pedida.set(false);
+            InstantaneaGrafo nueva = modelo.getInstantanea();
+            SwingUtilities.invokeLater(() -> {
+                mostrarInstantanea(nueva);
+                repaint();
+            });
+        });
+    }
+
+    /**
+     * Pasa a dibujar la instantánea, salvo que sea más vieja que la
+     * actual (una pedida anterior que terminó tarde).
+     */
+    private void mostrarInstantanea(InstantaneaGrafo instantanea) {
+        if (instantanea != null
+                && (grafo == null || instantanea.getVersion() >= grafo.getVersion())) {
+            grafo = instantanea;
+        }
+    }
+
     /**
      * Método principal de dibujo del panel.
      * Se ejecuta automáticamente cuando se llama a repaint().
+     *
+     * Copia la capa estática (ver capaEstatica) y dibuja encima solo
+     * lo que cambia entre repintados: la ruta, la animación y los
+     * nodos especiales. Así un cuadro de la animación no recorre
+     * todas las aristas y nodos del grafo.
      */
     @Override
     protected void paintComponent(Graphics g) {
         super.paintComponent(g);
 
-        int panelW = getWidth();
-        int panelH = getHeight();
-
-        // Calcula la escala manteniendo proporción
-        escala = Math.min(
-                (double) panelW / imgW,
-                (double) panelH / imgH
-        );
-
-        int mapaW = (int) (imgW * escala);
-        int mapaH = (int) (imgH * escala);
-
-        // Centra el mapa dentro del panel
-        offsetX = (panelW - mapaW) / 2;
-        offsetY = (panelH - mapaH) / 2;
-
-        // Dibuja el mapa de fondo
-        g.drawImage(mapa, offsetX, offsetY, mapaW, mapaH, this);
+        g.drawImage(capaEstatica(), 0, 0, null);
 
-        if (nodos == null) return;
+        if (grafo == null) return;
 
         Graphics2D g2 = (Graphics2D) g;
         g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING,
                 RenderingHints.VALUE_ANTIALIAS_ON);
 
         /**
-         * Dibuja las aristas visibles
+         * Dibuja la ruta final encontrada en color azul
          */
-        if (aristasVisibles != null) {
+        if (rutaFinal != null && rutaFinal.size() > 1) {
 
-            g2.setStroke(new BasicStroke(3));
+            g2.setColor(Color.BLUE);
+            g2.setStroke(new BasicStroke(4));
 
-            for (Map.Entry<String, Boolean> entry : aristasVisibles.entrySet()) {
+            for (int i = 0; i < rutaFinal.size() - 1; i++) {
 
-                String clave = entry.getKey();
-                boolean bidireccional = entry.getValue();
+                Nodo n1 = rutaFinal.get(i);
+                Nodo n2 = rutaFinal.get(i + 1);
 
-                String[] partes = clave.split("-");
+                int x1 = (int) (n1.getX() * escala) + offsetX;
+                int y1 = (int) (n1.getY() * escala) + offsetY;
 
-                if (partes.length == 2) {
+                int x2 = (int) (n2.getX() * escala) + offsetX;
+                int y2 = (int) (n2.getY() * escala) + offsetY;
 
-                    Nodo n1 = nodos.get(partes[0]);
-                    Nodo n2 = nodos.get(partes[1]);
+                g2.drawLine(x1, y1, x2, y2);
+            }
+        }
 
-                    if (n1 != null && n2 != null) {
+        /**
+         * Vuelve a dibujar los nodos con estado, de menor a mayor
+         * prioridad (el último color gana):
+         * ruta, animación, fin, inicio y seleccionado
+         */
+        if (rutaFinal != null) {
+            for (Nodo n : rutaFinal) dibujarNodo(g2, n, Color.BLUE);
+        }
 
-                        int x1 = (int) (n1.getX() * escala) + offsetX;
-                        int y1 = (int) (n1.getY() * escala) + offsetY;
+        if (nodosAnimacion != null) {
+            for (Nodo n : nodosAnimacion) dibujarNodo(g2, n, Color.CYAN);
+        }
 
-                        int x2 = (int) (n2.getX() * escala) + offsetX;
-                        int y2 = (int) (n2.getY() * escala) + offsetY;
+        dibujarNodo(g2, nodoFin, Color.RED);
+        dibujarNodo(g2, nodoInicio, Color.GREEN);
+        dibujarNodo(g2, nodoSeleccionado, Color.BLUE);
+    }
 
-                        // Color diferente según tipo de arista
-                        if (bidireccional)
-                            g2.setColor(new Color(180, 180, 180));
-                        else
-                            g2.setColor(new Color(90, 90, 90));
+    /**
+     * Devuelve la capa estática: el mapa de fondo escalado, las
+     * aristas visibles y los nodos en negro, ya dibujados en una
+     * imagen compatible con la pantalla.
+     *
+     * Solo se vuelve a dibujar si cambia el tamaño del panel, la
+     * configuración de pantalla o la versión del grafo.
+     */
+    private BufferedImage capaEstatica() {
+
+        int panelW = Math.max(1, getWidth());
+        int panelH = Math.max(1, getHeight());
+        long version = grafo == null ? -1 : grafo.getVersion();
+        GraphicsConfiguration gc = getGraphicsConfiguration();
+
+        if (capa != null
+                && capa.getWidth() == panelW
+                && capa.getHeight() == panelH
+                && versionCapa == version
+                && configuracionCapa == gc) {
+            return capa;
+        }
 
-                        g2.drawLine(x1, y1, x2, y2);
+        capa = gc != null
+                ? gc.createCompatibleImage(panelW, panelH)
+                : new BufferedImage(panelW, panelH, BufferedImage.TYPE_INT_RGB);
+        versionCapa = version;
+        configuracionCapa = gc;
 
-                        // Si es unidireccional dibuja flecha
-                        if (!bidireccional) {
-                            dibujarFlecha(g2, x1, y1, x2, y2);
-                        }
-                    }
-                }
-            }
-        }
+        // Calcula la escala manteniendo proporción
+        escala = Math.min(
+                (double) panelW / imgW,
+                (double) panelH / imgH
+        );
 
-        /**
-         * Dibuja la ruta final encontrada en color azul
-         */
-        if (rutaFinal != null && rutaFinal.size() > 1) {
+        int mapaW = (int) (imgW * escala);
+        int mapaH = (int) (imgH * escala);
 
-            g2.setColor(Color.BLUE);
-            g2.setStroke(new BasicStroke(4));
+        // Centra el mapa dentro del panel
+        offsetX = (panelW - mapaW) / 2;
+        offsetY = (panelH - mapaH) / 2;
 
-            for (int i = 0; i < rutaFinal.size() - 1; i++) {
+        Graphics2D g2 = capa.createGraphics();
 
-                Nodo n1 = rutaFinal.get(i);
-                Nodo n2 = rutaFinal.get(i + 1);
+        // Fondo del panel y mapa
+        g2.setColor(getBackground());
+        g2.fillRect(0, 0, panelW, panelH);
+        g2.setRenderingHint(RenderingHints.KEY_INTERPOLATION,
+                RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        g2.drawImage(mapa, offsetX, offsetY, mapaW, mapaH, null);
+
+        if (grafo != null) {
+
+            g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING,
+                    RenderingHints.VALUE_ANTIALIAS_ON);
+
+            /**
+             * Dibuja las aristas visibles
+             * (arreglos de la instantánea con los índices de sus dos nodos,
+             * sin armar ni separar Strings)
+             */
+            g2.setStroke(new BasicStroke(3));
+
+            for (int k = 0; k < grafo.getNumeroAristasVisibles(); k++) {
+
+                boolean bidireccional = grafo.esBidireccional(k);
+
+                Nodo n1 = grafo.getNodo(grafo.origenArista(k));
+                Nodo n2 = grafo.getNodo(grafo.destinoArista(k));
 
                 int x1 = (int) (n1.getX() * escala) + offsetX;
                 int y1 = (int) (n1.getY() * escala) + offsetY;
@@ -185,34 +304,41 @@ public class MapaPanel extends JPanel {
                 int x2 = (int) (n2.getX() * escala) + offsetX;
                 int y2 = (int) (n2.getY() * escala) + offsetY;
 
+                // Color diferente según tipo de arista
+                g2.setColor(bidireccional ? ARISTA_BIDIRECCIONAL : ARISTA_UNIDIRECCIONAL);
+
                 g2.drawLine(x1, y1, x2, y2);
+
+                // Si es unidireccional dibuja flecha
+                if (!bidireccional) {
+                    dibujarFlecha(g2, x1, y1, x2, y2);
+                }
             }
-        }
 
-        /**
-         * Dibuja los nodos
-         */
-        for (Nodo n : nodos.values()) {
-
-            int x = (int) (n.getX() * escala) + offsetX;
-            int y = (int) (n.getY() * escala) + offsetY;
-
-            // Asigna color según el estado del nodo
-            if (n == nodoSeleccionado)
-                g2.setColor(Color.BLUE);
-            else if (n == nodoInicio)
-                g2.setColor(Color.GREEN);
-            else if (n == nodoFin)
-                g2.setColor(Color.RED);
-            else if (nodosAnimacion != null && nodosAnimacion.contains(n))
-                g2.setColor(Color.CYAN);
-            else if (rutaFinal != null && rutaFinal.contains(n))
-                g2.setColor(Color.BLUE);
-            else
-                g2.setColor(Color.BLACK);
-
-            g2.fillOval(x - 6, y - 6, 12, 12);
+            /**
+             * Dibuja los nodos (sin estado, en negro)
+             */
+            for (int i = 0; i < grafo.getNumeroNodos(); i++) {
+                dibujarNodo(g2, grafo.getNodo(i), Color.BLACK);
+            }
         }
+
+        g2.dispose();
+        return capa;
+    }
+
+    /**
+     * Dibuja un nodo con el color indicado (no hace nada si es null).
+     */
+    private void dibujarNodo(Graphics2D g2, Nodo n, Color color) {
+
+        if (n == null) return;
+
+        int x = (int) (n.getX() * escala) + offsetX;
+        int y = (int) (n.getY() * escala) + offsetY;
+
+        g2.setColor(color);
+        g2.fillOval(x - 6, y - 6, 12, 12);
     }
 
     /**
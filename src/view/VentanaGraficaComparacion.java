@@ -1,38 +1,84 @@
 package view;
 
 import java.awt.*;
-import java.util.List;
+import java.util.Map;
 import javax.swing.*;
+import model.HistogramaLatencias;
+import model.MedicionTiempos;
 
 /**
  * Clase VentanaGraficaComparacion
  *
  * Ventana que muestra una comparación visual
- * entre los tiempos de ejecución de BFS y DFS.
+ * entre los tiempos de ejecución de los algoritmos.
  *
  * Utiliza un gráfico de barras donde:
  * - Azul representa BFS
  * - Rojo representa DFS
+ * - Verde representa BFS bidireccional
+ * - Naranja representa Dijkstra
+ * - Morado representa A*
+ * - Gris representa CH (jerarquías de contracción)
+ * - Turquesa representa BFS-TABLA (tabla de distancias por origen)
  *
- * Cada par de barras representa una ejecución.
+ * Cada barra es un algoritmo y se dibuja desde su histograma:
+ * - La altura de la barra es la mediana (p50)
+ * - La línea vertical va del mínimo al p99, con marcas en p90 y p99
+ * - A la derecha, la media con su intervalo de confianza del 95 %
+ *
+ * La escala llega al mayor p99, así que un máximo aislado no
+ * aplasta al resto de la gráfica.
+ *
+ * Arriba se puede elegir otra métrica: el promedio de un contador de
+ * trabajo (nodos expandidos, aristas examinadas, frontera máxima,
+ * saltos o memoria asignada), dibujado como una barra por algoritmo.
  */
 public class VentanaGraficaComparacion extends JFrame {
 
+    // Colores asignados a cada algoritmo, en orden
+    private static final Color[] COLORES = {
+            new Color(100, 149, 237),
+            new Color(255, 99, 71),
+            new Color(60, 179, 113),
+            new Color(238, 173, 45),
+            new Color(147, 112, 219),
+            new Color(128, 128, 128),
+            new Color(64, 190, 190)
+    };
+
+    // Métricas que se pueden graficar; la primera usa el histograma
+    private static final String[] METRICAS = {
+            "Tiempo (ms)", "Nodos expandidos", "Aristas examinadas",
+            "Frontera máxima", "Saltos", "Memoria asignada (KB)"
+    };
+
     /**
      * Constructor de la ventana.
      *
-     * @param bfs Lista de tiempos de ejecución de BFS (en nanosegundos)
-     * @param dfs Lista de tiempos de ejecución de DFS (en nanosegundos)
+     * @param tiempos Histogramas de tiempos por algoritmo
      */
-    public VentanaGraficaComparacion(List<Long> bfs, List<Long> dfs) {
+    public VentanaGraficaComparacion(MedicionTiempos tiempos) {
 
-        setTitle("Comparación Visual BFS vs DFS");
+        setTitle("Comparación Visual " + String.join(" vs ", tiempos.getHistogramas().keySet()));
         setSize(600, 400);
         setLocationRelativeTo(null);
         setDefaultCloseOperation(DISPOSE_ON_CLOSE);
 
-        // Agrega el panel que dibuja la gráfica
-        add(new PanelGrafica(bfs, dfs));
+        PanelGrafica panel = new PanelGrafica(tiempos);
+
+        JComboBox<String> comboMetrica = new JComboBox<>(METRICAS);
+        comboMetrica.addActionListener(e -> {
+            panel.metrica = comboMetrica.getSelectedIndex();
+            panel.repaint();
+        });
+
+        JPanel panelMetrica = new JPanel();
+        panelMetrica.add(new JLabel("Métrica:"));
+        panelMetrica.add(comboMetrica);
+
+        // Agrega el selector y el panel que dibuja la gráfica
+        add(panelMetrica, BorderLayout.NORTH);
+        add(panel, BorderLayout.CENTER);
     }
 
     /**
@@ -40,18 +86,17 @@ public class VentanaGraficaComparacion extends JFrame {
      */
     static class PanelGrafica extends JPanel {
 
-        // Lista de tiempos BFS
-        private List<Long> bfs;
+        // Histogramas por algoritmo
+        private MedicionTiempos tiempos;
 
-        // Lista de tiempos DFS
-        private List<Long> dfs;
+        // Índice en METRICAS de lo que se dibuja
+        int metrica;
 
         /**
          * Constructor del panel gráfico.
          */
-        public PanelGrafica(List<Long> bfs, List<Long> dfs) {
-            this.bfs = bfs;
-            this.dfs = dfs;
+        public PanelGrafica(MedicionTiempos tiempos) {
+            this.tiempos = tiempos;
         }
 
         /**
@@ -74,65 +119,148 @@ public class VentanaGraficaComparacion extends JFrame {
             g2.drawLine(margin, height - margin, width - margin, height - margin);
             g2.drawLine(margin, margin, margin, height - margin);
 
-            int total = Math.min(bfs.size(), dfs.size());
-            if (total == 0) return;
+            if (metrica > 0) {
+                dibujarContador(g2, width, height, margin);
+                return;
+            }
+
+            Map<String, HistogramaLatencias> histogramas = tiempos.getHistogramas();
 
-            // Obtiene el valor máximo para escalar la gráfica
-            long max = 0;
-            for (int i = 0; i < total; i++) {
-                max = Math.max(max, bfs.get(i));
-                max = Math.max(max, dfs.get(i));
+            // Algoritmos con mediciones y valor máximo para escalar la gráfica
+            int series = 0;
+            double max = 0;
+            for (HistogramaLatencias h : histogramas.values()) {
+                if (h.getCantidad() == 0) continue;
+                series++;
+                max = Math.max(max, h.percentil(99));
+                max = Math.max(max, h.getMedia() + h.getIntervaloConfianza());
             }
 
-            if (max == 0) return;
+            if (series == 0 || max == 0) return;
 
             int graphWidth = width - 2 * margin;
             int graphHeight = height - 2 * margin;
+            int base = height - margin;
 
-            int barWidth = graphWidth / (total * 2);
+            int ancho = graphWidth / series;
+            int barWidth = Math.max(2, ancho / 2);
+
+            g2.setColor(Color.BLACK);
+            g2.drawString(String.format("%.3f ms", max / 1_000_000.0), 5, margin - 5);
+            g2.drawString("Barra: p50   Línea: mín a p99 (marcas p90, p99)   ◆: media ± IC 95%",
+                    margin, 20);
 
             /**
              * Dibuja las barras
              */
-            for (int i = 0; i < total; i++) {
-
-                // Conversión a milisegundos (solo informativo)
-                double bfsMs = bfs.get(i) / 1_000_000.0;
-                double dfsMs = dfs.get(i) / 1_000_000.0;
-
-                // Altura proporcional respecto al valor máximo
-                int bfsHeight = (int) ((bfs.get(i) / (double) max) * graphHeight);
-                int dfsHeight = (int) ((dfs.get(i) / (double) max) * graphHeight);
-
-                int xBase = margin + i * barWidth * 2;
-
-                // Barra BFS (Azul)
-                g2.setColor(new Color(100, 149, 237));
-                g2.fillRect(xBase,
-                        height - margin - bfsHeight,
-                        barWidth,
-                        bfsHeight);
-
-                // Barra DFS (Rojo)
-                g2.setColor(new Color(255, 99, 71));
-                g2.fillRect(xBase + barWidth,
-                        height - margin - dfsHeight,
-                        barWidth,
-                        dfsHeight);
+            int s = 0;
+            int i = 0;
+            for (Map.Entry<String, HistogramaLatencias> entry : histogramas.entrySet()) {
+
+                HistogramaLatencias h = entry.getValue();
+                Color color = COLORES[s++ % COLORES.length];
+                if (h.getCantidad() == 0) continue;
+
+                int x = margin + i * ancho + (ancho - barWidth) / 2;
+                int centro = x + barWidth / 2;
+
+                // Barra: mediana
+                int alto = escalar(h.percentil(50), max, graphHeight);
+                g2.setColor(color);
+                g2.fillRect(x, base - alto, barWidth, alto);
+
+                // Línea: mínimo a p99, con marcas en p90 y p99
+                int yMin = base - escalar(h.getMinimo(), max, graphHeight);
+                int y90 = base - escalar(h.percentil(90), max, graphHeight);
+                int y99 = base - escalar(h.percentil(99), max, graphHeight);
+                g2.setColor(Color.BLACK);
+                g2.drawLine(centro, yMin, centro, y99);
+                g2.drawLine(centro - 4, y90, centro + 4, y90);
+                g2.drawLine(centro - 6, y99, centro + 6, y99);
+
+                // Media con su intervalo de confianza
+                int xMedia = x + barWidth + 6;
+                int yMedia = base - escalar(h.getMedia(), max, graphHeight);
+                int yInf = base - escalar(h.getMedia() - h.getIntervaloConfianza(), max, graphHeight);
+                int ySup = base - escalar(h.getMedia() + h.getIntervaloConfianza(), max, graphHeight);
+                g2.drawLine(xMedia, yInf, xMedia, ySup);
+                g2.fillPolygon(new int[]{xMedia - 3, xMedia, xMedia + 3, xMedia},
+                        new int[]{yMedia, yMedia - 3, yMedia, yMedia + 3}, 4);
+
+                // Etiqueta: algoritmo y cantidad de mediciones
+                g2.drawString(entry.getKey(), x, base + 15);
+                g2.drawString("n=" + h.getCantidad(), x, base + 30);
+
+                i++;
             }
+        }
 
-            /**
-             * Leyenda de colores
-             */
-            g2.setColor(new Color(100, 149, 237));
-            g2.fillRect(width - 180, 20, 15, 15);
-            g2.setColor(Color.BLACK);
-            g2.drawString("BFS", width - 160, 32);
+        /**
+         * Dibuja el promedio del contador elegido, una barra por algoritmo.
+         */
+        private void dibujarContador(Graphics2D g2, int width, int height, int margin) {
+
+            Map<String, HistogramaLatencias> histogramas = tiempos.getHistogramas();
+
+            int series = 0;
+            double max = 0;
+            for (String algoritmo : histogramas.keySet()) {
+                if (histogramas.get(algoritmo).getCantidad() == 0) continue;
+                series++;
+                max = Math.max(max, valor(tiempos.getContadores(algoritmo)));
+            }
+
+            if (series == 0 || max <= 0) return;
+
+            int graphHeight = height - 2 * margin;
+            int base = height - margin;
+            int ancho = (width - 2 * margin) / series;
+            int barWidth = Math.max(2, ancho / 2);
 
-            g2.setColor(new Color(255, 99, 71));
-            g2.fillRect(width - 120, 20, 15, 15);
             g2.setColor(Color.BLACK);
-            g2.drawString("DFS", width - 100, 32);
+            g2.drawString(String.format("%.0f", max), 5, margin - 5);
+            g2.drawString(METRICAS[metrica] + " (promedio por ejecución)", margin, 20);
+
+            int s = 0;
+            int i = 0;
+            for (String algoritmo : histogramas.keySet()) {
+
+                Color color = COLORES[s++ % COLORES.length];
+                if (histogramas.get(algoritmo).getCantidad() == 0) continue;
+
+                double v = valor(tiempos.getContadores(algoritmo));
+                int x = margin + i * ancho + (ancho - barWidth) / 2;
+                int alto = escalar(v, max, graphHeight);
+
+                g2.setColor(color);
+                g2.fillRect(x, base - alto, barWidth, alto);
+
+                g2.setColor(Color.BLACK);
+                g2.drawString(v < 0 ? "-" : String.format("%.0f", v), x, base - alto - 4);
+                g2.drawString(algoritmo, x, base + 15);
+
+                i++;
+            }
+        }
+
+        /**
+         * Promedio del contador elegido (-1 si la memoria no se midió).
+         */
+        private double valor(MedicionTiempos.Contadores c) {
+            switch (metrica) {
+                case 1: return c.getExpandidos();
+                case 2: return c.getAristas();
+                case 3: return c.getFrontera();
+                case 4: return c.getSaltos();
+                default: return c.getBytes() < 0 ? -1 : c.getBytes() / 1024;
+            }
+        }
+
+        /**
+         * Altura en píxeles del valor, respecto al máximo de la gráfica.
+         */
+        private static int escalar(double valor, double max, int graphHeight) {
+            return (int) (Math.max(0, Math.min(valor, max)) / max * graphHeight);
         }
     }
 }
@@ -12,7 +12,9 @@ import javax.swing.*;
  * Contiene:
  * - El panel del mapa (MapaPanel)
  * - Una barra de herramientas con botones de edición y acciones
- * - Controles para ejecutar BFS y DFS
+ * - Controles para ejecutar BFS, DFS, BFS bidireccional, Dijkstra, A*, CH
+ *   y BFS con tabla de distancias
+ * - Botón para ejecutar un archivo de consultas en lote
  * - Selector de modo (instantáneo o animado)
  * - Etiqueta informativa inferior
  *
@@ -25,13 +27,13 @@ public class VentanaPrincipal extends JFrame {
     private MapaPanel panelMapa;
 
     // Botones para selección de inicio y fin
-    private JButton btnInicio, btnFin, btnBFS, btnDFS;
+    private JButton btnInicio, btnFin, btnBFS, btnDFS, btnBFSBidireccional, btnDijkstra, btnAEstrella, btnJerarquia, btnTablaBFS;
 
     // Botones de edición del grafo
     private JButton btnNodo, btnArista, btnBorrarNodo, btnBorrarArista;
 
     // Botones de acciones generales
-    private JButton btnLimpiar, btnGuardar, btnTiempos;
+    private JButton btnLimpiar, btnGuardar, btnTiempos, btnLote;
 
     // Selector de modo de visualización
     private JComboBox<String> comboModo;
@@ -69,11 +71,13 @@ public class VentanaPrincipal extends JFrame {
         btnLimpiar = new JButton("Resetear");
         btnGuardar = new JButton("Guardar");
         btnTiempos = new JButton("Ver Tiempos");
+        btnLote = new JButton("Lote de Consultas");
 
         // Colores para distinguir acciones importantes
         btnLimpiar.setBackground(new Color(255, 200, 200));
         btnGuardar.setBackground(new Color(200, 255, 200));
         btnTiempos.setBackground(new Color(200, 220, 255));
+        btnLote.setBackground(new Color(200, 220, 255));
 
         // Botones para definir inicio y fin
         btnInicio = new JButton("INICIO");
@@ -90,6 +94,11 @@ public class VentanaPrincipal extends JFrame {
         // Botones para ejecutar algoritmos
         btnBFS = new JButton("BFS");
         btnDFS = new JButton("DFS");
+        btnBFSBidireccional = new JButton("BFS Bidireccional");
+        btnDijkstra = new JButton("Dijkstra");
+        btnAEstrella = new JButton("A*");
+        btnJerarquia = new JButton("CH");
+        btnTablaBFS = new JButton("BFS (Tabla)");
 
         /**
          * Organización de la barra de herramientas
@@ -105,6 +114,7 @@ public class VentanaPrincipal extends JFrame {
         toolbar.add(btnLimpiar);
         toolbar.add(btnGuardar);
         toolbar.add(btnTiempos);
+        toolbar.add(btnLote);
         toolbar.addSeparator();
 
         toolbar.add(new JLabel(" RUTA: "));
@@ -113,6 +123,11 @@ public class VentanaPrincipal extends JFrame {
         toolbar.add(comboModo);
         toolbar.add(btnBFS);
         toolbar.add(btnDFS);
+        toolbar.add(btnBFSBidireccional);
+        toolbar.add(btnDijkstra);
+        toolbar.add(btnAEstrella);
+        toolbar.add(btnJerarquia);
+        toolbar.add(btnTablaBFS);
 
         add(toolbar, BorderLayout.NORTH);
 
@@ -136,6 +151,11 @@ public class VentanaPrincipal extends JFrame {
     public JButton getBtnFin() { return btnFin; }
     public JButton getBtnBFS() { return btnBFS; }
     public JButton getBtnDFS() { return btnDFS; }
+    public JButton getBtnBFSBidireccional() { return btnBFSBidireccional; }
+    public JButton getBtnDijkstra() { return btnDijkstra; }
+    public JButton getBtnAEstrella() { return btnAEstrella; }
+    public JButton getBtnJerarquia() { return btnJerarquia; }
+    public JButton getBtnTablaBFS() { return btnTablaBFS; }
 
     public JComboBox<String> getComboModo() { return comboModo; }
 
@@ -147,6 +167,7 @@ public class VentanaPrincipal extends JFrame {
     public JButton getBtnLimpiar() { return btnLimpiar; }
     public JButton getBtnGuardar() { return btnGuardar; }
     public JButton getBtnTiempos() { return btnTiempos; }
+    public JButton getBtnLote() { return btnLote; }
 
     /**
      * Actualiza el mensaje informativo inferior.
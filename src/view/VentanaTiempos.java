@@ -1,21 +1,36 @@
 package view;
 
 import java.awt.*;
-import java.util.List;
+import java.util.Map;
 import javax.swing.*;
 import javax.swing.table.DefaultTableModel;
+import model.CacheRutas;
+import model.HistogramaLatencias;
+import model.MedicionTiempos;
+import model.MemoriaAsignada;
 
 /**
  * Clase VentanaTiempos
  *
  * Muestra una tabla comparativa con los tiempos de ejecución
- * de los algoritmos BFS y DFS.
+ * de los algoritmos de búsqueda (BFS, DFS, BFS bidireccional, ...).
  *
  * Permite:
- * - Visualizar los tiempos en milisegundos
+ * - Visualizar por algoritmo la cantidad de mediciones, mínimo,
+ *   percentiles 50, 90 y 99, máximo y media con su intervalo de
+ *   confianza del 95 %, en milisegundos
+ *   (solo ejecuciones calculadas, no las tomadas de la caché)
+ * - Ver el trabajo promedio de cada algoritmo: nodos expandidos,
+ *   aristas examinadas, frontera máxima, saltos de la ruta y
+ *   memoria asignada (esta última se puede desactivar)
+ * - Elegir cuántas ejecuciones de calentamiento y cuántas
+ *   repeticiones se hacen por búsqueda, y reiniciar las mediciones
+ * - Ver los aciertos y fallos de la caché de rutas
+ * - Ver el costo amortizado por consulta de BFS-TABLA
  * - Abrir una gráfica comparativa (VentanaGraficaComparacion)
  *
- * Esta ventana es informativa y no permite editar datos.
+ * Los datos salen de los histogramas de MedicionTiempos, así que la
+ * ventana no crece con la cantidad de ejecuciones.
  */
 public class VentanaTiempos extends JFrame {
 
@@ -25,23 +40,24 @@ public class VentanaTiempos extends JFrame {
     // Tabla donde se muestran los tiempos
     private JTable tabla;
 
-    // Listas con los tiempos registrados
-    private List<Long> tiemposBFS;
-    private List<Long> tiemposDFS;
+    // Tiempos registrados por algoritmo
+    private MedicionTiempos tiempos;
+
+    // Costo amortizado de BFS-TABLA
+    private JLabel lblTabla;
 
     /**
      * Constructor de la ventana.
      *
-     * @param tiemposBFS Lista de tiempos BFS (nanosegundos)
-     * @param tiemposDFS Lista de tiempos DFS (nanosegundos)
+     * @param tiempos Histogramas de tiempos por algoritmo
+     * @param cache Caché de rutas del grafo
      */
-    public VentanaTiempos(List<Long> tiemposBFS, List<Long> tiemposDFS) {
+    public VentanaTiempos(MedicionTiempos tiempos, CacheRutas cache) {
 
-        this.tiemposBFS = tiemposBFS;
-        this.tiemposDFS = tiemposDFS;
+        this.tiempos = tiempos;
 
-        setTitle("Comparación de Tiempos BFS vs DFS");
-        setSize(500, 400);
+        setTitle("Comparación de Tiempos " + String.join(" vs ", tiempos.getHistogramas().keySet()));
+        setSize(1100, 400);
         setLocationRelativeTo(null);
         setDefaultCloseOperation(DISPOSE_ON_CLOSE);
         setLayout(new BorderLayout());
@@ -49,14 +65,17 @@ public class VentanaTiempos extends JFrame {
         /**
          * Configuración del modelo de tabla.
          * Columnas:
-         * - Número de ejecución
-         * - Tiempo BFS en ms
-         * - Tiempo DFS en ms
+         * - Algoritmo y cantidad de mediciones
+         * - Estadísticas del histograma en ms
+         * - Promedio de los contadores de trabajo
          */
-        modeloTabla = new DefaultTableModel(
-                new Object[]{"Ejecución", "BFS (ms)", "DFS (ms)"},
-                0
-        ) {
+        Object[] columnas = {
+                "Algoritmo", "Mediciones", "Mín (ms)", "p50 (ms)", "p90 (ms)",
+                "p99 (ms)", "Máx (ms)", "Media ± IC 95% (ms)",
+                "Expandidos", "Aristas", "Frontera máx", "Saltos", "KB asignados"
+        };
+
+        modeloTabla = new DefaultTableModel(columnas, 0) {
             // Hace que las celdas no sean editables
             @Override
             public boolean isCellEditable(int row, int column) {
@@ -73,38 +92,101 @@ public class VentanaTiempos extends JFrame {
         JScrollPane scroll = new JScrollPane(tabla);
         add(scroll, BorderLayout.CENTER);
 
+        // Resumen de la caché: los aciertos no aparecen en la tabla
+        JPanel panelResumen = new JPanel(new GridLayout(0, 1));
+        JLabel lblCache = new JLabel("Caché: " + cache.getAciertos() + " aciertos, "
+                + cache.getFallos() + " calculadas");
+        lblCache.setHorizontalAlignment(SwingConstants.CENTER);
+        panelResumen.add(lblCache);
+
+        lblTabla = new JLabel();
+        lblTabla.setHorizontalAlignment(SwingConstants.CENTER);
+        panelResumen.add(lblTabla);
+
+        add(panelResumen, BorderLayout.NORTH);
+
         /**
-         * Botón que abre la gráfica comparativa
+         * Configuración de la medición y botón que abre la gráfica
          */
+        JSpinner spnCalentamiento = new JSpinner(
+                new SpinnerNumberModel(tiempos.getCalentamiento(), 0, 100, 1));
+        spnCalentamiento.addChangeListener(e ->
+                tiempos.setCalentamiento((Integer) spnCalentamiento.getValue()));
+
+        JSpinner spnRepeticiones = new JSpinner(
+                new SpinnerNumberModel(tiempos.getRepeticiones(), 1, 1000, 1));
+        spnRepeticiones.addChangeListener(e ->
+                tiempos.setRepeticiones((Integer) spnRepeticiones.getValue()));
+
+        JCheckBox chkMemoria = new JCheckBox("Medir memoria", MemoriaAsignada.estaActiva());
+        chkMemoria.setEnabled(MemoriaAsignada.estaDisponible());
+        chkMemoria.addActionListener(e -> MemoriaAsignada.setActiva(chkMemoria.isSelected()));
+
+        JButton btnReiniciar = new JButton("Reiniciar");
+        btnReiniciar.addActionListener(e -> {
+            tiempos.reiniciar();
+            agregarDatos();
+        });
+
         JButton btnGrafica = new JButton("Ver Comparación Gráfica");
         btnGrafica.addActionListener(e ->
-                new VentanaGraficaComparacion(tiemposBFS, tiemposDFS).setVisible(true)
+                new VentanaGraficaComparacion(tiempos).setVisible(true)
         );
 
         JPanel panelBoton = new JPanel();
+        panelBoton.add(new JLabel("Calentamiento:"));
+        panelBoton.add(spnCalentamiento);
+        panelBoton.add(new JLabel("Repeticiones:"));
+        panelBoton.add(spnRepeticiones);
+        panelBoton.add(chkMemoria);
+        panelBoton.add(btnReiniciar);
         panelBoton.add(btnGrafica);
 
         add(panelBoton, BorderLayout.SOUTH);
 
         // Carga los datos en la tabla
-        agregarDatos(tiemposBFS, tiemposDFS);
+        agregarDatos();
     }
 
     /**
-     * Agrega los datos de BFS y DFS a la tabla.
+     * Carga una fila por algoritmo con mediciones.
      * Convierte los tiempos de nanosegundos a milisegundos.
      */
-    private void agregarDatos(List<Long> bfs, List<Long> dfs) {
+    private void agregarDatos() {
+
+        modeloTabla.setRowCount(0);
 
-        int total = Math.min(bfs.size(), dfs.size());
+        for (Map.Entry<String, HistogramaLatencias> entry : tiempos.getHistogramas().entrySet()) {
 
-        for (int i = 0; i < total; i++) {
+            HistogramaLatencias h = entry.getValue();
+            if (h.getCantidad() == 0) continue;
+
+            MedicionTiempos.Contadores c = tiempos.getContadores(entry.getKey());
 
             modeloTabla.addRow(new Object[]{
-                    i + 1,
-                    bfs.get(i) / 1_000_000.0,
-                    dfs.get(i) / 1_000_000.0
+                    entry.getKey(),
+                    h.getCantidad(),
+                    h.getMinimo() / 1_000_000.0,
+                    h.percentil(50) / 1_000_000.0,
+                    h.percentil(90) / 1_000_000.0,
+                    h.percentil(99) / 1_000_000.0,
+                    h.getMaximo() / 1_000_000.0,
+                    String.format("%.4f ± %.4f", h.getMedia() / 1_000_000.0,
+                            h.getIntervaloConfianza() / 1_000_000.0),
+                    Math.round(c.getExpandidos()),
+                    Math.round(c.getAristas()),
+                    Math.round(c.getFrontera()),
+                    Math.round(c.getSaltos()),
+                    c.getBytes() < 0 ? null : Math.round(c.getBytes() / 1024)
             });
         }
+
+        // La primera consulta de cada inicio incluye el BFS completo,
+        // así que el promedio es el costo amortizado por consulta
+        HistogramaLatencias tablaBFS = tiempos.getHistograma("BFS-TABLA");
+        lblTabla.setText(tablaBFS.getCantidad() == 0 ? "" : String.format(
+                "BFS-TABLA: %.4f ms por consulta (amortizado en %d consultas)",
+                tablaBFS.getMedia() / 1_000_000.0, tablaBFS.getCantidad()));
+        lblTabla.setVisible(tablaBFS.getCantidad() > 0);
     }
 }